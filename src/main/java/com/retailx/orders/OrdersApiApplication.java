@@ -2,6 +2,9 @@ package com.retailx.orders;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
 
 /**
  * RetailX Orders API Application
@@ -15,14 +18,19 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * TODOs:
  * - [ ] Migrate to new RetailX Messaging Hub (RETAILX-8001)
  * - [ ] Add service discovery integration (RETAILX-8002)
- * - [ ] Implement database persistence (RETAILX-8003)
+ * - [ ] Run the jpa persistence mode on PostgreSQL instead of embedded H2 (RETAILX-8003)
  * - [ ] Add Redis caching layer (RETAILX-8004)
  * - [ ] Integrate with message queue for order events (RETAILX-8005)
  * 
  * @author RetailX Platform Team
  * @version 2.1.3
  */
-@SpringBootApplication
+// The database is only set up in the jpa persistence mode, by JpaPersistenceConfiguration
+@SpringBootApplication(exclude = {
+    DataSourceAutoConfiguration.class,
+    HibernateJpaAutoConfiguration.class,
+    JpaRepositoriesAutoConfiguration.class
+})
 public class OrdersApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package com.retailx.orders.cache;
+
+import com.retailx.orders.model.OrderResponse;
+
+/**
+ * Distributed Order Cache
+ * 
+ * Optional second cache tier shared by all instances of the service, consulted
+ * by {@link OrderCache} when an order is not in the local cache. When no bean of
+ * this type is defined, only the local cache is used.
+ * 
+ * Implementations should expire entries on their own (as a bound on staleness
+ * across instances) and may throw on connectivity problems; {@link OrderCache}
+ * treats a failing tier as a miss.
+ * 
+ * TODOs:
+ * - [ ] Add Redis implementation (RETAILX-8004)
+ */
+public interface DistributedOrderCache {
+    
+    /**
+     * Returns the cached order, or null if it is not cached.
+     */
+    OrderResponse get(String orderId);
+    
+    void put(OrderResponse order);
+    
+    void evict(String orderId);
+}
@@ -0,0 +1,145 @@
+package com.retailx.orders.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Order Cache
+ * 
+ * Read-through cache in front of order lookups by ID, so that clients polling
+ * an order do not hit the order store on every request.
+ * 
+ * Two tiers:
+ * 1. a local Caffeine cache, bounded by {@code max-size} with W-TinyLFU eviction
+ *    (frequently polled orders stay cached even under a scan of one-off lookups)
+ *    and expiring entries {@code ttl-ms} after they were loaded,
+ * 2. an optional {@link DistributedOrderCache}, used when such a bean exists.
+ * 
+ * A miss in both tiers loads the order from the store and fills both. Orders
+ * that do not exist are not cached. {@link #invalidate} removes an order from
+ * both tiers and must be called whenever an order changes; the TTL bounds how
+ * long another instance can serve an order from its local tier after a change.
+ * 
+ * METRICS:
+ * - cache.gets / cache.puts / cache.evictions / cache.size (tag cache=orders) - local tier
+ * - retailx.orders.cache.distributed - tagged with result (hit, miss, error)
+ * 
+ * TODOs:
+ * - [ ] Add Redis-backed distributed tier (RETAILX-8004)
+ */
+@Component
+public class OrderCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderCache.class);
+    
+    private final boolean enabled;
+    private final Cache<String, OrderResponse> local;
+    private final DistributedOrderCache distributed;
+    
+    private final Counter distributedHits;
+    private final Counter distributedMisses;
+    private final Counter distributedErrors;
+    
+    @Autowired
+    public OrderCache(
+            ObjectProvider<DistributedOrderCache> distributedOrderCache,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.cache.enabled:true}") boolean enabled,
+            @Value("${retailx.orders.cache.max-size:10000}") long maxSize,
+            @Value("${retailx.orders.cache.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled;
+        this.local = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .recordStats()
+            .build();
+        this.distributed = distributedOrderCache.getIfAvailable();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "orders");
+        
+        this.distributedHits = distributedCounter(meterRegistry, "hit");
+        this.distributedMisses = distributedCounter(meterRegistry, "miss");
+        this.distributedErrors = distributedCounter(meterRegistry, "error");
+        
+        logger.info("Order cache {} (max size {}, TTL {} ms, distributed tier {})",
+            enabled ? "enabled" : "disabled", maxSize, ttlMs, distributed == null ? "none" : distributed.getClass().getSimpleName());
+    }
+    
+    /**
+     * Returns the order from the cache, loading it with {@code loader} on a miss.
+     * 
+     * @return the order, or null if the loader does not find it
+     */
+    public OrderResponse get(String orderId, Function<String, OrderResponse> loader) {
+        if (!enabled) {
+            return loader.apply(orderId);
+        }
+        // Concurrent misses for the same order wait for a single load
+        return local.get(orderId, id -> loadThroughDistributed(id, loader));
+    }
+    
+    /**
+     * Removes an order from both tiers.
+     */
+    public void invalidate(String orderId) {
+        if (!enabled) {
+            return;
+        }
+        local.invalidate(orderId);
+        if (distributed != null) {
+            try {
+                distributed.evict(orderId);
+            } catch (RuntimeException e) {
+                distributedErrors.increment();
+                logger.warn("Failed to evict order {} from the distributed cache: {}", orderId, e.getMessage());
+            }
+        }
+    }
+    
+    private OrderResponse loadThroughDistributed(String orderId, Function<String, OrderResponse> loader) {
+        if (distributed == null) {
+            return loader.apply(orderId);
+        }
+        try {
+            OrderResponse cached = distributed.get(orderId);
+            if (cached != null) {
+                distributedHits.increment();
+                return cached;
+            }
+            distributedMisses.increment();
+        } catch (RuntimeException e) {
+            distributedErrors.increment();
+            logger.warn("Distributed cache lookup failed for order {}: {}", orderId, e.getMessage());
+        }
+        
+        OrderResponse order = loader.apply(orderId);
+        if (order != null) {
+            try {
+                distributed.put(order);
+            } catch (RuntimeException e) {
+                distributedErrors.increment();
+                logger.warn("Failed to store order {} in the distributed cache: {}", orderId, e.getMessage());
+            }
+        }
+        return order;
+    }
+    
+    private static Counter distributedCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("retailx.orders.cache.distributed")
+            .tag("result", result)
+            .description("Distributed order cache lookups and failures")
+            .register(meterRegistry);
+    }
+}
@@ -1,27 +1,51 @@
 package com.retailx.orders.client;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Notification Service Client
  * 
  * Handles communication with the foo-legacy-notifications-api service.
  * 
- * INTEGRATION NOTICE:
- * This client simulates HTTP calls to the notification service without making
- * actual network requests. In a real implementation, this would use WebClient
- * or RestTemplate to make HTTP calls.
+ * All calls are non-blocking: they return a {@link Mono} that completes when the
+ * notifications API has accepted the request, so callers never park a request
+ * thread on the network round trip. Requests go through the pooled
+ * {@link WebClient} built by {@link NotificationClientConfiguration} and are
+ * bounded by {@code retailx.services.notifications.timeout}.
+ * 
+ * Request bodies are encoded by {@link NotificationPayloadEncoder} directly into
+ * pooled buffers. Payloads are only logged at DEBUG, and then only one in every
+ * {@code payload-log-sample-rate} requests.
+ * 
+ * METRICS:
+ * - retailx.notifications.http.in-flight - requests currently awaiting a response
  * 
  * DEPENDENCIES:
  * - foo-legacy-notifications-api (http://localhost:8081)
  * 
+ * Retries, circuit breaking and bulkheading are applied on top of this client
+ * by {@link ResilientNotificationClient}.
+ * 
  * TODOs:
- * - [ ] Implement actual HTTP client calls (RETAILX-8021)
- * - [ ] Add retry mechanism with exponential backoff (RETAILX-8022)
- * - [ ] Add circuit breaker pattern (RETAILX-8023)
  * - [ ] Migrate to new RetailX Messaging Hub (RETAILX-8001)
  * - [ ] Add request/response logging (RETAILX-8024)
  */
@@ -30,97 +54,104 @@ public class NotificationClient {
     
     private static final Logger logger = LoggerFactory.getLogger(NotificationClient.class);
     
-    @Value("${retailx.services.notifications.base-url}")
-    private String notificationServiceUrl;
+    private static final String NOTIFICATIONS_PATH = "/v1/notifications";
+    private static final String BULK_NOTIFICATIONS_PATH = "/v1/notifications/bulk";
+    
+    private final WebClient webClient;
+    private final NotificationPayloadEncoder payloadEncoder;
+    private final Duration timeout;
+    private final int payloadLogSampleRate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
     
-    @Value("${retailx.services.notifications.timeout}")
-    private int timeoutMs;
+    @Autowired
+    public NotificationClient(
+            WebClient notificationWebClient,
+            NotificationPayloadEncoder payloadEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.services.notifications.timeout}") int timeoutMs,
+            @Value("${retailx.services.notifications.payload-log-sample-rate:100}") int payloadLogSampleRate) {
+        this.webClient = notificationWebClient;
+        this.payloadEncoder = payloadEncoder;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.payloadLogSampleRate = Math.max(1, payloadLogSampleRate);
+        Gauge.builder("retailx.notifications.http.in-flight", inFlight, AtomicInteger::get)
+            .description("Notification requests awaiting a response")
+            .register(meterRegistry);
+    }
     
     /**
      * Sends an order confirmation notification
      * 
-     * MOCK IMPLEMENTATION: This simulates a POST request to:
-     * {notificationServiceUrl}/v1/notifications
-     * 
-     * TODO: Replace with actual HTTP client implementation (RETAILX-8021)
+     * POST {notificationServiceUrl}/v1/notifications
      */
-    public void sendOrderConfirmationNotification(String customerEmail, String orderId) {
-        logger.info("MOCK: Sending order confirmation notification");
-        logger.info("MOCK: POST {}/v1/notifications", notificationServiceUrl);
-        
-        // Simulate the request payload that would be sent
-        String mockRequestPayload = String.format("""
-            {
-              "recipient": "%s",
-              "message": "Your order %s has been confirmed and is being processed. You will receive updates as your order progresses.",
-              "type": "email"
-            }
-            """, customerEmail, orderId);
-        
-        logger.info("MOCK: Request payload: {}", mockRequestPayload);
-        
-        // Simulate response
-        String mockResponsePayload = String.format("""
-            {
-              "id": "mock-notification-id-%s",
-              "recipient": "%s",
-              "message": "Your order %s has been confirmed and is being processed. You will receive updates as your order progresses.",
-              "type": "email",
-              "status": "sent",
-              "createdAt": "%s"
-            }
-            """, System.currentTimeMillis(), customerEmail, orderId, java.time.LocalDateTime.now());
-        
-        logger.info("MOCK: Response payload: {}", mockResponsePayload);
-        logger.info("MOCK: Order confirmation notification sent successfully");
-        
-        // TODO: Implement actual HTTP call (RETAILX-8021)
-        // TODO: Handle network errors and timeouts (RETAILX-8022)
-        // TODO: Add circuit breaker for resilience (RETAILX-8023)
+    public Mono<Void> sendOrderConfirmationNotification(String customerEmail, String orderId) {
+        return send(NotificationMessage.orderConfirmation(customerEmail, orderId));
     }
     
     /**
      * Sends an order status update notification
      * 
-     * MOCK IMPLEMENTATION: This simulates a POST request to:
-     * {notificationServiceUrl}/v1/notifications
+     * POST {notificationServiceUrl}/v1/notifications
+     * 
+     * TODO: Add SMS notification option (RETAILX-8025)
+     */
+    public Mono<Void> sendOrderStatusUpdateNotification(String customerEmail, String orderId, String status) {
+        return send(NotificationMessage.orderStatusUpdate(customerEmail, orderId, status));
+    }
+    
+    /**
+     * Sends a single notification
+     * 
+     * POST {notificationServiceUrl}/v1/notifications
+     */
+    public Mono<Void> send(NotificationMessage message) {
+        return post(NOTIFICATIONS_PATH, () -> payloadEncoder.encode(message), 1);
+    }
+    
+    /**
+     * Sends a batch of notifications in one request
+     * 
+     * POST {notificationServiceUrl}/v1/notifications/bulk
      * 
-     * TODO: Replace with actual HTTP client implementation (RETAILX-8021)
+     * Used by {@link NotificationDispatcher} so that a burst of orders costs one
+     * round trip per batch instead of one per notification (RETAILX-8027).
      */
-    public void sendOrderStatusUpdateNotification(String customerEmail, String orderId, String status) {
-        logger.info("MOCK: Sending order status update notification");
-        logger.info("MOCK: POST {}/v1/notifications", notificationServiceUrl);
-        
-        // Simulate the request payload that would be sent
-        String mockRequestPayload = String.format("""
-            {
-              "recipient": "%s",
-              "message": "Order %s status update: %s",
-              "type": "email"
-            }
-            """, customerEmail, orderId, status);
-        
-        logger.info("MOCK: Request payload: {}", mockRequestPayload);
-        
-        // Simulate response
-        String mockResponsePayload = String.format("""
-            {
-              "id": "mock-notification-id-%s",
-              "recipient": "%s",
-              "message": "Order %s status update: %s",
-              "type": "email",
-              "status": "sent",
-              "createdAt": "%s"
-            }
-            """, System.currentTimeMillis(), customerEmail, orderId, status, java.time.LocalDateTime.now());
-        
-        logger.info("MOCK: Response payload: {}", mockResponsePayload);
-        logger.info("MOCK: Order status update notification sent successfully");
-        
-        // TODO: Implement actual HTTP call (RETAILX-8021)
-        // TODO: Add SMS notification option (RETAILX-8025)
+    public Mono<Void> sendBulkNotifications(List<NotificationMessage> messages) {
+        return post(BULK_NOTIFICATIONS_PATH, () -> payloadEncoder.encodeBulk(messages), messages.size());
+    }
+    
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+    
+    private Mono<Void> post(String path, Supplier<DataBuffer> body, int notificationCount) {
+        return Mono.defer(() -> {
+                inFlight.incrementAndGet();
+                // Encoded per attempt: the buffer is released once written, so a
+                // retry needs a fresh one
+                Mono<DataBuffer> payload = Mono.fromSupplier(body)
+                    .doOnNext(buffer -> logPayload(path, notificationCount, buffer))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+                return webClient.post()
+                    .uri(path)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(BodyInserters.fromDataBuffers(payload))
+                    .retrieve()
+                    .toBodilessEntity();
+            })
+            .timeout(timeout)
+            .doOnSuccess(response -> logger.debug("POST {} accepted with status {}", path, response.getStatusCode()))
+            .doFinally(signal -> inFlight.decrementAndGet())
+            .then();
+    }
+    
+    private void logPayload(String path, int notificationCount, DataBuffer payload) {
+        if (logger.isDebugEnabled() && requestCount.getAndIncrement() % payloadLogSampleRate == 0) {
+            logger.debug("POST {} with {} notifications, payload: {}",
+                path, notificationCount, payload.toString(StandardCharsets.UTF_8));
+        }
     }
     
     // TODO: Add method to check notification delivery status (RETAILX-8026)
-    // TODO: Add bulk notification support (RETAILX-8027)
 }
@@ -0,0 +1,56 @@
+package com.retailx.orders.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Notification Client Configuration
+ * 
+ * Builds the {@link WebClient} used by {@link NotificationClient} on top of a
+ * dedicated, bounded Reactor Netty connection pool. Keeping the pool separate
+ * from any other WebClient in the application means a slow notifications API
+ * can only exhaust its own connections.
+ * 
+ * TODOs:
+ * - [ ] Move base URL to service discovery (RETAILX-8002)
+ */
+@Configuration
+public class NotificationClientConfiguration {
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider notificationConnectionProvider(
+            @Value("${retailx.services.notifications.timeout}") int timeoutMs,
+            @Value("${retailx.services.notifications.pool.max-connections:50}") int maxConnections,
+            @Value("${retailx.services.notifications.pool.max-idle-time-ms:30000}") long maxIdleTimeMs) {
+        return ConnectionProvider.builder("notifications")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(Duration.ofMillis(timeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+            .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+            .metrics(true)
+            .build();
+    }
+    
+    @Bean
+    public WebClient notificationWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider notificationConnectionProvider,
+            @Value("${retailx.services.notifications.base-url}") String baseUrl,
+            @Value("${retailx.services.notifications.timeout}") int timeoutMs) {
+        HttpClient httpClient = HttpClient.create(notificationConnectionProvider)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMs)
+            .responseTimeout(Duration.ofMillis(timeoutMs));
+        return webClientBuilder
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+}
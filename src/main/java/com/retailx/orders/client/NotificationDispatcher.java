@@ -0,0 +1,282 @@
+package com.retailx.orders.client;
+
+import com.retailx.orders.client.resilience.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification Dispatcher
+ * 
+ * Takes customer notifications off the order request path. Order operations
+ * enqueue a {@link NotificationMessage} and return immediately; a small pool of
+ * worker threads drains the queue and sends the messages in batches through
+ * {@link ResilientNotificationClient#sendBulkNotifications}.
+ * 
+ * Bulk requests are issued without waiting for the response. At most
+ * {@code max-in-flight-batches} requests are outstanding at once; beyond that the
+ * workers wait for a response before sending more, which lets the queue absorb
+ * the backlog.
+ * 
+ * When {@code spring.threads.virtual.enabled} is set (Java 21, see the
+ * {@code virtual-threads} profile) the workers run on virtual threads, like the
+ * request handling threads; otherwise they are daemon platform threads.
+ * 
+ * The queue is bounded. When it is full, enqueueing blocks the caller for at
+ * most {@code offer-timeout-ms} (backpressure) and then drops the message, so a
+ * slow or unavailable notifications API can never exhaust memory or stall order
+ * processing indefinitely.
+ * 
+ * METRICS:
+ * - retailx.notifications.queue.depth - messages waiting to be sent
+ * - retailx.notifications.dropped - messages dropped because the queue was full
+ * - retailx.notifications.sent / failed - messages sent or lost in failed batches
+ * - retailx.notifications.batches - bulk requests issued
+ * 
+ * TODOs:
+ * - [ ] Migrate to new RetailX Messaging Hub (RETAILX-8001)
+ */
+@Component
+public class NotificationDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    
+    private final ResilientNotificationClient notificationClient;
+    private final BlockingQueue<NotificationMessage> queue;
+    private final int workerCount;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long offerTimeoutMs;
+    private final int maxInFlightBatches;
+    private final Semaphore inFlightBatches;
+    private final boolean virtualThreads;
+    
+    private final Counter droppedCounter;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter batchCounter;
+    
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    
+    @Autowired
+    public NotificationDispatcher(
+            ResilientNotificationClient notificationClient,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.services.notifications.dispatch.queue-capacity:10000}") int queueCapacity,
+            @Value("${retailx.services.notifications.dispatch.workers:2}") int workerCount,
+            @Value("${retailx.services.notifications.dispatch.batch-size:100}") int batchSize,
+            @Value("${retailx.services.notifications.dispatch.linger-ms:20}") long lingerMs,
+            @Value("${retailx.services.notifications.dispatch.offer-timeout-ms:50}") long offerTimeoutMs,
+            @Value("${retailx.services.notifications.dispatch.max-in-flight-batches:8}") int maxInFlightBatches,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.notificationClient = notificationClient;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.maxInFlightBatches = maxInFlightBatches;
+        this.inFlightBatches = new Semaphore(maxInFlightBatches);
+        this.virtualThreads = virtualThreads;
+        
+        Gauge.builder("retailx.notifications.queue.depth", queue, BlockingQueue::size)
+            .description("Notifications waiting to be sent")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("retailx.notifications.dropped")
+            .description("Notifications dropped because the dispatch queue was full")
+            .register(meterRegistry);
+        this.sentCounter = Counter.builder("retailx.notifications.sent")
+            .description("Notifications accepted by the notifications API")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("retailx.notifications.failed")
+            .description("Notifications lost in failed bulk requests")
+            .register(meterRegistry);
+        this.batchCounter = Counter.builder("retailx.notifications.batches")
+            .description("Bulk notification requests issued")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        running = true;
+        ThreadFactory threadFactory = workerThreadFactory();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::runWorker);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Started {} notification dispatch workers (batch size {}, virtual threads {})",
+            workerCount, batchSize, virtualThreads);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        // Flush whatever is still queued on the shutdown thread, then give the
+        // outstanding requests a chance to complete
+        List<NotificationMessage> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+        if (inFlightBatches.tryAcquire(maxInFlightBatches, 5, TimeUnit.SECONDS)) {
+            inFlightBatches.release(maxInFlightBatches);
+        } else {
+            logger.warn("Shutting down with notification requests still in flight");
+        }
+    }
+    
+    private ThreadFactory workerThreadFactory() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("notification-dispatch-").getVirtualThreadFactory();
+        }
+        return new ThreadFactory() {
+            private int index;
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "notification-dispatch-" + index++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+    
+    /**
+     * Queues a notification for asynchronous delivery.
+     * 
+     * Blocks for at most the configured offer timeout while the queue is full.
+     * 
+     * @return false if the notification was dropped
+     */
+    public boolean enqueue(NotificationMessage message) {
+        try {
+            if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        logger.warn("Notification dispatch queue full, dropped notification for order {}", message.getOrderId());
+        return false;
+    }
+    
+    /**
+     * Queues a batch of notifications for asynchronous delivery.
+     * 
+     * While the queue is full, the caller waits at most the configured offer
+     * timeout for the whole batch, not per message; messages that still do
+     * not fit are dropped.
+     * 
+     * @return the number of notifications queued
+     */
+    public int enqueueAll(List<NotificationMessage> messages) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        int queued = 0;
+        try {
+            for (NotificationMessage message : messages) {
+                long remaining = deadline - System.nanoTime();
+                if (queue.offer(message) || (remaining > 0 && queue.offer(message, remaining, TimeUnit.NANOSECONDS))) {
+                    queued++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int dropped = messages.size() - queued;
+        if (dropped > 0) {
+            droppedCounter.increment(dropped);
+            logger.warn("Notification dispatch queue full, dropped {} of {} notifications", dropped, messages.size());
+        }
+        return queued;
+    }
+    
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+    
+    private void runWorker() {
+        List<NotificationMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // Give a burst a moment to accumulate so it goes out as one request
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    NotificationMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // Hand the partial batch back so stop() flushes it
+                    batch.forEach(queue::offer);
+                    return;
+                }
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    send(batch);
+                } catch (InterruptedException e) {
+                    batch.forEach(queue::offer);
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+    
+    private void send(List<NotificationMessage> batch) throws InterruptedException {
+        inFlightBatches.acquire();
+        batchCounter.increment();
+        notificationClient.sendBulkNotifications(batch)
+            .doFinally(signal -> inFlightBatches.release())
+            .subscribe(
+                ignored -> { },
+                error -> {
+                    if (error instanceof CallNotPermittedException) {
+                        // Deferred by the resilience layer and re-sent from there
+                        logger.debug("Batch of {} notifications deferred: {}", batch.size(), error.getMessage());
+                        return;
+                    }
+                    failedCounter.increment(batch.size());
+                    logger.error("Failed to send batch of {} notifications", batch.size(), error);
+                },
+                () -> sentCounter.increment(batch.size()));
+    }
+}
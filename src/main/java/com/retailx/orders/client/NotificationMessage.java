@@ -0,0 +1,99 @@
+package com.retailx.orders.client;
+
+/**
+ * Notification Message
+ * 
+ * A single customer notification as accepted by the foo-legacy-notifications-api
+ * {@code /v1/notifications} endpoints.
+ * 
+ * The message text is not built when the notification is created; only the
+ * template and its arguments are kept, and {@link NotificationPayloadEncoder}
+ * renders them straight into the request buffer.
+ * 
+ * TODOs:
+ * - [ ] Add SMS notification option (RETAILX-8025)
+ */
+public class NotificationMessage {
+    
+    public static final String TYPE_EMAIL = "email";
+    
+    /**
+     * Message templates, rendered as {@code prefix + orderId + infix + status + suffix}.
+     */
+    public enum Template {
+        ORDER_CONFIRMATION("Your order ", " has been confirmed and is being processed. You will receive updates as your order progresses.", ""),
+        ORDER_STATUS_UPDATE("Order ", " status update: ", "");
+        
+        private final String prefix;
+        private final String infix;
+        private final String suffix;
+        
+        Template(String prefix, String infix, String suffix) {
+            this.prefix = prefix;
+            this.infix = infix;
+            this.suffix = suffix;
+        }
+        
+        public String getPrefix() {
+            return prefix;
+        }
+        
+        public String getInfix() {
+            return infix;
+        }
+        
+        public String getSuffix() {
+            return suffix;
+        }
+    }
+    
+    private final String recipient;
+    private final Template template;
+    private final String orderId;
+    private final String status;
+    private final String type;
+    
+    public NotificationMessage(String recipient, Template template, String orderId, String status, String type) {
+        this.recipient = recipient;
+        this.template = template;
+        this.orderId = orderId;
+        this.status = status;
+        this.type = type;
+    }
+    
+    public static NotificationMessage orderConfirmation(String customerEmail, String orderId) {
+        return new NotificationMessage(customerEmail, Template.ORDER_CONFIRMATION, orderId, "", TYPE_EMAIL);
+    }
+    
+    public static NotificationMessage orderStatusUpdate(String customerEmail, String orderId, String status) {
+        return new NotificationMessage(customerEmail, Template.ORDER_STATUS_UPDATE, orderId, status, TYPE_EMAIL);
+    }
+    
+    // Getters
+    public String getRecipient() {
+        return recipient;
+    }
+    
+    public Template getTemplate() {
+        return template;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    /**
+     * Renders the message text. Allocates; meant for logging and diagnostics only.
+     */
+    public String getMessage() {
+        return template.getPrefix() + orderId + template.getInfix() + status + template.getSuffix();
+    }
+}
@@ -0,0 +1,186 @@
+package com.retailx.orders.client;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Notification Payload Encoder
+ * 
+ * Encodes notification request bodies straight into pooled Netty buffers.
+ * 
+ * The JSON structure and the message templates are pre-encoded to bytes once;
+ * per notification only the variable parts (recipient, order ID, status) are
+ * escaped and written into the buffer, so no intermediate strings, JSON trees or
+ * byte arrays are created. The output is byte-for-byte what Jackson produces for
+ * the same notification: {@code {"recipient":"...","message":"...","type":"..."}}
+ * with the same escaping rules.
+ * 
+ * Buffers come from {@link PooledByteBufAllocator} and are released by the HTTP
+ * client once written to the socket.
+ */
+@Component
+public class NotificationPayloadEncoder {
+    
+    private static final byte[] RECIPIENT_FIELD = ascii("{\"recipient\":\"");
+    private static final byte[] MESSAGE_FIELD = ascii("\",\"message\":\"");
+    private static final byte[] TYPE_FIELD = ascii("\",\"type\":\"");
+    private static final byte[] OBJECT_END = ascii("\"}");
+    private static final byte[] HEX_DIGITS = ascii("0123456789ABCDEF");
+    
+    // Pre-escaped template fragments, indexed by Template ordinal
+    private static final byte[][] TEMPLATE_PREFIXES;
+    private static final byte[][] TEMPLATE_INFIXES;
+    private static final byte[][] TEMPLATE_SUFFIXES;
+    
+    static {
+        NotificationMessage.Template[] templates = NotificationMessage.Template.values();
+        TEMPLATE_PREFIXES = new byte[templates.length][];
+        TEMPLATE_INFIXES = new byte[templates.length][];
+        TEMPLATE_SUFFIXES = new byte[templates.length][];
+        for (NotificationMessage.Template template : templates) {
+            TEMPLATE_PREFIXES[template.ordinal()] = escaped(template.getPrefix());
+            TEMPLATE_INFIXES[template.ordinal()] = escaped(template.getInfix());
+            TEMPLATE_SUFFIXES[template.ordinal()] = escaped(template.getSuffix());
+        }
+    }
+    
+    // Rough size of the fixed part of one encoded notification, used to size buffers
+    private static final int ESTIMATED_FIXED_BYTES = 160;
+    
+    private final ByteBufAllocator allocator;
+    private final NettyDataBufferFactory bufferFactory;
+    
+    public NotificationPayloadEncoder() {
+        this.allocator = PooledByteBufAllocator.DEFAULT;
+        this.bufferFactory = new NettyDataBufferFactory(allocator);
+    }
+    
+    /**
+     * Encodes a single notification as a JSON object.
+     */
+    public DataBuffer encode(NotificationMessage message) {
+        ByteBuf buffer = allocator.buffer(estimateSize(message));
+        write(buffer, message);
+        return bufferFactory.wrap(buffer);
+    }
+    
+    /**
+     * Encodes a batch of notifications as a JSON array of objects.
+     */
+    public DataBuffer encodeBulk(List<NotificationMessage> messages) {
+        int estimate = 2;
+        for (int i = 0; i < messages.size(); i++) {
+            estimate += estimateSize(messages.get(i)) + 1;
+        }
+        ByteBuf buffer = allocator.buffer(estimate);
+        buffer.writeByte('[');
+        for (int i = 0; i < messages.size(); i++) {
+            if (i > 0) {
+                buffer.writeByte(',');
+            }
+            write(buffer, messages.get(i));
+        }
+        buffer.writeByte(']');
+        return bufferFactory.wrap(buffer);
+    }
+    
+    private static int estimateSize(NotificationMessage message) {
+        return ESTIMATED_FIXED_BYTES + message.getRecipient().length() + message.getOrderId().length()
+            + message.getStatus().length();
+    }
+    
+    private static void write(ByteBuf buffer, NotificationMessage message) {
+        int template = message.getTemplate().ordinal();
+        buffer.writeBytes(RECIPIENT_FIELD);
+        writeEscaped(buffer, message.getRecipient());
+        buffer.writeBytes(MESSAGE_FIELD);
+        buffer.writeBytes(TEMPLATE_PREFIXES[template]);
+        writeEscaped(buffer, message.getOrderId());
+        buffer.writeBytes(TEMPLATE_INFIXES[template]);
+        writeEscaped(buffer, message.getStatus());
+        buffer.writeBytes(TEMPLATE_SUFFIXES[template]);
+        buffer.writeBytes(TYPE_FIELD);
+        writeEscaped(buffer, message.getType());
+        buffer.writeBytes(OBJECT_END);
+    }
+    
+    /**
+     * Writes a string as the contents of a JSON string literal in UTF-8, escaping
+     * like Jackson's default: quote, backslash and the short control escapes,
+     * other control characters and every surrogate char (paired or not) as
+     * backslash-u escapes, everything else as UTF-8.
+     */
+    private static void writeEscaped(ByteBuf buffer, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer.writeByte('\\');
+                }
+                buffer.writeByte(c);
+            } else if (c < 0x20) {
+                writeControl(buffer, c);
+            } else if (c < 0x800) {
+                buffer.writeByte(0xC0 | (c >> 6));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeUnicodeEscape(buffer, c);
+            } else {
+                buffer.writeByte(0xE0 | (c >> 12));
+                buffer.writeByte(0x80 | ((c >> 6) & 0x3F));
+                buffer.writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+    
+    private static void writeControl(ByteBuf buffer, char c) {
+        switch (c) {
+            case '\b':
+                buffer.writeByte('\\').writeByte('b');
+                break;
+            case '\t':
+                buffer.writeByte('\\').writeByte('t');
+                break;
+            case '\n':
+                buffer.writeByte('\\').writeByte('n');
+                break;
+            case '\f':
+                buffer.writeByte('\\').writeByte('f');
+                break;
+            case '\r':
+                buffer.writeByte('\\').writeByte('r');
+                break;
+            default:
+                writeUnicodeEscape(buffer, c);
+        }
+    }
+    
+    private static void writeUnicodeEscape(ByteBuf buffer, char c) {
+        buffer.writeByte('\\');
+        buffer.writeByte('u');
+        buffer.writeByte(HEX_DIGITS[c >> 12]);
+        buffer.writeByte(HEX_DIGITS[(c >> 8) & 0xF]);
+        buffer.writeByte(HEX_DIGITS[(c >> 4) & 0xF]);
+        buffer.writeByte(HEX_DIGITS[c & 0xF]);
+    }
+    
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static byte[] escaped(String value) {
+        ByteBuf buffer = Unpooled.buffer(value.length() * 2);
+        writeEscaped(buffer, value);
+        byte[] bytes = new byte[buffer.readableBytes()];
+        buffer.readBytes(bytes);
+        return bytes;
+    }
+}
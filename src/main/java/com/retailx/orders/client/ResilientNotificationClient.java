@@ -0,0 +1,248 @@
+package com.retailx.orders.client;
+
+import com.retailx.orders.client.resilience.Bulkhead;
+import com.retailx.orders.client.resilience.CallNotPermittedException;
+import com.retailx.orders.client.resilience.CircuitBreaker;
+import com.retailx.orders.client.resilience.DecorrelatedJitterBackoff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Resilient Notification Client
+ * 
+ * Resilience layer in front of {@link NotificationClient}. When the
+ * foo-legacy-notifications-api degrades, calls fail fast instead of tying up
+ * connections and dispatch capacity for the full timeout.
+ * 
+ * Every attempt passes through:
+ * 1. a {@link Bulkhead} capping concurrent calls to the notifications API,
+ * 2. a {@link CircuitBreaker} that opens when the recent failure rate is too high,
+ * 3. bounded retries with decorrelated jitter for transient failures
+ *    (connection errors, timeouts, 5xx and 429 responses).
+ * 
+ * Batches rejected by the bulkhead or the open circuit are parked in a bounded
+ * deferred-retry queue and re-sent in the background once calls are permitted
+ * again; the returned Mono still fails with {@link CallNotPermittedException} so
+ * callers know the batch was not delivered yet.
+ * 
+ * METRICS:
+ * - retailx.notifications.circuit.state - 0 closed, 1 open, 2 half-open
+ * - retailx.notifications.circuit.transitions - tagged with from/to state
+ * - retailx.notifications.rejected - tagged with reason (circuit_open, bulkhead_full)
+ * - retailx.notifications.retries - retry attempts
+ * - retailx.notifications.deferred.depth / deferred.dropped - deferred-retry queue
+ */
+@Component
+public class ResilientNotificationClient {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResilientNotificationClient.class);
+    
+    private final NotificationClient notificationClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+    private final int maxConcurrentCalls;
+    
+    private final BlockingQueue<List<NotificationMessage>> deferred;
+    private final ScheduledExecutorService deferredRetryScheduler;
+    
+    private final MeterRegistry meterRegistry;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+    private final Counter retryCounter;
+    private final Counter deferredDropped;
+    
+    @Autowired
+    public ResilientNotificationClient(
+            NotificationClient notificationClient,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.services.notifications.resilience.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${retailx.services.notifications.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${retailx.services.notifications.resilience.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${retailx.services.notifications.resilience.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${retailx.services.notifications.resilience.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+            @Value("${retailx.services.notifications.resilience.bulkhead.max-concurrent-calls:10}") int maxConcurrentCalls,
+            @Value("${retailx.services.notifications.resilience.retry.max-attempts:3}") int maxAttempts,
+            @Value("${retailx.services.notifications.resilience.retry.base-delay-ms:100}") long retryBaseDelayMs,
+            @Value("${retailx.services.notifications.resilience.retry.max-delay-ms:2000}") long retryMaxDelayMs,
+            @Value("${retailx.services.notifications.resilience.deferred.capacity:1000}") int deferredCapacity,
+            @Value("${retailx.services.notifications.resilience.deferred.retry-interval-ms:5000}") long deferredRetryIntervalMs) {
+        this.notificationClient = notificationClient;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker("notifications", windowSize, minimumCalls, failureRateThreshold,
+            openDurationMs, halfOpenCalls, this::onCircuitTransition);
+        this.bulkhead = new Bulkhead("notifications", maxConcurrentCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+        this.deferred = new ArrayBlockingQueue<>(deferredCapacity);
+        
+        Gauge.builder("retailx.notifications.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+            .description("Notifications circuit breaker state (0 closed, 1 open, 2 half-open)")
+            .register(meterRegistry);
+        Gauge.builder("retailx.notifications.deferred.depth", deferred, BlockingQueue::size)
+            .description("Rejected notification batches waiting to be re-sent")
+            .register(meterRegistry);
+        this.circuitOpenRejections = Counter.builder("retailx.notifications.rejected")
+            .tag("reason", "circuit_open")
+            .description("Notification calls rejected without reaching the notifications API")
+            .register(meterRegistry);
+        this.bulkheadRejections = Counter.builder("retailx.notifications.rejected")
+            .tag("reason", "bulkhead_full")
+            .description("Notification calls rejected without reaching the notifications API")
+            .register(meterRegistry);
+        this.retryCounter = Counter.builder("retailx.notifications.retries")
+            .description("Notification call retry attempts")
+            .register(meterRegistry);
+        this.deferredDropped = Counter.builder("retailx.notifications.deferred.dropped")
+            .description("Rejected notification batches dropped because the deferred-retry queue was full")
+            .register(meterRegistry);
+        
+        this.deferredRetryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-deferred-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deferredRetryScheduler.scheduleWithFixedDelay(this::resendDeferred,
+            deferredRetryIntervalMs, deferredRetryIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    void stop() {
+        deferredRetryScheduler.shutdownNow();
+        if (!deferred.isEmpty()) {
+            logger.warn("Shutting down with {} deferred notification batches unsent", deferred.size());
+        }
+    }
+    
+    /**
+     * Sends a batch of notifications through the bulkhead, circuit breaker and
+     * retry policy. If the call is rejected, the batch is deferred for a later
+     * attempt and the returned Mono fails with {@link CallNotPermittedException}.
+     */
+    public Mono<Void> sendBulkNotifications(List<NotificationMessage> messages) {
+        return withRetries(() -> notificationClient.sendBulkNotifications(messages))
+            .doOnError(CallNotPermittedException.class, e -> defer(messages));
+    }
+    
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+    
+    public int getDeferredCount() {
+        return deferred.size();
+    }
+    
+    private Mono<Void> withRetries(Supplier<Mono<Void>> call) {
+        return Mono.defer(() -> {
+            DecorrelatedJitterBackoff backoff = new DecorrelatedJitterBackoff(retryBaseDelayMs, retryMaxDelayMs);
+            return Mono.defer(() -> guarded(call))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    if (signal.totalRetries() + 1 >= maxAttempts || !isTransientFailure(signal.failure())) {
+                        return Mono.error(signal.failure());
+                    }
+                    retryCounter.increment();
+                    return Mono.delay(backoff.nextDelay());
+                })));
+        });
+    }
+    
+    private Mono<Void> guarded(Supplier<Mono<Void>> call) {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejections.increment();
+            return Mono.error(new CallNotPermittedException("Notifications bulkhead is full"));
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            bulkhead.release();
+            circuitOpenRejections.increment();
+            return Mono.error(new CallNotPermittedException("Notifications circuit breaker is open"));
+        }
+        return call.get()
+            .doOnSuccess(ignored -> circuitBreaker.onSuccess())
+            .doOnError(error -> {
+                if (isTransientFailure(error)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    // The notifications API answered; a rejected request is not an outage
+                    circuitBreaker.onSuccess();
+                }
+            })
+            .doFinally(signal -> {
+                if (signal == SignalType.CANCEL) {
+                    circuitBreaker.releasePermission();
+                }
+                bulkhead.release();
+            });
+    }
+    
+    private static boolean isTransientFailure(Throwable error) {
+        if (error instanceof WebClientResponseException) {
+            WebClientResponseException response = (WebClientResponseException) error;
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+    
+    private void defer(List<NotificationMessage> messages) {
+        if (!deferred.offer(messages)) {
+            deferredDropped.increment();
+            logger.warn("Deferred-retry queue full, dropped batch of {} notifications", messages.size());
+        }
+    }
+    
+    private void resendDeferred() {
+        // Re-send at most one bulkhead's worth of batches per tick. Rejections are
+        // signalled synchronously on subscribe, so the first rejected batch (which
+        // goes straight back to the queue) ends the tick
+        for (int i = 0; i < maxConcurrentCalls; i++) {
+            List<NotificationMessage> batch = deferred.poll();
+            if (batch == null) {
+                return;
+            }
+            AtomicBoolean rejected = new AtomicBoolean();
+            sendBulkNotifications(batch).subscribe(
+                ignored -> { },
+                error -> {
+                    if (error instanceof CallNotPermittedException) {
+                        rejected.set(true);
+                    } else {
+                        logger.error("Failed to re-send deferred batch of {} notifications", batch.size(), error);
+                    }
+                },
+                () -> logger.info("Re-sent deferred batch of {} notifications", batch.size()));
+            if (rejected.get()) {
+                return;
+            }
+        }
+    }
+    
+    private void onCircuitTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        meterRegistry.counter("retailx.notifications.circuit.transitions", "from", from.name(), "to", to.name())
+            .increment();
+    }
+}
@@ -0,0 +1,43 @@
+package com.retailx.orders.client.resilience;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bulkhead
+ * 
+ * Caps the number of concurrent calls to a remote dependency. Calls over the
+ * limit are rejected immediately instead of queueing, so a slow dependency can
+ * tie up at most {@code maxConcurrentCalls} requests at a time.
+ */
+public class Bulkhead {
+    
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final Semaphore permits;
+    
+    public Bulkhead(String name, int maxConcurrentCalls) {
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+    
+    /**
+     * Returns true if a call may proceed. Every permitted call must be followed by
+     * exactly one {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+    
+    public void release() {
+        permits.release();
+    }
+    
+    public int getActiveCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+    
+    public String getName() {
+        return name;
+    }
+}
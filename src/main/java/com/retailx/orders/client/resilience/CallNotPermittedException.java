@@ -0,0 +1,14 @@
+package com.retailx.orders.client.resilience;
+
+/**
+ * Thrown when a call is rejected by a {@link CircuitBreaker} or {@link Bulkhead}
+ * without reaching the remote dependency.
+ */
+public class CallNotPermittedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public CallNotPermittedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,161 @@
+package com.retailx.orders.client.resilience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Circuit Breaker
+ * 
+ * Count-based sliding-window circuit breaker for calls to a remote dependency.
+ * 
+ * CLOSED: calls are permitted and their outcomes are recorded in a ring buffer of
+ * the last {@code windowSize} calls. Once at least {@code minimumCalls} outcomes
+ * are recorded and the failure rate reaches {@code failureRateThreshold} percent,
+ * the breaker opens.
+ * 
+ * OPEN: calls are rejected without touching the dependency until
+ * {@code openDurationMs} has elapsed, then the breaker moves to HALF_OPEN.
+ * 
+ * HALF_OPEN: up to {@code halfOpenCalls} probe calls are permitted. A single
+ * failure re-opens the breaker; when all probes succeed it closes again with an
+ * empty window.
+ * 
+ * The state is guarded by the instance monitor. Every critical section is a few
+ * field updates, so contention is negligible next to the remote call itself.
+ */
+public class CircuitBreaker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    private final String name;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final BiConsumer<State, State> transitionListener;
+    
+    private State state = State.CLOSED;
+    private int windowPosition;
+    private int recordedCalls;
+    private int failedCalls;
+    private long openedAt;
+    private int halfOpenPermitsIssued;
+    private int halfOpenSuccesses;
+    
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          long openDurationMs, int halfOpenCalls, BiConsumer<State, State> transitionListener) {
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDurationMs * 1_000_000L;
+        this.halfOpenCalls = halfOpenCalls;
+        this.transitionListener = transitionListener;
+    }
+    
+    /**
+     * Returns true if a call may proceed. Every permitted call must be followed by
+     * exactly one {@link #onSuccess()}, {@link #onFailure()} or
+     * {@link #releasePermission()}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                halfOpenPermitsIssued = 1;
+                return true;
+            default:
+                if (halfOpenPermitsIssued >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenPermitsIssued++;
+                return true;
+        }
+    }
+    
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+    
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= minimumCalls && failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+                open();
+            }
+        }
+    }
+    
+    /**
+     * Returns a permission without recording an outcome, e.g. when the call was
+     * cancelled before the dependency answered.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > 0) {
+            halfOpenPermitsIssued--;
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    private void record(boolean failed) {
+        if (recordedCalls == window.length) {
+            if (window[windowPosition]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        window[windowPosition] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+    
+    private void open() {
+        openedAt = System.nanoTime();
+        transitionTo(State.OPEN);
+    }
+    
+    private void transitionTo(State newState) {
+        State oldState = state;
+        state = newState;
+        // Each state starts from a clean slate
+        windowPosition = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        halfOpenPermitsIssued = 0;
+        halfOpenSuccesses = 0;
+        logger.warn("Circuit breaker '{}' transitioned from {} to {}", name, oldState, newState);
+        transitionListener.accept(oldState, newState);
+    }
+}
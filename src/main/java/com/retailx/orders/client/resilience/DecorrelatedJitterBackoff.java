@@ -0,0 +1,34 @@
+package com.retailx.orders.client.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decorrelated Jitter Backoff
+ * 
+ * Retry delays following the "decorrelated jitter" scheme:
+ * {@code delay = min(maxDelay, random(baseDelay, previousDelay * 3))}.
+ * 
+ * Delays grow roughly exponentially but are spread randomly, so clients that
+ * failed together do not retry in lockstep against a recovering dependency.
+ * Instances hold the previous delay and are meant for a single call's retries.
+ */
+public class DecorrelatedJitterBackoff {
+    
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private long previousDelayMs;
+    
+    public DecorrelatedJitterBackoff(long baseDelayMs, long maxDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.previousDelayMs = baseDelayMs;
+    }
+    
+    public Duration nextDelay() {
+        long upper = Math.max(baseDelayMs + 1, previousDelayMs * 3);
+        long delay = Math.min(maxDelayMs, ThreadLocalRandom.current().nextLong(baseDelayMs, upper));
+        previousDelayMs = delay;
+        return Duration.ofMillis(delay);
+    }
+}
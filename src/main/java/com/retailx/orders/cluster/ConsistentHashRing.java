@@ -0,0 +1,54 @@
+package com.retailx.orders.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent Hash Ring
+ * 
+ * Places every node at {@code virtualNodes} points on a 64-bit ring; a key
+ * belongs to the first node at or after its hash. Adding or removing a node
+ * moves only the keys between its points and their neighbours, about
+ * 1/(nodes) of all keys, and the virtual nodes spread each node's share evenly.
+ * 
+ * Hashes depend only on the node names and keys, so every instance given the
+ * same node list builds the same ring.
+ */
+class ConsistentHashRing {
+    
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    
+    ConsistentHashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+    
+    String nodeFor(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+    
+    /**
+     * 64-bit FNV-1a with a final avalanche step, so that similar keys such as
+     * "partition-1" and "partition-2" land far apart.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,160 @@
+package com.retailx.orders.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order Forwarding Filter
+ * 
+ * Sends requests for a single order ({@code /orders/{id}} and everything below
+ * it: status changes, SSE streams, long polls) that this instance does not own
+ * to the owning instance chosen by {@link OrderRouter}, and relays the answer.
+ * The response body is copied as it arrives and flushed after every chunk, so
+ * Server-Sent Events and long polls pass through unchanged.
+ * 
+ * Requests for no particular order (creation, batches, listing and search) are
+ * served locally. Forwarding is blocking: the request thread waits for the
+ * owner, as it would for a local store write.
+ * 
+ * If the owner cannot be reached the client gets 503 and may retry.
+ * 
+ * METRICS:
+ * - retailx.orders.cluster.forwarded{result} - requests forwarded to the owning instance, ok or failed
+ */
+@Component
+public class OrderForwardingFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderForwardingFilter.class);
+    
+    private static final String ORDERS_PATH = "/orders/";
+    // Paths under /orders/ that are not order IDs
+    private static final Set<String> COLLECTION_PATHS = Set.of("batch", "search", "status");
+    // Headers that apply to one connection only or that the HTTP client sets itself
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+        "connection", "content-length", "date", "expect", "from", "host", "keep-alive", "proxy-connection",
+        "te", "trailer", "transfer-encoding", "upgrade", "via", "warning");
+    
+    private final OrderRouter router;
+    private final Counter forwardedCounter;
+    private final Counter failedCounter;
+    
+    @Autowired
+    public OrderForwardingFilter(OrderRouter router, MeterRegistry meterRegistry) {
+        this.router = router;
+        this.forwardedCounter = Counter.builder("retailx.orders.cluster.forwarded")
+            .description("Order requests forwarded to the owning instance")
+            .tag("result", "ok")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("retailx.orders.cluster.forwarded")
+            .description("Order requests forwarded to the owning instance")
+            .tag("result", "failed")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !router.isClustered() || request.getHeader(OrderRouter.FORWARDED_HEADER) != null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String orderId = orderIdOf(request.getRequestURI().substring(request.getContextPath().length()));
+        if (orderId == null || router.isLocal(orderId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        forward(router.ownerOf(orderId), request, response);
+    }
+    
+    /**
+     * Order ID of a path {@code /orders/{id}} or {@code /orders/{id}/...}, or null.
+     */
+    static String orderIdOf(String path) {
+        if (!path.startsWith(ORDERS_PATH)) {
+            return null;
+        }
+        int end = path.indexOf('/', ORDERS_PATH.length());
+        String id = end < 0 ? path.substring(ORDERS_PATH.length()) : path.substring(ORDERS_PATH.length(), end);
+        return id.isEmpty() || COLLECTION_PATHS.contains(id) ? null : id;
+    }
+    
+    private void forward(String owner, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        URI target = URI.create(owner + request.getRequestURI() + (query != null ? "?" + query : ""));
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+            .timeout(router.getForwardTimeout())
+            .method(request.getMethod(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.header(name, value);
+                }
+            }
+        }
+        builder.header(OrderRouter.FORWARDED_HEADER, request.getRequestURL().toString());
+        
+        HttpResponse<InputStream> forwarded;
+        try {
+            forwarded = router.getHttpClient().send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            failedCounter.increment();
+            logger.warn("Failed to forward {} {} to {}", request.getMethod(), request.getRequestURI(), owner, e);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Order owner unavailable");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Order owner unavailable");
+            return;
+        }
+        forwardedCounter.increment();
+        
+        response.setStatus(forwarded.statusCode());
+        for (Map.Entry<String, List<String>> header : forwarded.headers().map().entrySet()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase())) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        try (InputStream in = forwarded.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                // Pass SSE events and long-poll answers on as soon as they arrive
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
+}
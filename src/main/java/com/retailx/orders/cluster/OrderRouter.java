@@ -0,0 +1,180 @@
+package com.retailx.orders.cluster;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.model.BatchStatusUpdateResult;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.store.PartitionedOrderStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Order Router
+ * 
+ * Decides which service instance owns an order. Orders are split into
+ * {@code retailx.orders.partitions.count} partitions by order ID, exactly as
+ * {@link PartitionedOrderStore} splits them, and the partitions are spread over
+ * the instances listed in {@code retailx.orders.cluster.nodes} with a
+ * {@link ConsistentHashRing}. Every instance is given the same node list and
+ * computes the same owners, so no coordination is needed at runtime.
+ * 
+ * Each partition is written by its owning instance only; the others forward
+ * requests for its orders ({@link OrderForwardingFilter}) and create new orders
+ * only with IDs they own. An instance that would own no partition fails to
+ * start. With no node list the service runs alone and owns every partition.
+ * 
+ * Requests forwarded to the owner carry the {@value #FORWARDED_HEADER} header
+ * and are always served where they arrive, so instances with different node
+ * lists (for example during a rollout) cannot forward a request in a loop.
+ */
+@Component
+public class OrderRouter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderRouter.class);
+    
+    public static final String FORWARDED_HEADER = "X-RetailX-Forwarded";
+    
+    private static final String STATUS_BATCH_PATH = "/orders/status";
+    
+    private final String selfUrl;
+    private final int partitionCount;
+    // Base URL of the owning instance, by partition; null when not clustered
+    private final String[] partitionOwners;
+    private final HttpClient httpClient;
+    private final Duration forwardTimeout;
+    private final ObjectMapper objectMapper;
+    
+    @Autowired
+    public OrderRouter(
+            ObjectMapper objectMapper,
+            @Value("${retailx.orders.cluster.nodes:}") String nodes,
+            @Value("${retailx.orders.cluster.self-url:}") String selfUrl,
+            @Value("${retailx.orders.cluster.virtual-nodes:256}") int virtualNodes,
+            @Value("${retailx.orders.cluster.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${retailx.orders.cluster.forward-timeout-ms:60000}") long forwardTimeoutMs,
+            @Value("${retailx.orders.partitions.count:1}") int partitionCount) {
+        this.objectMapper = objectMapper;
+        this.selfUrl = stripTrailingSlash(selfUrl.trim());
+        this.partitionCount = Math.max(1, partitionCount);
+        this.forwardTimeout = Duration.ofMillis(forwardTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build();
+        
+        List<String> nodeUrls = Arrays.stream(nodes.split(","))
+            .map(String::trim)
+            .filter(node -> !node.isEmpty())
+            .map(OrderRouter::stripTrailingSlash)
+            .distinct()
+            .toList();
+        if (nodeUrls.isEmpty()) {
+            this.partitionOwners = null;
+            return;
+        }
+        if (!nodeUrls.contains(this.selfUrl)) {
+            throw new IllegalArgumentException("retailx.orders.cluster.self-url (" + selfUrl
+                + ") must be one of retailx.orders.cluster.nodes " + nodeUrls);
+        }
+        ConsistentHashRing ring = new ConsistentHashRing(nodeUrls, virtualNodes);
+        this.partitionOwners = new String[this.partitionCount];
+        int owned = 0;
+        for (int p = 0; p < this.partitionCount; p++) {
+            partitionOwners[p] = ring.nodeFor("partition-" + p);
+            if (partitionOwners[p].equals(this.selfUrl)) {
+                owned++;
+            }
+        }
+        if (owned == 0) {
+            // It could not create orders: every ID it drew would belong to another instance
+            throw new IllegalArgumentException(this.selfUrl + " owns none of the " + this.partitionCount
+                + " order partitions of " + nodeUrls.size() + " nodes; raise retailx.orders.partitions.count"
+                + " well above the number of nodes");
+        }
+        logger.info("Order cluster of {} nodes, {} owns {} of {} partitions",
+            nodeUrls.size(), this.selfUrl, owned, this.partitionCount);
+    }
+    
+    public boolean isClustered() {
+        return partitionOwners != null;
+    }
+    
+    /**
+     * True if this instance owns the order, i.e. stores and changes it.
+     */
+    public boolean isLocal(String orderId) {
+        return partitionOwners == null || partitionOwners[partitionOf(orderId)].equals(selfUrl);
+    }
+    
+    /**
+     * Base URL of the instance owning the order.
+     */
+    public String ownerOf(String orderId) {
+        return partitionOwners == null ? selfUrl : partitionOwners[partitionOf(orderId)];
+    }
+    
+    HttpClient getHttpClient() {
+        return httpClient;
+    }
+    
+    Duration getForwardTimeout() {
+        return forwardTimeout;
+    }
+    
+    /**
+     * Applies status changes on the instance owning their orders, through its
+     * PATCH /orders/status endpoint.
+     * 
+     * @return the owner's results, indexed by position in {@code updates};
+     *         completed exceptionally if the owner cannot be reached or fails the batch
+     */
+    public CompletableFuture<List<BatchStatusUpdateResult>> forwardStatusUpdates(String node,
+                                                                               List<OrderStatusUpdate> updates) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(node + STATUS_BATCH_PATH))
+                .timeout(forwardTimeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(FORWARDED_HEADER, selfUrl)
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(updates)))
+                .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            try {
+                if (response.statusCode() != 200) {
+                    throw new IOException("Order status batch forwarded to " + node + " failed with HTTP "
+                        + response.statusCode());
+                }
+                return objectMapper.readValue(response.body(), new TypeReference<List<BatchStatusUpdateResult>>() {});
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private int partitionOf(String orderId) {
+        return PartitionedOrderStore.partitionOf(orderId, partitionCount);
+    }
+    
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
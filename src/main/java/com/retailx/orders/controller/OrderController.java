@@ -1,8 +1,20 @@
 package com.retailx.orders.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.cluster.OrderRouter;
+import com.retailx.orders.idempotency.IdempotencyStore;
+import com.retailx.orders.model.BatchOrderResult;
+import com.retailx.orders.model.BatchStatusUpdateResult;
 import com.retailx.orders.model.CreateOrderRequest;
 import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.model.UpdateOrderStatusRequest;
 import com.retailx.orders.service.OrderService;
+import com.retailx.orders.status.StatusTransitionResult;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,9 +24,26 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Order Controller
@@ -26,10 +55,7 @@ import org.springframework.web.bind.annotation.*;
  * - OrderService -> NotificationClient -> foo-legacy-notifications-api
  * 
  * TODOs:
- * - [ ] Add order search/filtering endpoints (RETAILX-8036)
  * - [ ] Add order cancellation endpoint (RETAILX-8032)
- * - [ ] Add order status update endpoint (RETAILX-8037)
- * - [ ] Add pagination for order listing (RETAILX-8038)
  * - [ ] Add rate limiting (RETAILX-8039)
  * - [ ] Add request/response validation (RETAILX-8040)
  */
@@ -40,11 +66,36 @@ public class OrderController {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_PAGE_SIZE = 500;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    
     private final OrderService orderService;
+    private final OrderEventStreams eventStreams;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderRouter orderRouter;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+    private final int maxStatusBatchSize;
     
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderEventStreams eventStreams,
+                           IdempotencyStore idempotencyStore, OrderRouter orderRouter, ObjectMapper objectMapper,
+                           @Value("${retailx.orders.batch.max-size:5000}") int maxBatchSize,
+                           @Value("${retailx.orders.status.bulk-max-size:100000}") int maxStatusBatchSize) {
         this.orderService = orderService;
+        this.eventStreams = eventStreams;
+        this.idempotencyStore = idempotencyStore;
+        this.orderRouter = orderRouter;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.maxStatusBatchSize = maxStatusBatchSize;
     }
     
     /**
@@ -58,11 +109,16 @@ public class OrderController {
      * INTEGRATION: This endpoint triggers a notification via NotificationClient
      * which simulates a call to foo-legacy-notifications-api (port 8081).
      * 
+     * With an {@code Idempotency-Key} header, a retry with the same key and body
+     * gets the order created by the first request (marked with
+     * {@code Idempotent-Replayed: true}) instead of creating a second one. A retry
+     * while the first request is still running gets 409, and the same key with
+     * a different body gets 422.
+     * 
      * TODOs:
      * - [ ] Add inventory validation (RETAILX-8030)
      * - [ ] Add payment processing (RETAILX-8031)
      * - [ ] Add request rate limiting (RETAILX-8039)
-     * - [ ] Add idempotency support (RETAILX-8041)
      */
     @PostMapping
     @Operation(
@@ -71,22 +127,48 @@ public class OrderController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Order created successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data or idempotency key"),
+        @ApiResponse(responseCode = "409", description = "A request with the same idempotency key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency key already used for a different request"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<OrderResponse> createOrder(
-            @Valid @RequestBody CreateOrderRequest request) {
+            @Valid @RequestBody CreateOrderRequest request,
+            @Parameter(description = "Client-chosen key that makes retries of this request safe")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         
         logger.info("Received create order request for customer: {}", request.getCustomerEmail());
         
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            logger.warn("Rejecting create order request with invalid idempotency key");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
         try {
-            // TODO: Add request validation (RETAILX-8040)
-            // TODO: Add idempotency check (RETAILX-8041)
-            
-            OrderResponse order = orderService.createOrder(request);
+            if (idempotencyKey == null) {
+                OrderResponse order = orderService.createOrder(request);
+                logger.info("Order created successfully: {}", order.getOrderId());
+                return new ResponseEntity<>(order, HttpStatus.CREATED);
+            }
             
-            logger.info("Order created successfully: {}", order.getOrderId());
-            return new ResponseEntity<>(order, HttpStatus.CREATED);
+            IdempotencyStore.Result result =
+                idempotencyStore.execute(idempotencyKey, request, () -> orderService.createOrder(request));
+            switch (result.getOutcome()) {
+                case REPLAYED:
+                    logger.info("Replaying order {} for idempotency key", result.getOrder().getOrderId());
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                        .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                        .body(result.getOrder());
+                case IN_PROGRESS:
+                    logger.warn("Rejecting create order request: idempotency key still in progress");
+                    return new ResponseEntity<>(HttpStatus.CONFLICT);
+                case KEY_REUSED:
+                    logger.warn("Rejecting create order request: idempotency key used for a different request");
+                    return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+                default:
+                    logger.info("Order created successfully: {}", result.getOrder().getOrderId());
+                    return new ResponseEntity<>(result.getOrder(), HttpStatus.CREATED);
+            }
             
         } catch (Exception e) {
             // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
@@ -95,6 +177,82 @@ public class OrderController {
         }
     }
     
+    /**
+     * Create a batch of orders
+     * 
+     * POST /orders/batch
+     * 
+     * Creates up to {@code retailx.orders.batch.max-size} orders from a JSON array
+     * of order requests. Validation, storage and confirmation notifications are
+     * done once for the whole batch instead of once per order.
+     * 
+     * The response lists one result per submitted order, in order: CREATED with
+     * the order, REJECTED with validation errors, or FAILED if a valid order could
+     * not be stored. Orders are independent, so some can be created while others
+     * fail; the response is 200 whenever the batch itself was processed.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Create a batch of orders",
+        description = "Creates orders from a JSON array and returns a result per order"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-order results"),
+        @ApiResponse(responseCode = "400", description = "Malformed or empty batch"),
+        @ApiResponse(responseCode = "413", description = "Batch larger than the maximum batch size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<java.util.List<BatchOrderResult>> createOrders(
+            @RequestBody java.util.List<CreateOrderRequest> requests) {
+        
+        logger.info("Received create order batch request with {} orders", requests.size());
+        
+        return createBatch(requests);
+    }
+    
+    /**
+     * Create a batch of orders from NDJSON
+     * 
+     * POST /orders/batch (Content-Type: application/x-ndjson)
+     * 
+     * Same as the JSON array variant, with one order request per line. Orders are
+     * read from the request body one by one instead of as a single document.
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON_MEDIA_TYPE)
+    @Operation(
+        summary = "Create a batch of orders from NDJSON",
+        description = "Creates orders from newline-delimited JSON and returns a result per order"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-order results"),
+        @ApiResponse(responseCode = "400", description = "Malformed or empty batch"),
+        @ApiResponse(responseCode = "413", description = "Batch larger than the maximum batch size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<java.util.List<BatchOrderResult>> createOrdersFromNdjson(InputStream body)
+            throws IOException {
+        
+        java.util.List<CreateOrderRequest> requests = new ArrayList<>();
+        try (MappingIterator<CreateOrderRequest> lines =
+                 objectMapper.readerFor(CreateOrderRequest.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (requests.size() == maxBatchSize) {
+                    logger.warn("Rejecting NDJSON order batch larger than {} orders", maxBatchSize);
+                    return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+                }
+                requests.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Rejecting malformed NDJSON order batch after {} orders: {}",
+                requests.size(), e.getOriginalMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        logger.info("Received NDJSON create order batch request with {} orders", requests.size());
+        
+        return createBatch(requests);
+    }
+    
     /**
      * Get order details by ID
      * 
@@ -103,6 +261,9 @@ public class OrderController {
      * Retrieves detailed information about a specific order including
      * current status, items, and customer information.
      * 
+     * The response carries an ETag; a request whose If-None-Match matches the
+     * current order gets 304 Not Modified without a body.
+     * 
      * TODOs:
      * - [ ] Add customer authorization check (RETAILX-8043)
      * - [ ] Add order history/audit trail (RETAILX-8018)
@@ -115,6 +276,7 @@ public class OrderController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Order found"),
+        @ApiResponse(responseCode = "304", description = "Order not modified since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Order not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -136,7 +298,8 @@ public class OrderController {
             }
             
             logger.info("Order retrieved successfully: {}", id);
-            return new ResponseEntity<>(order, HttpStatus.OK);
+            // Spring answers a matching If-None-Match with 304 before serializing the body
+            return ResponseEntity.ok().eTag(OrderETags.of(order)).body(order);
             
         } catch (Exception e) {
             // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
@@ -145,41 +308,306 @@ public class OrderController {
         }
     }
     
+    /**
+     * Update order status
+     * 
+     * PUT /orders/{id}/status
+     * 
+     * Changes the order's status if the status workflow allows it, and sends a
+     * status update notification. With {@code expectedVersion} the change is
+     * applied only if the order is still at that version (compare-and-set);
+     * without it, only if no other change lands first. A rejected change leaves
+     * the order untouched and returns it: 409 if it changed concurrently, 422 if
+     * its status does not allow the change.
+     */
+    @PutMapping("/{id}/status")
+    @Operation(
+        summary = "Update order status",
+        description = "Changes the order status, optionally only if the order is still at the expected version"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status updated"),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "404", description = "Order not found"),
+        @ApiResponse(responseCode = "409", description = "Order changed since the expected version"),
+        @ApiResponse(responseCode = "422", description = "Current status does not allow the change")
+    })
+    public ResponseEntity<OrderResponse> updateOrderStatus(
+            @Parameter(description = "Order ID", required = true)
+            @PathVariable String id,
+            @Valid @RequestBody UpdateOrderStatusRequest request) {
+        
+        logger.info("Received update order status request for ID: {} -> {}", id, request.getStatus());
+        
+        // TODO: Add authorization check for status changes (RETAILX-8043)
+        StatusTransitionResult result = orderService.updateOrderStatus(id, request.getStatus(),
+            request.getExpectedVersion());
+        switch (result.getOutcome()) {
+            case APPLIED:
+                return ResponseEntity.ok().eTag(OrderETags.of(result.getOrder())).body(result.getOrder());
+            case NOT_FOUND:
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            case CONFLICT:
+                return new ResponseEntity<>(result.getOrder(), HttpStatus.CONFLICT);
+            default:
+                return new ResponseEntity<>(result.getOrder(), HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+    }
+    
+    /**
+     * Update the status of a batch of orders
+     * 
+     * PATCH /orders/status
+     * 
+     * Applies up to {@code retailx.orders.status.bulk-max-size} status changes
+     * from a JSON array of {@code {orderId, status, expectedVersion}} entries,
+     * e.g. a warehouse marking a shipping batch SHIPPED. Each entry follows the
+     * same rules as PUT /orders/{id}/status; changes are applied in parallel and
+     * their notifications are sent in bulk.
+     * 
+     * The response lists one result per entry, in order: APPLIED, REJECTED (with
+     * validation errors), NOT_FOUND, INVALID_TRANSITION or CONFLICT, each with
+     * the order's resulting status and version. The response is 200 whenever the
+     * batch itself was processed.
+     * 
+     * In a cluster, entries for orders owned by other instances are sent on to
+     * their owners in one request per owner, in parallel with the local entries;
+     * if an owner cannot be reached its entries get UNAVAILABLE.
+     */
+    @PatchMapping(value = "/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Update the status of a batch of orders",
+        description = "Applies status changes from a JSON array and returns a result per entry"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-entry results"),
+        @ApiResponse(responseCode = "400", description = "Malformed or empty batch"),
+        @ApiResponse(responseCode = "413", description = "Batch larger than the maximum batch size"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<java.util.List<BatchStatusUpdateResult>> updateOrderStatuses(
+            @RequestBody java.util.List<OrderStatusUpdate> updates,
+            @RequestHeader(value = OrderRouter.FORWARDED_HEADER, required = false) String forwardedBy) {
+        
+        logger.info("Received order status batch request with {} updates", updates.size());
+        
+        if (updates.isEmpty()) {
+            logger.warn("Rejecting empty order status batch");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (updates.size() > maxStatusBatchSize) {
+            logger.warn("Rejecting order status batch of {} updates (max {})", updates.size(), maxStatusBatchSize);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        
+        try {
+            // TODO: Add authorization check for status changes (RETAILX-8043)
+            if (!orderRouter.isClustered() || forwardedBy != null) {
+                return ResponseEntity.ok(orderService.updateOrderStatuses(updates));
+            }
+            return ResponseEntity.ok(updateOrderStatusesByOwner(updates));
+            
+        } catch (Exception e) {
+            // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
+            logger.error("Failed to process order status batch of {} updates", updates.size(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Applies the entries for local orders here and forwards the others to their
+     * owners, then merges the results back into batch order
+     */
+    private java.util.List<BatchStatusUpdateResult> updateOrderStatusesByOwner(
+            java.util.List<OrderStatusUpdate> updates) {
+        // Null entries and entries without an order ID stay here and are rejected by validation
+        Map<String, java.util.List<Integer>> positionsByOwner = new LinkedHashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            OrderStatusUpdate update = updates.get(i);
+            String orderId = update == null ? null : update.getOrderId();
+            String owner = orderId == null || orderId.isBlank() || orderRouter.isLocal(orderId)
+                ? null
+                : orderRouter.ownerOf(orderId);
+            positionsByOwner.computeIfAbsent(owner, key -> new ArrayList<>()).add(i);
+        }
+        
+        Map<String, CompletableFuture<java.util.List<BatchStatusUpdateResult>>> remote =
+            new LinkedHashMap<>();
+        positionsByOwner.forEach((owner, positions) -> {
+            if (owner != null) {
+                remote.put(owner, orderRouter.forwardStatusUpdates(owner, select(updates, positions)));
+            }
+        });
+        
+        BatchStatusUpdateResult[] results = new BatchStatusUpdateResult[updates.size()];
+        java.util.List<Integer> localPositions = positionsByOwner.get(null);
+        if (localPositions != null) {
+            place(orderService.updateOrderStatuses(select(updates, localPositions)), localPositions, results);
+        }
+        remote.forEach((owner, forwarded) -> {
+            java.util.List<Integer> positions = positionsByOwner.get(owner);
+            try {
+                place(forwarded.join(), positions, results);
+            } catch (CompletionException e) {
+                logger.warn("Failed to forward {} order status updates to {}", positions.size(), owner, e.getCause());
+                for (int position : positions) {
+                    results[position] = BatchStatusUpdateResult.unavailable(position,
+                        updates.get(position).getOrderId(), "Order owner " + owner + " unavailable");
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+    
+    private static java.util.List<OrderStatusUpdate> select(java.util.List<OrderStatusUpdate> updates,
+                                                            java.util.List<Integer> positions) {
+        java.util.List<OrderStatusUpdate> selected = new ArrayList<>(positions.size());
+        for (int position : positions) {
+            selected.add(updates.get(position));
+        }
+        return selected;
+    }
+    
+    private static void place(java.util.List<BatchStatusUpdateResult> partial, java.util.List<Integer> positions,
+                              BatchStatusUpdateResult[] results) {
+        for (BatchStatusUpdateResult result : partial) {
+            int position = positions.get(result.getIndex());
+            result.setIndex(position);
+            results[position] = result;
+        }
+    }
+    
+    /**
+     * Stream order changes
+     * 
+     * GET /orders/{id}/events
+     * 
+     * Server-Sent Events stream that sends the current order, then the order
+     * again every time its status changes. Each event is named "order" and its
+     * ID is the order's ETag. The stream ends after the configured stream timeout;
+     * EventSource clients reconnect automatically.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream order changes",
+        description = "Server-Sent Events stream of the order and its subsequent changes"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public ResponseEntity<SseEmitter> streamOrderEvents(
+            @Parameter(description = "Order ID", required = true)
+            @PathVariable String id) {
+        
+        logger.debug("Received order event stream request for ID: {}", id);
+        
+        if (orderService.getOrderById(id) == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(eventStreams.open(id, () -> orderService.getOrderById(id)));
+    }
+    
+    /**
+     * Wait for an order change
+     * 
+     * GET /orders/{id}/poll
+     * 
+     * Long-poll variant of GET /orders/{id}: with an If-None-Match header holding
+     * the ETag the client has, the response is held until the order changes and
+     * then returns it, or returns 304 Not Modified after the poll timeout. Without
+     * the header, or if the order already changed, it returns immediately.
+     */
+    @GetMapping("/{id}/poll")
+    @Operation(
+        summary = "Wait for an order change",
+        description = "Long-poll: returns the order once its ETag differs from If-None-Match"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Order changed"),
+        @ApiResponse(responseCode = "304", description = "Order did not change within the poll timeout"),
+        @ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    public DeferredResult<ResponseEntity<OrderResponse>> pollOrder(
+            @Parameter(description = "Order ID", required = true)
+            @PathVariable String id,
+            @Parameter(description = "ETag of the order state the client already has")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        logger.debug("Received order poll request for ID: {}", id);
+        
+        return eventStreams.poll(id, ifNoneMatch, () -> orderService.getOrderById(id));
+    }
+    
     /**
      * Get all orders
      * 
      * GET /orders
      * 
-     * Retrieves a list of all orders in the system.
+     * Retrieves orders in the system, most recent first.
+     * 
+     * Supports keyset pagination: pass {@code limit} to get one page, and the
+     * opaque cursor from the {@code X-Next-Cursor} response header as
+     * {@code after} to get the following page. The header is omitted on the
+     * last page. Without either parameter all orders are returned.
+     * 
+     * Every response carries an ETag of the returned orders, so a poller can
+     * revalidate a page with If-None-Match and get 304 Not Modified when none of
+     * its orders changed.
+     * 
+     * Use GET /orders/search to filter by customer, status or date range.
      * 
      * TODOs:
-     * - [ ] Add pagination support (RETAILX-8038)
-     * - [ ] Add filtering by customer, status, date range (RETAILX-8036)
      * - [ ] Add sorting options (RETAILX-8046)
      * - [ ] Add customer authorization to only show their orders (RETAILX-8043)
      */
     @GetMapping
     @Operation(
         summary = "Get all orders",
-        description = "Retrieves a list of all orders in the system"
+        description = "Retrieves orders most recent first, optionally one page at a time"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Orders not modified since the given ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid limit or cursor"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<java.util.List<OrderResponse>> getAllOrders() {
+    public ResponseEntity<java.util.List<OrderResponse>> getAllOrders(
+            @Parameter(description = "Maximum number of orders to return")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String after) {
+        
+        logger.info("Received get all orders request (limit: {}, after: {})", limit, after);
         
-        logger.info("Received get all orders request");
+        if (!isValidLimit(limit)) {
+            logger.warn("Rejecting get all orders request with invalid limit: {}", limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         
+        OrderKey afterKey;
         try {
-            // TODO: Add pagination support (RETAILX-8038)
-            // TODO: Add filtering and sorting (RETAILX-8036, RETAILX-8046)
+            afterKey = parseCursor(after);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting get all orders request with invalid cursor: {}", after);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            // TODO: Add sorting options (RETAILX-8046)
             // TODO: Add customer authorization check (RETAILX-8043)
             
-            java.util.List<OrderResponse> orders = orderService.getAllOrders();
+            if (limit == null && afterKey == null) {
+                java.util.List<OrderResponse> orders = orderService.getAllOrders();
+                logger.info("Retrieved {} orders successfully", orders.size());
+                return ResponseEntity.ok().eTag(OrderETags.of(orders)).body(orders);
+            }
+            
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            java.util.List<OrderResponse> orders = orderService.getOrdersPage(afterKey, pageSize);
             
-            logger.info("Retrieved {} orders successfully", orders.size());
-            return new ResponseEntity<>(orders, HttpStatus.OK);
+            logger.info("Retrieved page of {} orders successfully", orders.size());
+            return new ResponseEntity<>(orders, pageHeaders(orders, pageSize), HttpStatus.OK);
             
         } catch (Exception e) {
             // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
@@ -188,9 +616,166 @@ public class OrderController {
         }
     }
     
-    // TODO: Add endpoint to list orders by customer (RETAILX-8035)
-    // TODO: Add endpoint to update order status (RETAILX-8037)
+    /**
+     * Search orders
+     * 
+     * GET /orders/search
+     * 
+     * Finds orders by customer email, status and creation time range, most
+     * recent first. All filters are optional and combined with AND; the range
+     * includes {@code from} and excludes {@code to}. Results are paged exactly
+     * like GET /orders, with a default page size when {@code limit} is omitted.
+     * 
+     * Backed by secondary indexes, so a search never scans the whole store.
+     * Supports If-None-Match like GET /orders.
+     * 
+     * TODOs:
+     * - [ ] Add customer authorization to only show their orders (RETAILX-8043)
+     */
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search orders",
+        description = "Finds orders by customer email, status and creation time range"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orders retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Orders not modified since the given ETag"),
+        @ApiResponse(responseCode = "400", description = "Invalid filter, limit or cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<java.util.List<OrderResponse>> searchOrders(
+            @Parameter(description = "Customer email (case-insensitive)")
+            @RequestParam(required = false) String customerEmail,
+            @Parameter(description = "Order status")
+            @RequestParam(required = false) OrderResponse.OrderStatus status,
+            @Parameter(description = "Created at or after (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Maximum number of orders to return")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+            @RequestParam(required = false) String after) {
+        
+        logger.info("Received search orders request (customer: {}, status: {}, from: {}, to: {})",
+            customerEmail, status, from, to);
+        
+        if (!isValidLimit(limit)) {
+            logger.warn("Rejecting search orders request with invalid limit: {}", limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        OrderKey afterKey;
+        try {
+            afterKey = parseCursor(after);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejecting search orders request with invalid cursor: {}", after);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            OrderSearchCriteria criteria = new OrderSearchCriteria(customerEmail, status, from, to);
+            java.util.List<OrderResponse> orders = orderService.searchOrders(criteria, afterKey, pageSize);
+            
+            logger.info("Search returned {} orders", orders.size());
+            return new ResponseEntity<>(orders, pageHeaders(orders, pageSize), HttpStatus.OK);
+            
+        } catch (Exception e) {
+            // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
+            logger.error("Failed to search orders", e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Export all orders as NDJSON
+     * 
+     * GET /orders (Accept: application/x-ndjson)
+     * 
+     * Streams every order, most recent first, as one JSON document per line.
+     * Orders are read page by page through the keyset index and written to the
+     * response as they are read, so the full list is never held in memory.
+     */
+    @GetMapping(produces = NDJSON_MEDIA_TYPE)
+    @Operation(
+        summary = "Export all orders",
+        description = "Streams all orders most recent first as newline-delimited JSON"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orders streamed successfully")
+    })
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        
+        logger.info("Received export orders request");
+        
+        StreamingResponseBody body = out -> {
+            long exported = 0;
+            OrderKey after = null;
+            java.util.List<OrderResponse> page;
+            do {
+                page = orderService.getOrdersPage(after, EXPORT_PAGE_SIZE);
+                for (OrderResponse order : page) {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write('\n');
+                }
+                out.flush();
+                exported += page.size();
+                if (!page.isEmpty()) {
+                    after = OrderKey.of(page.get(page.size() - 1));
+                }
+            } while (page.size() == EXPORT_PAGE_SIZE);
+            logger.info("Exported {} orders successfully", exported);
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+            .body(body);
+    }
+    
+    private ResponseEntity<java.util.List<BatchOrderResult>> createBatch(java.util.List<CreateOrderRequest> requests) {
+        if (requests.isEmpty()) {
+            logger.warn("Rejecting empty order batch");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (requests.size() > maxBatchSize) {
+            logger.warn("Rejecting order batch of {} orders (max {})", requests.size(), maxBatchSize);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        
+        try {
+            // TODO: Add idempotency support for batches (RETAILX-8041)
+            java.util.List<BatchOrderResult> results = orderService.createOrders(requests);
+            return ResponseEntity.ok(results);
+            
+        } catch (Exception e) {
+            // TODO: Add proper error handling and return appropriate status codes (RETAILX-8042)
+            logger.error("Failed to create order batch of {} orders", requests.size(), e);
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    private static boolean isValidLimit(Integer limit) {
+        return limit == null || (limit > 0 && limit <= MAX_PAGE_SIZE);
+    }
+    
+    private static OrderKey parseCursor(String cursor) {
+        return cursor == null ? null : OrderKey.fromCursor(cursor);
+    }
+    
+    /**
+     * Carries the ETag of the page, and the cursor of the last order in
+     * X-Next-Cursor when the page is full, i.e. when more orders may follow.
+     */
+    private static HttpHeaders pageHeaders(java.util.List<OrderResponse> page, int pageSize) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(OrderETags.of(page));
+        if (page.size() == pageSize) {
+            headers.set(NEXT_CURSOR_HEADER, OrderKey.of(page.get(page.size() - 1)).toCursor());
+        }
+        return headers;
+    }
+    
     // TODO: Add endpoint to cancel order (RETAILX-8032)
-    // TODO: Add endpoint to search orders with filters (RETAILX-8036)
     // TODO: Add health check endpoint (RETAILX-8045)
 }
@@ -0,0 +1,55 @@
+package com.retailx.orders.controller;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.util.List;
+
+/**
+ * Order ETags
+ * 
+ * Strong entity tags for order responses, so that clients polling an order or a
+ * page of orders can revalidate with {@code If-None-Match} and get a 304 instead
+ * of the full body.
+ * 
+ * Every change to an order increments its {@code version}, so the tag is
+ * derived from the order ID and version instead of the serialized body. The
+ * update time would not do: the changes of one bulk status update share it. A
+ * page tag combines the tags of its orders in page order, so it changes when
+ * any order on the page changes or the page gains, loses or reorders orders.
+ * 
+ * Tags are computed from order data only, so every instance returns the same
+ * tag for the same order.
+ */
+final class OrderETags {
+    
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    
+    private OrderETags() {
+    }
+    
+    static String of(OrderResponse order) {
+        return toTag(mix(OFFSET_BASIS, order));
+    }
+    
+    static String of(List<OrderResponse> page) {
+        long hash = OFFSET_BASIS;
+        for (OrderResponse order : page) {
+            hash = mix(hash, order);
+        }
+        return toTag(mix(hash, page.size()));
+    }
+    
+    private static long mix(long hash, OrderResponse order) {
+        hash = mix(hash, order.getOrderId().hashCode());
+        return mix(hash, order.getVersion());
+    }
+    
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * PRIME;
+    }
+    
+    private static String toTag(long hash) {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,341 @@
+package com.retailx.orders.controller;
+
+import com.retailx.orders.events.OrderEventHub;
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Order Event Streams
+ * 
+ * Serves order changes from {@link OrderEventHub} as Server-Sent Events streams
+ * and long-poll responses. Both are asynchronous servlet requests: an idle
+ * subscriber holds a connection and a few small objects, but no thread.
+ * 
+ * Subscriptions are registered before the current order is read, so a change
+ * made while a subscriber connects is never missed; a stream may instead see
+ * the same state twice, which it skips.
+ * 
+ * Open streams get a comment line every {@code heartbeat-interval-ms}, which
+ * keeps proxies from closing idle connections and detects clients that went
+ * away without closing theirs.
+ * 
+ * Writing to a stream can block for as long as the client takes to read, so
+ * neither the hub's fan-out threads nor the heartbeat thread write: they queue
+ * the event on the stream, and a writer thread drains each stream's queue while
+ * it has events. A stream whose client falls {@code stream-buffer-size} events
+ * behind is closed; its {@code EventSource} reconnects and starts again from the
+ * current order.
+ * 
+ * METRICS:
+ * - retailx.orders.events.overflows - streams closed because the client fell behind
+ */
+@Component
+class OrderEventStreams {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventStreams.class);
+    
+    private final OrderEventHub eventHub;
+    private final long streamTimeoutMs;
+    private final long pollTimeoutMs;
+    private final int streamBufferSize;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final ExecutorService writers;
+    private final Counter overflowCounter;
+    
+    @Autowired
+    OrderEventStreams(
+            OrderEventHub eventHub,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.events.stream-timeout-ms:1800000}") long streamTimeoutMs,
+            @Value("${retailx.orders.events.poll-timeout-ms:30000}") long pollTimeoutMs,
+            @Value("${retailx.orders.events.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+            @Value("${retailx.orders.events.stream-buffer-size:32}") int streamBufferSize,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.eventHub = eventHub;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.streamBufferSize = streamBufferSize;
+        // Threads only exist while streams have events to write; a stalled client holds one
+        this.writers = Executors.newCachedThreadPool(writerThreadFactory(virtualThreads));
+        this.overflowCounter = Counter.builder("retailx.orders.events.overflows")
+            .description("Order event streams closed because the client fell behind")
+            .register(meterRegistry);
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::sendHeartbeats,
+            heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Opens an SSE stream that sends the current order and then every change to it.
+     * 
+     * @param current reads the current state of the order
+     */
+    SseEmitter open(String orderId, Supplier<OrderResponse> current) {
+        return open(orderId, current, new SseEmitter(streamTimeoutMs));
+    }
+    
+    /**
+     * Opens a stream on the given emitter.
+     */
+    SseEmitter open(String orderId, Supplier<OrderResponse> current, SseEmitter emitter) {
+        Stream stream = new Stream(orderId, emitter);
+        stream.subscription = eventHub.subscribe(orderId, stream::send);
+        emitter.onCompletion(stream::closed);
+        emitter.onTimeout(stream::closed);
+        emitter.onError(error -> stream.closed());
+        streams.add(stream);
+        
+        OrderResponse order = current.get();
+        if (order != null) {
+            stream.send(order);
+        }
+        return emitter;
+    }
+    
+    /**
+     * Answers a long-poll request: with the order as soon as its ETag differs from
+     * {@code ifNoneMatch}, or with 304 Not Modified if it does not change within
+     * {@code poll-timeout-ms}.
+     * 
+     * @param current reads the current state of the order
+     */
+    DeferredResult<ResponseEntity<OrderResponse>> poll(String orderId, String ifNoneMatch,
+                                                       Supplier<OrderResponse> current) {
+        DeferredResult<ResponseEntity<OrderResponse>> result = new DeferredResult<>(pollTimeoutMs);
+        OrderEventHub.Subscription subscription = eventHub.subscribe(orderId, order -> {
+            String etag = OrderETags.of(order);
+            if (!etag.equals(ifNoneMatch)) {
+                result.setResult(ResponseEntity.ok().eTag(etag).body(order));
+            }
+        });
+        result.onCompletion(subscription::cancel);
+        result.onTimeout(() -> result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build()));
+        
+        OrderResponse order = current.get();
+        if (order == null) {
+            result.setResult(ResponseEntity.notFound().build());
+        } else if (!OrderETags.of(order).equals(ifNoneMatch)) {
+            result.setResult(ResponseEntity.ok().eTag(OrderETags.of(order)).body(order));
+        }
+        return result;
+    }
+    
+    @PreDestroy
+    void stop() {
+        heartbeatScheduler.shutdownNow();
+        for (Stream stream : streams) {
+            stream.complete();
+        }
+        writers.shutdown();
+    }
+    
+    private void sendHeartbeats() {
+        for (Stream stream : streams) {
+            stream.heartbeat();
+        }
+    }
+    
+    private static ThreadFactory writerThreadFactory(boolean virtualThreads) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("order-events-writer-").getVirtualThreadFactory();
+        }
+        return new ThreadFactory() {
+            private final AtomicInteger index = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "order-events-writer-" + index.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+    
+    /**
+     * One SSE connection. Events are queued by the calling thread and written in
+     * order by at most one writer at a time, so a change and a heartbeat or the
+     * initial state never interleave; states whose version is not newer than the
+     * last one queued are skipped.
+     */
+    private final class Stream {
+        
+        private static final Object HEARTBEAT = new Object();
+        private static final Object COMPLETE = new Object();
+        
+        private final String orderId;
+        private final SseEmitter emitter;
+        private volatile OrderEventHub.Subscription subscription;
+        // Guarded by this
+        private final ArrayDeque<Object> queue = new ArrayDeque<>();
+        private boolean writing;
+        private boolean closed;
+        private OrderResponse lastQueued;
+        
+        Stream(String orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+        
+        void send(OrderResponse order) {
+            synchronized (this) {
+                // Versions, not update times: the changes of a bulk update share one updatedAt
+                if (lastQueued != null && order.getVersion() <= lastQueued.getVersion()) {
+                    return;
+                }
+                lastQueued = order;
+            }
+            enqueue(order);
+        }
+        
+        void heartbeat() {
+            synchronized (this) {
+                // Pending events keep the connection busy anyway
+                if (writing || !queue.isEmpty()) {
+                    return;
+                }
+            }
+            enqueue(HEARTBEAT);
+        }
+        
+        void complete() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+                queue.add(COMPLETE);
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+            startWriter();
+        }
+        
+        /**
+         * Called once the emitter has completed, timed out or failed.
+         */
+        void closed() {
+            synchronized (this) {
+                closed = true;
+                queue.clear();
+            }
+            unsubscribe();
+        }
+        
+        private void enqueue(Object event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= streamBufferSize) {
+                    overflowed();
+                    return;
+                }
+                queue.add(event);
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+            startWriter();
+        }
+        
+        // Called holding the lock; the writer completes the emitter once its current write returns
+        private void overflowed() {
+            logger.debug("Closing order event stream of order {}: client is {} events behind",
+                orderId, streamBufferSize);
+            overflowCounter.increment();
+            closed = true;
+            queue.clear();
+            queue.add(COMPLETE);
+            unsubscribe();
+        }
+        
+        private void unsubscribe() {
+            OrderEventHub.Subscription subscription = this.subscription;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            streams.remove(this);
+        }
+        
+        private void startWriter() {
+            try {
+                writers.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Order event streams stopped, dropped events of order {}", orderId);
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                Object event;
+                synchronized (this) {
+                    event = queue.poll();
+                    if (event == null) {
+                        writing = false;
+                        return;
+                    }
+                }
+                write(event);
+            }
+        }
+        
+        private void write(Object event) {
+            try {
+                if (event == COMPLETE) {
+                    emitter.complete();
+                } else if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    OrderResponse order = (OrderResponse) event;
+                    emitter.send(SseEmitter.event()
+                        .id(OrderETags.of(order))
+                        .name("order")
+                        .data(order, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                failed(e);
+            }
+        }
+        
+        private void failed(Exception e) {
+            logger.debug("Closing order event stream of order {}: {}", orderId, e.getMessage());
+            closed();
+            emitter.completeWithError(e);
+        }
+    }
+}
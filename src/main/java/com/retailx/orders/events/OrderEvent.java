@@ -0,0 +1,117 @@
+package com.retailx.orders.events;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Order Event
+ * 
+ * A change to one order, as recorded in the order outbox and delivered by the
+ * outbox relay to the event sink and the in-process {@link OrderEventBus}.
+ * 
+ * {@code sequence} is the event's position in the outbox: it is unique and
+ * increases with every event of an order (with every event, unless the store is
+ * partitioned), so consumers can use it to discard duplicates after a redelivery.
+ * {@code occurredAt} is the order's update time and {@code version} the order
+ * version after the change (0 for changes logged before orders had versions),
+ * which orders the events of one order. {@code order} carries the full order for
+ * CREATED and UPDATED events and is null for STATUS_CHANGED events.
+ */
+public final class OrderEvent {
+    
+    public enum Type {
+        CREATED,
+        STATUS_CHANGED,
+        UPDATED
+    }
+    
+    private final long sequence;
+    private final Type type;
+    private final String orderId;
+    private final OrderResponse.OrderStatus status;
+    private final LocalDateTime occurredAt;
+    private final long version;
+    private final OrderResponse order;
+    
+    public OrderEvent(long sequence, Type type, String orderId, OrderResponse.OrderStatus status,
+                      LocalDateTime occurredAt, long version, OrderResponse order) {
+        this.sequence = sequence;
+        this.type = type;
+        this.orderId = orderId;
+        this.status = status;
+        this.occurredAt = occurredAt;
+        this.version = version;
+        this.order = order;
+    }
+    
+    public static OrderEvent created(long sequence, OrderResponse order) {
+        return new OrderEvent(sequence, Type.CREATED, order.getOrderId(), order.getStatus(), order.getUpdatedAt(),
+            order.getVersion(), order);
+    }
+    
+    public static OrderEvent statusChanged(long sequence, OrderResponse order) {
+        return new OrderEvent(sequence, Type.STATUS_CHANGED, order.getOrderId(), order.getStatus(),
+            order.getUpdatedAt(), order.getVersion(), null);
+    }
+    
+    public static OrderEvent updated(long sequence, OrderResponse order) {
+        return new OrderEvent(sequence, Type.UPDATED, order.getOrderId(), order.getStatus(), order.getUpdatedAt(),
+            order.getVersion(), order);
+    }
+    
+    /**
+     * Event for a change from {@code previous} to {@code current}.
+     */
+    public static OrderEvent changed(long sequence, OrderResponse previous, OrderResponse current) {
+        return isStatusChange(previous, current) ? statusChanged(sequence, current) : updated(sequence, current);
+    }
+    
+    /**
+     * True if only the status and update time differ, i.e. the change is fully
+     * described by a STATUS_CHANGED event.
+     */
+    public static boolean isStatusChange(OrderResponse previous, OrderResponse updated) {
+        return Objects.equals(previous.getOrderId(), updated.getOrderId())
+            && Objects.equals(previous.getCustomerEmail(), updated.getCustomerEmail())
+            && previous.getItems() == updated.getItems()
+            && Objects.equals(previous.getDeliveryAddress(), updated.getDeliveryAddress())
+            && Objects.equals(previous.getTotalAmount(), updated.getTotalAmount())
+            && Objects.equals(previous.getCreatedAt(), updated.getCreatedAt())
+            && updated.getStatus() != null;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public OrderResponse.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public OrderResponse getOrder() {
+        return order;
+    }
+    
+    @Override
+    public String toString() {
+        return type + " " + orderId + " (" + status + ") #" + sequence;
+    }
+}
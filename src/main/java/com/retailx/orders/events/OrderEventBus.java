@@ -0,0 +1,179 @@
+package com.retailx.orders.events;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Order Event Bus
+ * 
+ * In-process delivery of {@link OrderEvent}s to subscribers inside this
+ * service, fed by the outbox relay after each batch reaches the event sink.
+ * 
+ * Events are placed in a fixed-size ring buffer with a single writer (the
+ * relay). Each subscriber runs on its own thread and follows the ring with its
+ * own sequence, so publishing and consuming take no locks: the writer fills a
+ * slot and advances a volatile cursor, a subscriber reads up to the cursor and
+ * advances its sequence. A subscriber with nothing to read parks until the
+ * writer wakes it. The writer never overwrites a slot a subscriber has not read
+ * yet; when the slowest subscriber is a full ring behind, the writer waits, which
+ * stops the relay and leaves the events in the outbox.
+ * 
+ * A new subscriber receives the events published after it subscribed. Listeners
+ * should be quick; a listener that throws is logged and skipped for that event.
+ * 
+ * METRICS:
+ * - retailx.orders.event-bus.subscribers - registered subscribers
+ * - retailx.orders.event-bus.backlog - events the slowest subscriber has not read
+ */
+@Component
+public class OrderEventBus {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventBus.class);
+    
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    
+    private final OrderEvent[] ring;
+    private final int mask;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    
+    // Sequence of the last published event; slot sequence & mask holds it
+    private volatile long cursor = -1;
+    
+    /**
+     * Handle to remove a listener registered with {@link #subscribe}.
+     */
+    public interface Subscription {
+        
+        /**
+         * Stops delivery to the listener; calling this more than once has no effect.
+         */
+        void cancel();
+    }
+    
+    @Autowired
+    public OrderEventBus(
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.event-bus.capacity:8192}") int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new OrderEvent[size];
+        this.mask = size - 1;
+        
+        Gauge.builder("retailx.orders.event-bus.subscribers", subscribers, List::size)
+            .description("Registered in-process order event subscribers")
+            .register(meterRegistry);
+        Gauge.builder("retailx.orders.event-bus.backlog", this, bus -> bus.cursor - bus.minimumSequence(bus.cursor))
+            .description("Order events the slowest in-process subscriber has not read")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Registers a listener, run on a dedicated thread named after {@code name}.
+     */
+    public Subscription subscribe(String name, Consumer<OrderEvent> listener) {
+        Subscriber subscriber = new Subscriber(listener, cursor);
+        subscriber.thread = new Thread(subscriber::run, "order-event-bus-" + name);
+        subscriber.thread.setDaemon(true);
+        subscribers.add(subscriber);
+        subscriber.thread.start();
+        logger.info("Order event bus subscriber {} registered", name);
+        return subscriber::cancel;
+    }
+    
+    /**
+     * Publishes an event to every subscriber. Must only be called from one
+     * thread at a time (the outbox relay); waits while the slowest subscriber
+     * is a full ring behind.
+     */
+    public void publish(OrderEvent event) {
+        long next = cursor + 1;
+        while (next - minimumSequence(next - 1) > ring.length) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        ring[(int) (next & mask)] = event;
+        cursor = next;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.waiting) {
+                LockSupport.unpark(subscriber.thread);
+            }
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.cancel();
+        }
+    }
+    
+    /**
+     * Lowest sequence read by any subscriber, or {@code defaultSequence} if there
+     * are none.
+     */
+    private long minimumSequence(long defaultSequence) {
+        long minimum = defaultSequence;
+        for (Subscriber subscriber : subscribers) {
+            minimum = Math.min(minimum, subscriber.sequence);
+        }
+        return minimum;
+    }
+    
+    private final class Subscriber {
+        
+        private final Consumer<OrderEvent> listener;
+        private volatile long sequence;
+        private volatile boolean waiting;
+        private volatile boolean running = true;
+        private Thread thread;
+        
+        Subscriber(Consumer<OrderEvent> listener, long sequence) {
+            this.listener = listener;
+            this.sequence = sequence;
+        }
+        
+        void run() {
+            long next = sequence + 1;
+            while (running) {
+                long available = cursor;
+                if (available < next) {
+                    waiting = true;
+                    // Re-check after announcing, so a publish in between is not missed
+                    if (cursor < next && running) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    waiting = false;
+                    continue;
+                }
+                for (; next <= available; next++) {
+                    OrderEvent event = ring[(int) (next & mask)];
+                    try {
+                        listener.accept(event);
+                    } catch (RuntimeException e) {
+                        logger.warn("Order event subscriber {} failed on {}", thread.getName(), event, e);
+                    }
+                }
+                // Frees the slots read so far for the writer
+                sequence = available;
+            }
+        }
+        
+        void cancel() {
+            if (subscribers.remove(this)) {
+                running = false;
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
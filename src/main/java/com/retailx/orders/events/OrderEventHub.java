@@ -0,0 +1,153 @@
+package com.retailx.orders.events;
+
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Order Event Hub
+ * 
+ * In-process fan-out of order changes to the clients watching an order, so they
+ * can be pushed the change instead of polling GET /orders/{id}.
+ * 
+ * Subscribers register a listener per order ID; {@link #publish} hands the
+ * changed order to every listener of that order. Publishing never blocks the
+ * caller on subscribers: listeners run on fan-out threads, and each order is
+ * always delivered by the same thread so its subscribers see its changes in
+ * the order they were published. Publishing an order nobody watches costs a
+ * single map lookup.
+ * 
+ * Listeners must not block (they write to asynchronous responses); a listener
+ * that throws is logged and does not affect the other subscribers.
+ * 
+ * METRICS:
+ * - retailx.orders.events.subscribers - registered listeners
+ * - retailx.orders.events.fanout - time from publish until every listener of the order ran
+ * 
+ * TODOs:
+ * - [ ] Publish order events to the message queue for other instances (RETAILX-8005)
+ */
+@Component
+public class OrderEventHub {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventHub.class);
+    
+    private final ConcurrentHashMap<String, Set<Consumer<OrderResponse>>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService[] fanOutExecutors;
+    private final Timer fanOutTimer;
+    
+    /**
+     * Handle to remove a listener registered with {@link #subscribe}.
+     */
+    public interface Subscription {
+        
+        /**
+         * Removes the listener; calling this more than once has no effect.
+         */
+        void cancel();
+    }
+    
+    @Autowired
+    public OrderEventHub(
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.events.fanout-threads:2}") int fanOutThreads) {
+        this.fanOutExecutors = new ExecutorService[fanOutThreads];
+        for (int i = 0; i < fanOutThreads; i++) {
+            String name = "order-events-" + i;
+            fanOutExecutors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        Gauge.builder("retailx.orders.events.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Listeners watching orders for changes")
+            .register(meterRegistry);
+        this.fanOutTimer = Timer.builder("retailx.orders.events.fanout")
+            .description("Time from publishing an order change until all its listeners ran")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Registers a listener for changes to one order.
+     */
+    public Subscription subscribe(String orderId, Consumer<OrderResponse> listener) {
+        // Add inside compute so a concurrent cancel cannot drop the set we add to
+        subscribers.compute(orderId, (id, listeners) -> {
+            Set<Consumer<OrderResponse>> set = listeners != null ? listeners : ConcurrentHashMap.newKeySet();
+            set.add(listener);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+        return () -> subscribers.computeIfPresent(orderId, (id, listeners) -> {
+            if (listeners.remove(listener)) {
+                subscriberCount.decrementAndGet();
+            }
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+    
+    /**
+     * Notifies the subscribers of an order that it changed.
+     */
+    public void publish(OrderResponse order) {
+        String orderId = order.getOrderId();
+        if (!subscribers.containsKey(orderId)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            executorFor(orderId).execute(() -> deliver(order, start));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Order event hub stopped, dropped change of order {}", orderId);
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+    
+    @PreDestroy
+    void stop() {
+        for (ExecutorService executor : fanOutExecutors) {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void deliver(OrderResponse order, long publishedAt) {
+        Set<Consumer<OrderResponse>> listeners = subscribers.get(order.getOrderId());
+        if (listeners == null) {
+            return;
+        }
+        for (Consumer<OrderResponse> listener : listeners) {
+            try {
+                listener.accept(order);
+            } catch (RuntimeException e) {
+                logger.warn("Order event listener failed for order {}", order.getOrderId(), e);
+            }
+        }
+        fanOutTimer.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+    }
+    
+    private ExecutorService executorFor(String orderId) {
+        return fanOutExecutors[(orderId.hashCode() & Integer.MAX_VALUE) % fanOutExecutors.length];
+    }
+}
@@ -0,0 +1,48 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-Memory Order Event Sink
+ * 
+ * Stand-in for a message broker until one is integrated (RETAILX-8005), and for
+ * tests: keeps the most recent {@code capacity} delivered events in memory.
+ */
+public class InMemoryOrderEventSink implements OrderEventSink {
+    
+    private final int capacity;
+    private final Deque<OrderEvent> events;
+    private long publishedCount;
+    
+    public InMemoryOrderEventSink(int capacity) {
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(capacity);
+    }
+    
+    @Override
+    public synchronized void publish(List<OrderEvent> batch) {
+        for (OrderEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+        publishedCount += batch.size();
+    }
+    
+    /**
+     * The most recent events, oldest first.
+     */
+    public synchronized List<OrderEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+    
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+}
@@ -0,0 +1,81 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * In-Memory Order Outbox
+ * 
+ * {@link OrderOutbox} for stores without a log of their own (memory and jpa
+ * persistence modes). Events are lost on restart, and at most {@code capacity}
+ * undelivered events are kept; when the relay falls further behind, the oldest
+ * events are dropped and counted. In jpa mode it is not written in the orders'
+ * database transaction, so it gives no delivery guarantee there.
+ */
+public class InMemoryOrderOutbox implements OrderOutbox {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOrderOutbox.class);
+    
+    private final int capacity;
+    private final Deque<OrderEvent> events;
+    private long lastSequence;
+    private long acknowledged;
+    private long droppedCount;
+    
+    public InMemoryOrderOutbox(int capacity) {
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(capacity);
+    }
+    
+    /**
+     * Appends the event built for the next sequence number.
+     */
+    public synchronized void append(LongFunction<OrderEvent> event) {
+        if (events.size() == capacity) {
+            OrderEvent dropped = events.removeFirst();
+            if (droppedCount++ == 0) {
+                logger.warn("Order outbox full ({} events), dropping undelivered events starting with {}",
+                    capacity, dropped);
+            }
+        }
+        events.addLast(event.apply(++lastSequence));
+    }
+    
+    @Override
+    public synchronized List<OrderEvent> read(long position, int limit) {
+        List<OrderEvent> batch = new ArrayList<>(Math.min(limit, events.size()));
+        for (OrderEvent event : events) {
+            if (batch.size() == limit) {
+                break;
+            }
+            if (event.getSequence() > position) {
+                batch.add(event);
+            }
+        }
+        return batch;
+    }
+    
+    @Override
+    public synchronized void acknowledge(long position) {
+        while (!events.isEmpty() && events.peekFirst().getSequence() <= position) {
+            events.removeFirst();
+        }
+        acknowledged = Math.max(acknowledged, position);
+    }
+    
+    @Override
+    public synchronized long getAcknowledgedPosition() {
+        return acknowledged;
+    }
+    
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
@@ -0,0 +1,24 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+
+import java.util.List;
+
+/**
+ * Order Event Sink
+ * 
+ * Destination the {@link OutboxRelay} delivers order events to, such as a
+ * message broker. Define a bean of this type to replace the default
+ * {@link InMemoryOrderEventSink}.
+ * 
+ * {@link #publish} receives events in outbox order and must either deliver the
+ * whole batch or throw; a failed batch is retried, so a sink may see an event
+ * more than once.
+ * 
+ * TODOs:
+ * - [ ] Add message queue implementation (RETAILX-8005)
+ */
+public interface OrderEventSink {
+    
+    void publish(List<OrderEvent> events);
+}
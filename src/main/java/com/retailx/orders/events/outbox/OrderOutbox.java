@@ -0,0 +1,40 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+
+import java.util.List;
+
+/**
+ * Order Outbox
+ * 
+ * Order events recorded together with the order changes they describe, waiting
+ * to be delivered by the {@link OutboxRelay}. Every event has a position (its
+ * {@link OrderEvent#getSequence() sequence}); positions of the events of one
+ * order increase in the order the changes were made, and the relay only passes
+ * back positions the outbox returned.
+ * 
+ * The relay reads events after the last position it delivered and acknowledges
+ * them once delivered. Events are kept until they are acknowledged, so delivery
+ * is at-least-once: events read but not acknowledged before a restart are read
+ * again.
+ */
+public interface OrderOutbox {
+    
+    /**
+     * Returns up to {@code limit} committed events after {@code position}, in
+     * order; an empty list if there are none yet.
+     */
+    List<OrderEvent> read(long position, int limit);
+    
+    /**
+     * Marks every event up to and including {@code position} as delivered, so
+     * the outbox may discard them.
+     */
+    void acknowledge(long position);
+    
+    /**
+     * Position of the last acknowledged event: where the relay resumes after a
+     * restart.
+     */
+    long getAcknowledgedPosition();
+}
@@ -0,0 +1,24 @@
+package com.retailx.orders.events.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Outbox Configuration
+ * 
+ * Provides the default {@link OrderEventSink}, an {@link InMemoryOrderEventSink}
+ * that keeps the last {@code retailx.orders.outbox.sink-retained-events} events,
+ * unless the application defines its own sink.
+ */
+@Configuration
+public class OutboxConfiguration {
+    
+    @Bean
+    @ConditionalOnMissingBean(OrderEventSink.class)
+    public InMemoryOrderEventSink inMemoryOrderEventSink(
+            @Value("${retailx.orders.outbox.sink-retained-events:10000}") int retainedEvents) {
+        return new InMemoryOrderEventSink(retainedEvents);
+    }
+}
@@ -0,0 +1,159 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.events.OrderEventBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbox Relay
+ * 
+ * Drains the {@link OrderOutbox} on a single background thread: reads up to
+ * {@code retailx.orders.outbox.batch-size} events after the last acknowledged
+ * position, publishes them to the {@link OrderEventSink} as one batch, hands
+ * them to the in-process {@link OrderEventBus}, then acknowledges the batch.
+ * 
+ * While the outbox has a full batch waiting the relay reads again immediately;
+ * only an empty read waits {@code retailx.orders.outbox.poll-interval-ms}. A
+ * batch the sink rejects is retried with exponential backoff (up to
+ * {@code retailx.orders.outbox.max-backoff-ms}) and nothing after it is
+ * delivered meanwhile, so the sink sees events in outbox order.
+ * 
+ * METRICS:
+ * - retailx.orders.outbox.relayed - events delivered to the sink
+ * - retailx.orders.outbox.failed - sink batches that failed and were retried
+ * - retailx.orders.outbox.batch - events per delivered batch
+ * - retailx.orders.outbox.lag - time from the order change until its event was delivered
+ * - retailx.orders.outbox.position - last acknowledged outbox position
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private final OrderOutbox outbox;
+    private final OrderEventSink sink;
+    private final OrderEventBus eventBus;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long maxBackoffMs;
+    
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSummary;
+    private final Timer lagTimer;
+    
+    private volatile boolean running = true;
+    private Thread thread;
+    
+    @Autowired
+    public OutboxRelay(
+            OrderOutbox outbox,
+            OrderEventSink sink,
+            OrderEventBus eventBus,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.outbox.batch-size:500}") int batchSize,
+            @Value("${retailx.orders.outbox.poll-interval-ms:20}") long pollIntervalMs,
+            @Value("${retailx.orders.outbox.max-backoff-ms:5000}") long maxBackoffMs) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.eventBus = eventBus;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+        
+        this.relayedCounter = Counter.builder("retailx.orders.outbox.relayed")
+            .description("Order events delivered to the event sink")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("retailx.orders.outbox.failed")
+            .description("Order event batches the event sink failed to accept")
+            .register(meterRegistry);
+        this.batchSummary = DistributionSummary.builder("retailx.orders.outbox.batch")
+            .description("Order events per batch delivered to the event sink")
+            .register(meterRegistry);
+        this.lagTimer = Timer.builder("retailx.orders.outbox.lag")
+            .description("Time from an order change until its event was delivered to the event sink")
+            .register(meterRegistry);
+        Gauge.builder("retailx.orders.outbox.position", outbox, OrderOutbox::getAcknowledgedPosition)
+            .description("Last acknowledged order outbox position")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    void start() {
+        thread = new Thread(this::run, "order-outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    
+    private void run() {
+        long position = outbox.getAcknowledgedPosition();
+        logger.info("Order outbox relay started at position {}", position);
+        long backoffMs = pollIntervalMs;
+        while (running) {
+            try {
+                List<OrderEvent> events = outbox.read(position, batchSize);
+                if (events.isEmpty()) {
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+                try {
+                    sink.publish(events);
+                } catch (RuntimeException e) {
+                    failedCounter.increment();
+                    logger.warn("Failed to publish {} order events from position {}, retrying in {} ms",
+                        events.size(), position, backoffMs, e);
+                    Thread.sleep(backoffMs);
+                    backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+                    continue;
+                }
+                backoffMs = pollIntervalMs;
+                
+                LocalDateTime now = LocalDateTime.now();
+                for (OrderEvent event : events) {
+                    eventBus.publish(event);
+                    if (event.getOccurredAt() != null) {
+                        lagTimer.record(Duration.between(event.getOccurredAt(), now));
+                    }
+                }
+                position = events.get(events.size() - 1).getSequence();
+                outbox.acknowledge(position);
+                relayedCounter.increment(events.size());
+                batchSummary.record(events.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Order outbox relay failed at position {}", position, e);
+                try {
+                    Thread.sleep(maxBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        logger.info("Order outbox relay stopped at position {}", position);
+    }
+}
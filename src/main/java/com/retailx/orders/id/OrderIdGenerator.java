@@ -0,0 +1,108 @@
+package com.retailx.orders.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order ID Generator
+ * 
+ * Generates order IDs like {@code ORD-0A88WKHQ00P4R} from a 63-bit value laid
+ * out Snowflake-style:
+ * - 41 bits - milliseconds since 2024-01-01T00:00:00Z (good until 2093)
+ * - 10 bits - node ID, unique per service instance
+ * - 12 bits - sequence within the millisecond
+ * 
+ * The value is written as 13 Crockford base32 digits, whose ASCII order matches
+ * their numeric order, so IDs sort by creation time both as numbers and as
+ * strings, and IDs from one node are strictly increasing.
+ * 
+ * Generation is lock-free: the last timestamp and sequence share one
+ * {@link AtomicLong} advanced by compare-and-set. When more than 4096 IDs are
+ * requested within a millisecond, or the clock moves backwards, the generator
+ * keeps counting from the last ID instead of waiting for the clock, so it never
+ * blocks and never repeats an ID.
+ * 
+ * IDs are unique across instances only if every instance has its own
+ * {@code retailx.orders.id.node-id} (0-1023). Without it the node ID is derived
+ * from the host name, which can collide; the store still refuses to overwrite an
+ * existing order, so a collision costs a retry, not an order.
+ */
+@Component
+public class OrderIdGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdGenerator.class);
+    
+    public static final String PREFIX = "ORD-";
+    
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    
+    private final long nodeBits;
+    
+    // Timestamp (relative to the epoch) and sequence of the last ID, as (timestamp << SEQUENCE_BITS) | sequence
+    private final AtomicLong lastTick = new AtomicLong();
+    
+    @Autowired
+    public OrderIdGenerator(@Value("${retailx.orders.id.node-id:-1}") int configuredNodeId) {
+        int nodeId = configuredNodeId >= 0 ? configuredNodeId : hostNodeId();
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order ID node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        logger.info("Generating order IDs with node ID {}", nodeId);
+    }
+    
+    /**
+     * Returns a new order ID, e.g. {@code ORD-0A88WKHQ00P4R}.
+     */
+    public String nextId() {
+        long value = nextValue();
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = DIGITS[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * Returns the next 63-bit ID value: timestamp, node ID and sequence.
+     */
+    private long nextValue() {
+        long tick;
+        while (true) {
+            long last = lastTick.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            // A sequence overflow carries into the timestamp, which runs ahead of the clock until it catches up
+            tick = now > last ? now : last + 1;
+            if (lastTick.compareAndSet(last, tick)) {
+                break;
+            }
+        }
+        long timestamp = tick >>> SEQUENCE_BITS;
+        long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+    
+    private static int hostNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & MAX_NODE_ID;
+        } catch (UnknownHostException e) {
+            logger.warn("Cannot resolve host name for the order ID node ID, using 0; set retailx.orders.id.node-id");
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.retailx.orders.idempotency;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency Store
+ * 
+ * Deduplicates order creations retried with the same {@code Idempotency-Key}
+ * (RETAILX-8041), so a client retrying after a timeout gets the order it already
+ * created instead of a second order and a second confirmation notification.
+ * 
+ * The first request with a key creates the order; requests with the same key
+ * arriving while it runs wait for it (up to {@code wait-timeout-ms}) and later
+ * ones get the stored order replayed. A key reused with a different request
+ * body is rejected. If the creation fails the key is released, so a retry
+ * creates the order.
+ * 
+ * Keys expire {@code ttl-ms} after their order was created. Expired keys are
+ * removed by a background sweep; request threads only check the expiry of the
+ * key they look up. At most {@code max-keys} keys are kept; beyond that new
+ * requests are processed without deduplication.
+ * 
+ * Keys are kept in memory, so deduplication only covers retries that reach the
+ * same instance within the TTL.
+ * 
+ * METRICS:
+ * - retailx.orders.idempotency.keys - keys stored
+ * - retailx.orders.idempotency.replayed - duplicates answered with the stored order
+ * - retailx.orders.idempotency.rejected - tagged with reason (in-progress, key-reused)
+ * - retailx.orders.idempotency.untracked - requests processed without deduplication (store full)
+ */
+@Component
+public class IdempotencyStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final long waitTimeoutMs;
+    private final ScheduledExecutorService sweeper;
+    
+    private final Counter replayedCounter;
+    private final Counter inProgressCounter;
+    private final Counter keyReusedCounter;
+    private final Counter untrackedCounter;
+    
+    /**
+     * How a request with an idempotency key was handled.
+     */
+    public enum Outcome {
+        /** First request with the key; the order was created. */
+        CREATED,
+        /** Duplicate; the order created by the first request is returned. */
+        REPLAYED,
+        /** Duplicate of a request still being processed after the wait timeout. */
+        IN_PROGRESS,
+        /** The key was already used for a different request. */
+        KEY_REUSED
+    }
+    
+    public static final class Result {
+        
+        private final Outcome outcome;
+        private final OrderResponse order;
+        
+        private Result(Outcome outcome, OrderResponse order) {
+            this.outcome = outcome;
+            this.order = order;
+        }
+        
+        public Outcome getOutcome() {
+            return outcome;
+        }
+        
+        /**
+         * The created or replayed order; null for rejected requests.
+         */
+        public OrderResponse getOrder() {
+            return order;
+        }
+    }
+    
+    @Autowired
+    public IdempotencyStore(
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.idempotency.ttl-ms:3600000}") long ttlMs,
+            @Value("${retailx.orders.idempotency.max-keys:100000}") int maxKeys,
+            @Value("${retailx.orders.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+            @Value("${retailx.orders.idempotency.sweep-interval-ms:60000}") long sweepIntervalMs) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxKeys = maxKeys;
+        this.waitTimeoutMs = waitTimeoutMs;
+        
+        Gauge.builder("retailx.orders.idempotency.keys", entries, Map::size)
+            .description("Idempotency keys stored")
+            .register(meterRegistry);
+        this.replayedCounter = Counter.builder("retailx.orders.idempotency.replayed")
+            .description("Duplicate order requests answered with the stored order")
+            .register(meterRegistry);
+        this.inProgressCounter = rejectedCounter(meterRegistry, "in-progress");
+        this.keyReusedCounter = rejectedCounter(meterRegistry, "key-reused");
+        this.untrackedCounter = Counter.builder("retailx.orders.idempotency.untracked")
+            .description("Order requests processed without deduplication because the store was full")
+            .register(meterRegistry);
+        
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::removeExpired, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Creates an order with {@code create} unless a request with the same key
+     * already did.
+     * 
+     * @throws RuntimeException whatever {@code create} throws, also for the
+     *         duplicates waiting on that creation
+     */
+    public Result execute(String key, CreateOrderRequest request, Supplier<OrderResponse> create) {
+        byte[] fingerprint = fingerprint(request);
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.get(key);
+        if (existing == null && entries.size() >= maxKeys) {
+            untrackedCounter.increment();
+            logger.warn("Idempotency store full ({} keys), processing request without deduplication", maxKeys);
+            return new Result(Outcome.CREATED, create.get());
+        }
+        // Claim the key, taking over an expired one that the sweep has not removed yet
+        while ((existing = entries.putIfAbsent(key, entry)) != null && existing.isExpired(System.nanoTime())) {
+            if (entries.replace(key, existing, entry)) {
+                existing = null;
+                break;
+            }
+        }
+        
+        if (existing == null) {
+            OrderResponse order;
+            try {
+                order = create.get();
+            } catch (RuntimeException e) {
+                // Release the key so that a retry can create the order
+                entries.remove(key, entry);
+                entry.response.completeExceptionally(e);
+                throw e;
+            }
+            entry.expiresAt = System.nanoTime() + ttlNanos;
+            entry.response.complete(order);
+            return new Result(Outcome.CREATED, order);
+        }
+        
+        if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+            keyReusedCounter.increment();
+            return new Result(Outcome.KEY_REUSED, null);
+        }
+        try {
+            OrderResponse order = existing.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            replayedCounter.increment();
+            return new Result(Outcome.REPLAYED, order);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            inProgressCounter.increment();
+            return new Result(Outcome.IN_PROGRESS, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inProgressCounter.increment();
+            return new Result(Outcome.IN_PROGRESS, null);
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+    
+    private void removeExpired() {
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        logger.debug("Removed {} expired idempotency keys", before - entries.size());
+    }
+    
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("retailx.orders.idempotency.rejected")
+            .tag("reason", reason)
+            .description("Order requests rejected because of their idempotency key")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * SHA-256 digest of the request fields, to tell a retry from a different
+     * request that reuses the key. Each field is length-prefixed so that values
+     * cannot run into each other, and prices are encoded by value, so 10.5 and
+     * 10.50 match.
+     */
+    private static byte[] fingerprint(CreateOrderRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        update(digest, request.getCustomerEmail());
+        update(digest, request.getDeliveryAddress());
+        update(digest, request.getPromotionCode());
+        if (request.getItems() == null) {
+            digest.update(intBytes(-1));
+        } else {
+            digest.update(intBytes(request.getItems().size()));
+            for (CreateOrderRequest.OrderItem item : request.getItems()) {
+                update(digest, item.getProductId());
+                update(digest, item.getQuantity() == null ? null : item.getQuantity().toString());
+                BigDecimal price = item.getPrice();
+                update(digest, price == null ? null : price.stripTrailingZeros().toString());
+            }
+        }
+        return digest.digest();
+    }
+    
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(intBytes(-1));
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(intBytes(bytes.length));
+        digest.update(bytes);
+    }
+    
+    private static byte[] intBytes(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+    
+    private static final class Entry {
+        
+        final byte[] fingerprint;
+        final CompletableFuture<OrderResponse> response = new CompletableFuture<>();
+        
+        // Set once the order is created; keys of requests in progress never expire
+        volatile long expiresAt;
+        
+        Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+        
+        boolean isExpired(long now) {
+            return response.isDone() && now - expiresAt >= 0;
+        }
+    }
+}
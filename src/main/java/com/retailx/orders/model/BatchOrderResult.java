@@ -0,0 +1,81 @@
+package com.retailx.orders.model;
+
+import java.util.List;
+
+/**
+ * Batch Order Result Model
+ * 
+ * Outcome of one order in a POST /orders/batch request. Results are returned in
+ * the order of the submitted orders, and {@code index} is the zero-based
+ * position of the order in the batch.
+ */
+public class BatchOrderResult {
+    
+    public enum Status {
+        /** The order was created; {@code order} holds it. */
+        CREATED,
+        /** The order failed validation; {@code errors} lists why. Nothing was stored. */
+        REJECTED,
+        /** The order was valid but could not be created; it may be retried. */
+        FAILED
+    }
+    
+    private int index;
+    private Status status;
+    private OrderResponse order;
+    private List<String> errors;
+    
+    public BatchOrderResult() {}
+    
+    public BatchOrderResult(int index, Status status, OrderResponse order, List<String> errors) {
+        this.index = index;
+        this.status = status;
+        this.order = order;
+        this.errors = errors;
+    }
+    
+    public static BatchOrderResult created(int index, OrderResponse order) {
+        return new BatchOrderResult(index, Status.CREATED, order, List.of());
+    }
+    
+    public static BatchOrderResult rejected(int index, List<String> errors) {
+        return new BatchOrderResult(index, Status.REJECTED, null, errors);
+    }
+    
+    public static BatchOrderResult failed(int index, String error) {
+        return new BatchOrderResult(index, Status.FAILED, null, List.of(error));
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public OrderResponse getOrder() {
+        return order;
+    }
+    
+    public void setOrder(OrderResponse order) {
+        this.order = order;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
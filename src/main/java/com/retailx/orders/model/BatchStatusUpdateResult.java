@@ -0,0 +1,111 @@
+package com.retailx.orders.model;
+
+import java.util.List;
+
+/**
+ * Batch Status Update Result Model
+ * 
+ * Outcome of one entry of a PATCH /orders/status request. Results are returned
+ * in the order of the submitted entries, and {@code index} is the zero-based
+ * position of the entry in the batch. {@code status} and {@code version} are the
+ * order's after the entry was processed (unchanged unless it was APPLIED).
+ */
+public class BatchStatusUpdateResult {
+    
+    public enum Outcome {
+        /** The status was changed. */
+        APPLIED,
+        /** The entry failed validation; {@code errors} lists why. */
+        REJECTED,
+        /** No order with the given ID exists. */
+        NOT_FOUND,
+        /** The order's current status does not allow the change. */
+        INVALID_TRANSITION,
+        /** The order changed since the expected version. */
+        CONFLICT,
+        /** The instance owning the order could not be reached; the entry may be retried. */
+        UNAVAILABLE
+    }
+    
+    private int index;
+    private String orderId;
+    private Outcome outcome;
+    private OrderResponse.OrderStatus status;
+    private Long version;
+    private List<String> errors;
+    
+    public BatchStatusUpdateResult() {}
+    
+    public BatchStatusUpdateResult(int index, String orderId, Outcome outcome, OrderResponse.OrderStatus status,
+                                   Long version, List<String> errors) {
+        this.index = index;
+        this.orderId = orderId;
+        this.outcome = outcome;
+        this.status = status;
+        this.version = version;
+        this.errors = errors;
+    }
+    
+    public static BatchStatusUpdateResult of(int index, String orderId, Outcome outcome, OrderResponse order) {
+        return order == null
+            ? new BatchStatusUpdateResult(index, orderId, outcome, null, null, List.of())
+            : new BatchStatusUpdateResult(index, orderId, outcome, order.getStatus(), order.getVersion(), List.of());
+    }
+    
+    public static BatchStatusUpdateResult rejected(int index, String orderId, List<String> errors) {
+        return new BatchStatusUpdateResult(index, orderId, Outcome.REJECTED, null, null, errors);
+    }
+    
+    public static BatchStatusUpdateResult unavailable(int index, String orderId, String error) {
+        return new BatchStatusUpdateResult(index, orderId, Outcome.UNAVAILABLE, null, null, List.of(error));
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+    
+    public OrderResponse.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderResponse.OrderStatus status) {
+        this.status = status;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public List<String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
@@ -12,7 +12,6 @@ import java.util.List;
  * Represents a request to create a new order in the RetailX system.
  * 
  * TODOs:
- * - [ ] Add support for promotional codes (RETAILX-8010)
  * - [ ] Add delivery address validation (RETAILX-8011)
  * - [ ] Add payment method validation (RETAILX-8012)
  * - [ ] Support for subscription orders (RETAILX-8013)
@@ -27,8 +26,10 @@ public class CreateOrderRequest {
     
     private String deliveryAddress;
     
+    // Optional; applied by the promotion engine (RETAILX-8010)
+    private String promotionCode;
+    
     // TODO: Add payment method field (RETAILX-8012)
-    // TODO: Add promotional code field (RETAILX-8010)
     
     public CreateOrderRequest() {}
     
@@ -63,6 +64,14 @@ public class CreateOrderRequest {
         this.deliveryAddress = deliveryAddress;
     }
     
+    public String getPromotionCode() {
+        return promotionCode;
+    }
+    
+    public void setPromotionCode(String promotionCode) {
+        this.promotionCode = promotionCode;
+    }
+    
     /**
      * Order Item nested class
      * 
@@ -1,33 +1,74 @@
 package com.retailx.orders.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.hibernate.annotations.BatchSize;
+import org.springframework.data.domain.Persistable;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Order Entity
+ * 
+ * Persistent form of an order, used by the jpa persistence mode.
+ * 
+ * Order IDs are assigned by the service, so the entity implements
+ * {@link Persistable} to tell Spring Data whether it is new: saving a new order
+ * is a plain (batchable) INSERT instead of a SELECT followed by an INSERT.
+ * 
+ * Items are {@link OrderLine}s in their own table, loaded lazily in batches: the
+ * first access to the lines of one order loads the lines of every order fetched
+ * in the same session (up to a full page of 1000), so a page of orders costs one
+ * query for the orders and one for all their lines instead of one per order.
+ * Single-order lookups fetch the lines with a join instead
+ * ({@link com.retailx.orders.repository.OrderRepository#findById}).
+ */
 @Entity
-@Table(name = "orders")
-public class Order {
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at", columnList = "createdAt, orderId"),
+    @Index(name = "idx_orders_customer_created_at", columnList = "customerEmail, createdAt"),
+    @Index(name = "idx_orders_status_created_at", columnList = "status, createdAt")
+})
+public class Order implements Persistable<String> {
 
     @Id
     private String orderId;
     private String customerEmail;
     @ElementCollection
-    private List<CreateOrderRequest.OrderItem> items;
+    @CollectionTable(name = "order_lines", joinColumns = @JoinColumn(name = "order_id"))
+    @OrderColumn(name = "line_number")
+    @BatchSize(size = 1000)
+    private List<OrderLine> items;
     private String deliveryAddress;
     private BigDecimal totalAmount;
+    @Enumerated(EnumType.STRING)
     private OrderResponse.OrderStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Nullable for rows written before orders had versions
+    private Long version;
+
+    @Transient
+    private boolean isNew = true;
 
     public Order() {}
 
-    public Order(String orderId, String customerEmail, List<CreateOrderRequest.OrderItem> items,
+    public Order(String orderId, String customerEmail, List<OrderLine> items,
                  String deliveryAddress, BigDecimal totalAmount, OrderResponse.OrderStatus status,
-                 LocalDateTime createdAt, LocalDateTime updatedAt) {
+                 LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
         this.orderId = orderId;
         this.customerEmail = customerEmail;
         this.items = items;
@@ -36,6 +77,7 @@ public class Order {
         this.status = status;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     // Getters and Setters
@@ -55,11 +97,11 @@ public class Order {
         this.customerEmail = customerEmail;
     }
 
-    public List<CreateOrderRequest.OrderItem> getItems() {
+    public List<OrderLine> getItems() {
         return items;
     }
 
-    public void setItems(List<CreateOrderRequest.OrderItem> items) {
+    public void setItems(List<OrderLine> items) {
         this.items = items;
     }
 
@@ -102,4 +144,36 @@ public class Order {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public String getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    /**
+     * Marks an order that already exists in the database, so that saving it
+     * updates the row instead of inserting a new one.
+     */
+    public void markNotNew() {
+        this.isNew = false;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.isNew = false;
+    }
 }
@@ -0,0 +1,63 @@
+package com.retailx.orders.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.math.BigDecimal;
+
+/**
+ * Order Line
+ * 
+ * Persistent form of one item of an {@link Order}, stored in the order_lines table.
+ * 
+ * Kept separate from {@link CreateOrderRequest.OrderItem} so the request model
+ * can change without changing the database schema.
+ */
+@Embeddable
+public class OrderLine {
+
+    @Column(nullable = false)
+    private String productId;
+    private Integer quantity;
+    private BigDecimal unitPrice;
+
+    public OrderLine() {}
+
+    public OrderLine(String productId, Integer quantity, BigDecimal unitPrice) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+    }
+
+    public static OrderLine from(CreateOrderRequest.OrderItem item) {
+        return new OrderLine(item.getProductId(), item.getQuantity(), item.getPrice());
+    }
+
+    public CreateOrderRequest.OrderItem toOrderItem() {
+        return new CreateOrderRequest.OrderItem(productId, quantity, unitPrice);
+    }
+
+    // Getters and Setters
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
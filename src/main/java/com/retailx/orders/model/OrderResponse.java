@@ -9,6 +9,9 @@ import java.util.List;
  * 
  * Represents an order in the RetailX system with all its details.
  * 
+ * {@code version} starts at 1 and increases by one with every change, so a
+ * client can make a change conditional on the version it last read.
+ * 
  * TODOs:
  * - [ ] Add tracking information (RETAILX-8015)
  * - [ ] Add estimated delivery date (RETAILX-8016)
@@ -25,6 +28,7 @@ public class OrderResponse {
     private OrderStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long version = 1;
     
     // TODO: Add tracking number field (RETAILX-8015)
     // TODO: Add estimated delivery date (RETAILX-8016)
@@ -45,6 +49,13 @@ public class OrderResponse {
         this.updatedAt = updatedAt;
     }
     
+    public OrderResponse(String orderId, String customerEmail, List<CreateOrderRequest.OrderItem> items,
+                        String deliveryAddress, BigDecimal totalAmount, OrderStatus status,
+                        LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+        this(orderId, customerEmail, items, deliveryAddress, totalAmount, status, createdAt, updatedAt);
+        this.version = version;
+    }
+    
     // Getters and Setters
     public String getOrderId() {
         return orderId;
@@ -110,21 +121,47 @@ public class OrderResponse {
         this.updatedAt = updatedAt;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns a copy of this order with the given status and update time and
+     * the next version.
+     *
+     * Used by the order store to apply status changes without mutating a
+     * snapshot that other request threads may be reading.
+     */
+    public OrderResponse withStatus(OrderStatus newStatus, LocalDateTime newUpdatedAt) {
+        return withStatus(newStatus, newUpdatedAt, version + 1);
+    }
+
+    /**
+     * Returns a copy of this order with the given status, update time and version.
+     */
+    public OrderResponse withStatus(OrderStatus newStatus, LocalDateTime newUpdatedAt, long newVersion) {
+        return new OrderResponse(orderId, customerEmail, items, deliveryAddress,
+            totalAmount, newStatus, createdAt, newUpdatedAt, newVersion);
+    }
+
     /**
      * Order Status Enum
      * 
      * Represents the current status of an order in the fulfillment process.
-     * 
-     * TODOs:
-     * - [ ] Add more granular statuses (RETAILX-8019)
-     * - [ ] Add status transition validation (RETAILX-8020)
+     * The allowed changes between statuses are defined by
+     * {@link com.retailx.orders.status.OrderStatusTransitions}.
      */
     public enum OrderStatus {
         PENDING,        // Order created, awaiting payment
         CONFIRMED,      // Payment confirmed, processing
         SHIPPED,        // Order shipped to customer
         DELIVERED,      // Order delivered successfully
-        CANCELLED       // Order cancelled
-        // TODO: Add REFUNDED, RETURNED statuses (RETAILX-8019)
+        CANCELLED,      // Order cancelled
+        RETURNED,       // Order returned by the customer
+        REFUNDED        // Payment refunded to the customer
     }
 }
@@ -0,0 +1,54 @@
+package com.retailx.orders.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Order Status Update Model
+ * 
+ * One entry of a PATCH /orders/status batch: the order to change, its new
+ * status and, optionally, the version the change is based on.
+ */
+public class OrderStatusUpdate {
+    
+    @NotBlank(message = "Order ID is required")
+    private String orderId;
+    
+    @NotNull(message = "Status is required")
+    private OrderResponse.OrderStatus status;
+    
+    private Long expectedVersion;
+    
+    public OrderStatusUpdate() {}
+    
+    public OrderStatusUpdate(String orderId, OrderResponse.OrderStatus status, Long expectedVersion) {
+        this.orderId = orderId;
+        this.status = status;
+        this.expectedVersion = expectedVersion;
+    }
+    
+    // Getters and Setters
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+    
+    public OrderResponse.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderResponse.OrderStatus status) {
+        this.status = status;
+    }
+    
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+    
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+}
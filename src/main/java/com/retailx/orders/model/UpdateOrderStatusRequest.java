@@ -0,0 +1,41 @@
+package com.retailx.orders.model;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Update Order Status Request Model
+ * 
+ * Body of PUT /orders/{id}/status. {@code expectedVersion} is optional: when
+ * given, the change is applied only if the order is still at that version.
+ */
+public class UpdateOrderStatusRequest {
+    
+    @NotNull(message = "Status is required")
+    private OrderResponse.OrderStatus status;
+    
+    private Long expectedVersion;
+    
+    public UpdateOrderStatusRequest() {}
+    
+    public UpdateOrderStatusRequest(OrderResponse.OrderStatus status, Long expectedVersion) {
+        this.status = status;
+        this.expectedVersion = expectedVersion;
+    }
+    
+    // Getters and Setters
+    public OrderResponse.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OrderResponse.OrderStatus status) {
+        this.status = status;
+    }
+    
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+    
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+}
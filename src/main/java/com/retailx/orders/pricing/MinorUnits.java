@@ -0,0 +1,63 @@
+package com.retailx.orders.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Minor Units
+ * 
+ * Conversions and rounding for amounts held as a {@code long} count of minor
+ * currency units (cents). Pricing works on minor units only; amounts are
+ * converted from and to {@link BigDecimal} at the API boundary.
+ * 
+ * ROUNDING RULES:
+ * - Prices with more than two decimals are rounded to the cent, half-even,
+ *   before they are multiplied by a quantity
+ * - Rates are applied with {@link #applyRate}, rounding the result to the cent
+ *   half-even (banker's rounding), so rounding errors do not drift in one
+ *   direction across many orders
+ * - Every operation that could overflow a {@code long} throws
+ *   {@link ArithmeticException} instead of wrapping
+ * 
+ * Orders carry no currency, so every amount is assumed to have two decimal
+ * places.
+ */
+public final class MinorUnits {
+    
+    /** Decimal places of the minor unit. */
+    public static final int SCALE = 2;
+    
+    /** Denominator of rates given in basis points (1 bp = 0.01%). */
+    public static final long BASIS_POINTS = 10_000;
+    
+    private MinorUnits() {
+    }
+    
+    /**
+     * Converts a decimal amount to minor units, rounding half-even to the cent.
+     * 
+     * @throws ArithmeticException if the amount does not fit in a {@code long}
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+    
+    /**
+     * Returns {@code amount * basisPoints / 10000}, rounded half-even to the
+     * minor unit.
+     */
+    public static long applyRate(long amount, long basisPoints) {
+        long product = Math.multiplyExact(amount, basisPoints);
+        long quotient = product / BASIS_POINTS;
+        long remainder = Math.abs(product % BASIS_POINTS);
+        long twice = remainder * 2;
+        if (twice > BASIS_POINTS || (twice == BASIS_POINTS && (quotient & 1) != 0)) {
+            quotient += product < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
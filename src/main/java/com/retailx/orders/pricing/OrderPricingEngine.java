@@ -0,0 +1,56 @@
+package com.retailx.orders.pricing;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Order Pricing Engine
+ * 
+ * Computes order totals in {@code long} minor units. Item prices are converted
+ * from {@link java.math.BigDecimal} once, when the lines are summed, and the
+ * total is converted back once at the end; everything in between, including
+ * every {@link PricingRule}, is integer arithmetic.
+ * 
+ * The subtotal is the sum of price times quantity over all items. The rules are
+ * then applied in order (discounts, shipping, tax); with no rules the total is
+ * the subtotal.
+ * 
+ * Overflow anywhere in the calculation throws {@link ArithmeticException}
+ * instead of producing a wrong total.
+ */
+@Component
+public class OrderPricingEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderPricingEngine.class);
+    
+    private final PricingRule[] rules;
+    
+    @Autowired
+    public OrderPricingEngine(ObjectProvider<PricingRule> rules) {
+        this.rules = rules.orderedStream().toArray(PricingRule[]::new);
+        logger.info("Pricing orders with {} rules", this.rules.length);
+    }
+    
+    public PriceCalculation price(CreateOrderRequest request) {
+        List<CreateOrderRequest.OrderItem> items = request.getItems();
+        long[] lineAmounts = new long[items.size()];
+        long subtotal = 0;
+        for (int i = 0; i < lineAmounts.length; i++) {
+            CreateOrderRequest.OrderItem item = items.get(i);
+            lineAmounts[i] = Math.multiplyExact(MinorUnits.fromDecimal(item.getPrice()), (long) item.getQuantity());
+            subtotal = Math.addExact(subtotal, lineAmounts[i]);
+        }
+        
+        PriceCalculation calculation = new PriceCalculation(request, lineAmounts, subtotal);
+        for (PricingRule rule : rules) {
+            rule.apply(calculation);
+        }
+        return calculation;
+    }
+}
@@ -0,0 +1,108 @@
+package com.retailx.orders.pricing;
+
+import com.retailx.orders.model.CreateOrderRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Price Calculation
+ * 
+ * Running price of one order while it passes through the pricing rules, in
+ * minor units. The engine fills in the line amounts and the subtotal; rules add
+ * discounts, shipping and tax.
+ * 
+ * total = subtotal - discount + shipping + tax
+ * 
+ * Not thread-safe; a calculation belongs to the request being priced.
+ */
+public final class PriceCalculation {
+    
+    private final CreateOrderRequest request;
+    private final long[] lineAmounts;
+    private final long subtotal;
+    private long discount;
+    private long shipping;
+    private long tax;
+    
+    PriceCalculation(CreateOrderRequest request, long[] lineAmounts, long subtotal) {
+        this.request = request;
+        this.lineAmounts = lineAmounts;
+        this.subtotal = subtotal;
+    }
+    
+    public CreateOrderRequest getRequest() {
+        return request;
+    }
+    
+    public List<CreateOrderRequest.OrderItem> getItems() {
+        return request.getItems();
+    }
+    
+    /**
+     * Price times quantity of the item at {@code index}, in minor units.
+     */
+    public long getLineAmount(int index) {
+        return lineAmounts[index];
+    }
+    
+    public long getSubtotal() {
+        return subtotal;
+    }
+    
+    public long getDiscount() {
+        return discount;
+    }
+    
+    public long getShipping() {
+        return shipping;
+    }
+    
+    public long getTax() {
+        return tax;
+    }
+    
+    /**
+     * Amount discounts apply to: the subtotal less the discounts granted so far.
+     */
+    public long getDiscountedSubtotal() {
+        return subtotal - discount;
+    }
+    
+    public long getTotal() {
+        return Math.addExact(Math.addExact(subtotal - discount, shipping), tax);
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return MinorUnits.toDecimal(getTotal());
+    }
+    
+    /**
+     * Grants a discount, capped so that the discounted subtotal never goes
+     * below zero.
+     * 
+     * @return the discount actually granted
+     */
+    public long addDiscount(long amount) {
+        requireNonNegative(amount, "Discount");
+        long granted = Math.min(amount, getDiscountedSubtotal());
+        discount += granted;
+        return granted;
+    }
+    
+    public void addShipping(long amount) {
+        requireNonNegative(amount, "Shipping");
+        shipping = Math.addExact(shipping, amount);
+    }
+    
+    public void addTax(long amount) {
+        requireNonNegative(amount, "Tax");
+        tax = Math.addExact(tax, amount);
+    }
+    
+    private static void requireNonNegative(long amount, String what) {
+        if (amount < 0) {
+            throw new IllegalArgumentException(what + " must not be negative: " + amount);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.retailx.orders.pricing;
+
+/**
+ * Pricing Rule
+ * 
+ * One step of the order pricing pipeline, such as a promotion, a shipping
+ * charge or a tax. Every bean of this type is applied by
+ * {@link OrderPricingEngine} to each order, in {@code @Order} sequence; use the
+ * phase constants below so that discounts are granted before shipping and tax
+ * are computed on the discounted amount.
+ * 
+ * Rules run on the order request path: they must be fast, free of I/O and work
+ * on minor units only (see {@link MinorUnits} for rounding).
+ * 
+ * TODOs:
+ * - [ ] Add tax calculation (RETAILX-8033)
+ * - [ ] Add shipping cost calculation (RETAILX-8034)
+ */
+public interface PricingRule {
+    
+    int DISCOUNT_PHASE = 100;
+    int SHIPPING_PHASE = 200;
+    int TAX_PHASE = 300;
+    
+    void apply(PriceCalculation calculation);
+}
@@ -0,0 +1,115 @@
+package com.retailx.orders.promotion;
+
+import com.retailx.orders.pricing.MinorUnits;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A {@link PromotionDefinition} validated and converted to minor units, ready
+ * to be evaluated on the order path.
+ */
+final class CompiledPromotion {
+    
+    private static final BigDecimal MAX_PERCENT = BigDecimal.valueOf(100);
+    
+    final String id;
+    final String code;
+    final Set<String> productIds;
+    final String segment;
+    final long minSubtotal;
+    final long rateBasisPoints;
+    final long amountOff;
+    final LocalDateTime startsAt;
+    final LocalDateTime endsAt;
+    
+    private CompiledPromotion(PromotionDefinition definition, String code, Set<String> productIds,
+                              long rateBasisPoints, long amountOff) {
+        this.id = definition.getId();
+        this.code = code;
+        this.productIds = productIds;
+        this.segment = definition.getSegment();
+        this.minSubtotal = definition.getMinSubtotal() == null ? 0 : MinorUnits.fromDecimal(definition.getMinSubtotal());
+        this.rateBasisPoints = rateBasisPoints;
+        this.amountOff = amountOff;
+        this.startsAt = definition.getStartsAt();
+        this.endsAt = definition.getEndsAt();
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the definition is invalid
+     */
+    static CompiledPromotion compile(PromotionDefinition definition) {
+        if (definition.getId() == null || definition.getId().isBlank()) {
+            throw new IllegalArgumentException("Promotion without id");
+        }
+        BigDecimal percentOff = definition.getPercentOff();
+        BigDecimal amountOff = definition.getAmountOff();
+        if ((percentOff == null) == (amountOff == null)) {
+            throw new IllegalArgumentException("Promotion " + definition.getId()
+                + " must set exactly one of percentOff and amountOff");
+        }
+        if (percentOff != null && (percentOff.signum() <= 0 || percentOff.compareTo(MAX_PERCENT) > 0)) {
+            throw new IllegalArgumentException("Promotion " + definition.getId() + " percentOff must be in (0, 100]");
+        }
+        if (amountOff != null && amountOff.signum() <= 0) {
+            throw new IllegalArgumentException("Promotion " + definition.getId() + " amountOff must be positive");
+        }
+        if (definition.getProductIds() != null && definition.getProductIds().isEmpty()) {
+            throw new IllegalArgumentException("Promotion " + definition.getId() + " has an empty productIds list");
+        }
+        
+        // percentOff has at most two decimals in basis points, e.g. 12.5% -> 1250 bp
+        long rate = percentOff == null ? 0 : MinorUnits.fromDecimal(percentOff);
+        long amount = amountOff == null ? 0 : MinorUnits.fromDecimal(amountOff);
+        String code = definition.getCode() == null ? null : normalizeCode(definition.getCode());
+        Set<String> productIds = definition.getProductIds() == null ? null : Set.copyOf(definition.getProductIds());
+        return new CompiledPromotion(definition, code, productIds, rate, amount);
+    }
+    
+    static String normalizeCode(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    boolean isProductPromotion() {
+        return productIds != null;
+    }
+    
+    boolean isOver(LocalDateTime now) {
+        return endsAt != null && !now.isBefore(endsAt);
+    }
+    
+    /**
+     * Whether the promotion applies to an order with the given subtotal, placed
+     * now by a customer in the given segments. The code and products are
+     * matched by the index lookup that found the promotion.
+     */
+    boolean isEligible(LocalDateTime now, String[] customerSegments, long subtotal) {
+        if (subtotal < minSubtotal || isOver(now) || (startsAt != null && now.isBefore(startsAt))) {
+            return false;
+        }
+        if (segment == null) {
+            return true;
+        }
+        for (String customerSegment : customerSegments) {
+            if (segment.equals(customerSegment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    long lineDiscount(long lineAmount, int quantity) {
+        long discount = rateBasisPoints > 0
+            ? MinorUnits.applyRate(lineAmount, rateBasisPoints)
+            : Math.multiplyExact(amountOff, (long) quantity);
+        return Math.min(discount, lineAmount);
+    }
+    
+    long orderDiscount(long amount) {
+        long discount = rateBasisPoints > 0 ? MinorUnits.applyRate(amount, rateBasisPoints) : amountOff;
+        return Math.min(discount, amount);
+    }
+}
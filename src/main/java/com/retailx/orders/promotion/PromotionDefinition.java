@@ -0,0 +1,109 @@
+package com.retailx.orders.promotion;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Promotion Definition
+ * 
+ * One promotion as written in the promotions file. All conditions are
+ * optional and combined with AND:
+ * - code - the order must carry this promotion code (case-insensitive)
+ * - productIds - the discount applies to lines of these products only;
+ *   without it the discount applies to the whole order
+ * - segment - the customer must belong to this segment of the rule set
+ * - minSubtotal - the order's item subtotal must be at least this amount
+ * - startsAt / endsAt - active from startsAt (inclusive) to endsAt (exclusive)
+ * 
+ * Exactly one of percentOff (e.g. 12.5 for 12.5%) or amountOff must be set.
+ * For product promotions amountOff is taken off every unit; for order
+ * promotions it is taken off the order once.
+ */
+public class PromotionDefinition {
+    
+    private String id;
+    private String code;
+    private List<String> productIds;
+    private String segment;
+    private BigDecimal minSubtotal;
+    private BigDecimal percentOff;
+    private BigDecimal amountOff;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    
+    public PromotionDefinition() {}
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public void setCode(String code) {
+        this.code = code;
+    }
+    
+    public List<String> getProductIds() {
+        return productIds;
+    }
+    
+    public void setProductIds(List<String> productIds) {
+        this.productIds = productIds;
+    }
+    
+    public String getSegment() {
+        return segment;
+    }
+    
+    public void setSegment(String segment) {
+        this.segment = segment;
+    }
+    
+    public BigDecimal getMinSubtotal() {
+        return minSubtotal;
+    }
+    
+    public void setMinSubtotal(BigDecimal minSubtotal) {
+        this.minSubtotal = minSubtotal;
+    }
+    
+    public BigDecimal getPercentOff() {
+        return percentOff;
+    }
+    
+    public void setPercentOff(BigDecimal percentOff) {
+        this.percentOff = percentOff;
+    }
+    
+    public BigDecimal getAmountOff() {
+        return amountOff;
+    }
+    
+    public void setAmountOff(BigDecimal amountOff) {
+        this.amountOff = amountOff;
+    }
+    
+    public LocalDateTime getStartsAt() {
+        return startsAt;
+    }
+    
+    public void setStartsAt(LocalDateTime startsAt) {
+        this.startsAt = startsAt;
+    }
+    
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+    
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+}
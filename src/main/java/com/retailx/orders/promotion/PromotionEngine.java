@@ -0,0 +1,223 @@
+package com.retailx.orders.promotion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.pricing.PriceCalculation;
+import com.retailx.orders.pricing.PricingRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promotion Engine
+ * 
+ * Applies promotions to orders as the discount step of the pricing pipeline
+ * (RETAILX-8010).
+ * 
+ * Promotions are read from a JSON {@link PromotionRuleSet} file and compiled
+ * into a {@link PromotionIndex} by code, product ID and customer segment, so
+ * pricing an order looks up only the promotions filed under its code, its
+ * customer's segments and its lines' products; the cost grows with the order,
+ * not with the number of promotions.
+ * 
+ * Discounts:
+ * - each line gets the largest discount of the product promotions that apply
+ *   to it
+ * - the order then gets the largest discount of the order promotions that
+ *   apply to it, computed on the subtotal after line discounts
+ * A promotion code that matches no active promotion is ignored.
+ * 
+ * The file is checked for changes every {@code reload-interval-ms}. A changed
+ * file is compiled on the reload thread and the new index replaces the old one
+ * with a single volatile write, so pricing never waits for a reload and every
+ * order is priced against one consistent rule set. A file that fails to parse
+ * or compile is logged and the previous rules stay active; a missing file means
+ * no promotions.
+ * 
+ * METRICS:
+ * - retailx.orders.promotions.active - promotions in the current index
+ * - retailx.orders.promotions.reloads - tagged with result (success, failure)
+ */
+@Component
+@Order(PricingRule.DISCOUNT_PHASE)
+public class PromotionEngine implements PricingRule {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PromotionEngine.class);
+    
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final ScheduledExecutorService reloadScheduler;
+    
+    private final Counter reloadedCounter;
+    private final Counter reloadFailedCounter;
+    
+    private volatile PromotionIndex index = PromotionIndex.EMPTY;
+    
+    // Written only by the reload thread (and the constructor before it starts)
+    private String loadedVersion;
+    
+    @Autowired
+    public PromotionEngine(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.promotions.file:config/promotions.json}") String file,
+            @Value("${retailx.orders.promotions.reload-interval-ms:10000}") long reloadIntervalMs) {
+        this.objectMapper = objectMapper;
+        this.file = Paths.get(file);
+        
+        Gauge.builder("retailx.orders.promotions.active", this, engine -> engine.index.size())
+            .description("Promotions in the current index")
+            .register(meterRegistry);
+        this.reloadedCounter = reloadCounter(meterRegistry, "success");
+        this.reloadFailedCounter = reloadCounter(meterRegistry, "failure");
+        
+        reloadIfChanged();
+        if (loadedVersion == null) {
+            logger.info("No promotions file at {}, no promotions active", file);
+        }
+        
+        this.reloadScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "promotion-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloadScheduler.scheduleWithFixedDelay(this::reloadIfChanged,
+            reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void apply(PriceCalculation calculation) {
+        PromotionIndex current = index;
+        if (current.size() == 0) {
+            return;
+        }
+        
+        CreateOrderRequest request = calculation.getRequest();
+        LocalDateTime now = LocalDateTime.now();
+        long subtotal = calculation.getSubtotal();
+        String[] segments = current.segmentsOf(request.getCustomerEmail());
+        List<CompiledPromotion> coded = request.getPromotionCode() == null
+            ? List.of()
+            : current.byCode(CompiledPromotion.normalizeCode(request.getPromotionCode()));
+        
+        long lineDiscounts = 0;
+        List<CreateOrderRequest.OrderItem> items = calculation.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            CreateOrderRequest.OrderItem item = items.get(i);
+            long lineAmount = calculation.getLineAmount(i);
+            long best = bestLineDiscount(current.byProduct(item.getProductId()), item, lineAmount,
+                now, segments, subtotal, 0);
+            best = bestLineDiscount(coded, item, lineAmount, now, segments, subtotal, best);
+            lineDiscounts += best;
+        }
+        if (lineDiscounts > 0) {
+            calculation.addDiscount(lineDiscounts);
+        }
+        
+        long remaining = calculation.getDiscountedSubtotal();
+        long best = bestOrderDiscount(current.global(), remaining, now, segments, subtotal, 0);
+        for (String segment : segments) {
+            best = bestOrderDiscount(current.bySegment(segment), remaining, now, segments, subtotal, best);
+        }
+        best = bestOrderDiscount(coded, remaining, now, segments, subtotal, best);
+        if (best > 0) {
+            calculation.addDiscount(best);
+        }
+    }
+    
+    /**
+     * Promotions in the current index.
+     */
+    public int size() {
+        return index.size();
+    }
+    
+    @PreDestroy
+    void stop() {
+        reloadScheduler.shutdownNow();
+    }
+    
+    private static long bestLineDiscount(List<CompiledPromotion> promotions, CreateOrderRequest.OrderItem item,
+                                         long lineAmount, LocalDateTime now, String[] segments, long subtotal,
+                                         long best) {
+        for (CompiledPromotion promotion : promotions) {
+            if (promotion.isProductPromotion() && promotion.productIds.contains(item.getProductId())
+                    && promotion.isEligible(now, segments, subtotal)) {
+                best = Math.max(best, promotion.lineDiscount(lineAmount, item.getQuantity()));
+            }
+        }
+        return best;
+    }
+    
+    private static long bestOrderDiscount(List<CompiledPromotion> promotions, long amount, LocalDateTime now,
+                                          String[] segments, long subtotal, long best) {
+        for (CompiledPromotion promotion : promotions) {
+            if (!promotion.isProductPromotion() && promotion.isEligible(now, segments, subtotal)) {
+                best = Math.max(best, promotion.orderDiscount(amount));
+            }
+        }
+        return best;
+    }
+    
+    private void reloadIfChanged() {
+        String version;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            version = attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+        } catch (NoSuchFileException e) {
+            version = null;
+        } catch (IOException e) {
+            logger.warn("Cannot check promotions file {}: {}", file, e.getMessage());
+            return;
+        }
+        if (Objects.equals(version, loadedVersion)) {
+            return;
+        }
+        
+        if (version == null) {
+            index = PromotionIndex.EMPTY;
+            loadedVersion = null;
+            logger.info("No promotions file at {}, no promotions active", file);
+            return;
+        }
+        try {
+            PromotionRuleSet ruleSet = objectMapper.readValue(file.toFile(), PromotionRuleSet.class);
+            PromotionIndex compiled = PromotionIndex.compile(ruleSet, LocalDateTime.now());
+            index = compiled;
+            reloadedCounter.increment();
+            logger.info("Loaded {} active promotions from {}", compiled.size(), file);
+        } catch (IOException | RuntimeException e) {
+            reloadFailedCounter.increment();
+            logger.error("Failed to load promotions from {}, keeping the previous {} promotions", file, index.size(), e);
+        }
+        // A failed file is not retried until it changes again
+        loadedVersion = version;
+    }
+    
+    private static Counter reloadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("retailx.orders.promotions.reloads")
+            .tag("result", result)
+            .description("Promotion file reloads")
+            .register(meterRegistry);
+    }
+}
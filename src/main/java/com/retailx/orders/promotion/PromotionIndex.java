@@ -0,0 +1,148 @@
+package com.retailx.orders.promotion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure compiled from a {@link PromotionRuleSet}.
+ * 
+ * Every promotion is filed under exactly one key, so an order only visits the
+ * promotions that can apply to it:
+ * - promotions with a code, by code
+ * - product promotions without a code, by product ID
+ * - order promotions without a code, by segment, or in the global list when
+ *   they have no segment
+ * 
+ * Instances are never modified after {@link #compile}, so they can be read by
+ * any number of request threads while a reload builds the next one.
+ */
+final class PromotionIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndex.class);
+    
+    private static final String[] NO_SEGMENTS = new String[0];
+    
+    static final PromotionIndex EMPTY = new PromotionIndex(Map.of(), Map.of(), Map.of(), List.of(), Map.of(), 0);
+    
+    private final Map<String, List<CompiledPromotion>> byCode;
+    private final Map<String, List<CompiledPromotion>> byProduct;
+    private final Map<String, List<CompiledPromotion>> bySegment;
+    private final List<CompiledPromotion> global;
+    private final Map<String, String[]> segmentsByCustomer;
+    private final int size;
+    
+    private PromotionIndex(Map<String, List<CompiledPromotion>> byCode,
+                           Map<String, List<CompiledPromotion>> byProduct,
+                           Map<String, List<CompiledPromotion>> bySegment,
+                           List<CompiledPromotion> global,
+                           Map<String, String[]> segmentsByCustomer,
+                           int size) {
+        this.byCode = byCode;
+        this.byProduct = byProduct;
+        this.bySegment = bySegment;
+        this.global = global;
+        this.segmentsByCustomer = segmentsByCustomer;
+        this.size = size;
+    }
+    
+    /**
+     * Compiles the rule set, leaving out promotions that are already over.
+     * 
+     * @throws IllegalArgumentException if a promotion is invalid or an ID is used twice
+     */
+    static PromotionIndex compile(PromotionRuleSet ruleSet, LocalDateTime now) {
+        Map<String, List<CompiledPromotion>> byCode = new HashMap<>();
+        Map<String, List<CompiledPromotion>> byProduct = new HashMap<>();
+        Map<String, List<CompiledPromotion>> bySegment = new HashMap<>();
+        List<CompiledPromotion> global = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        int size = 0;
+        
+        List<PromotionDefinition> definitions = ruleSet.getPromotions() == null ? List.of() : ruleSet.getPromotions();
+        for (PromotionDefinition definition : definitions) {
+            CompiledPromotion promotion = CompiledPromotion.compile(definition);
+            if (!ids.add(promotion.id)) {
+                throw new IllegalArgumentException("Duplicate promotion id " + promotion.id);
+            }
+            if (promotion.isOver(now)) {
+                continue;
+            }
+            if (promotion.segment != null && (ruleSet.getSegments() == null
+                    || !ruleSet.getSegments().containsKey(promotion.segment))) {
+                logger.warn("Promotion {} targets unknown segment {}", promotion.id, promotion.segment);
+            }
+            if (promotion.code != null) {
+                byCode.computeIfAbsent(promotion.code, code -> new ArrayList<>()).add(promotion);
+            } else if (promotion.isProductPromotion()) {
+                for (String productId : promotion.productIds) {
+                    byProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(promotion);
+                }
+            } else if (promotion.segment != null) {
+                bySegment.computeIfAbsent(promotion.segment, segment -> new ArrayList<>()).add(promotion);
+            } else {
+                global.add(promotion);
+            }
+            size++;
+        }
+        
+        Map<String, List<String>> customerSegments = new HashMap<>();
+        if (ruleSet.getSegments() != null) {
+            ruleSet.getSegments().forEach((segment, emails) -> {
+                for (String email : emails == null ? List.<String>of() : emails) {
+                    customerSegments.computeIfAbsent(normalizeEmail(email), e -> new ArrayList<>()).add(segment);
+                }
+            });
+        }
+        Map<String, String[]> segmentsByCustomer = new HashMap<>();
+        customerSegments.forEach((email, segments) -> segmentsByCustomer.put(email, segments.toArray(NO_SEGMENTS)));
+        
+        return new PromotionIndex(freeze(byCode), freeze(byProduct), freeze(bySegment), List.copyOf(global),
+            Map.copyOf(segmentsByCustomer), size);
+    }
+    
+    List<CompiledPromotion> byCode(String normalizedCode) {
+        return byCode.getOrDefault(normalizedCode, List.of());
+    }
+    
+    List<CompiledPromotion> byProduct(String productId) {
+        return byProduct.getOrDefault(productId, List.of());
+    }
+    
+    List<CompiledPromotion> bySegment(String segment) {
+        return bySegment.getOrDefault(segment, List.of());
+    }
+    
+    List<CompiledPromotion> global() {
+        return global;
+    }
+    
+    String[] segmentsOf(String customerEmail) {
+        if (customerEmail == null || segmentsByCustomer.isEmpty()) {
+            return NO_SEGMENTS;
+        }
+        return segmentsByCustomer.getOrDefault(normalizeEmail(customerEmail), NO_SEGMENTS);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static Map<String, List<CompiledPromotion>> freeze(Map<String, List<CompiledPromotion>> index) {
+        Map<String, List<CompiledPromotion>> frozen = new HashMap<>();
+        index.forEach((key, promotions) -> frozen.put(key, List.copyOf(promotions)));
+        return Map.copyOf(frozen);
+    }
+}
@@ -0,0 +1,45 @@
+package com.retailx.orders.promotion;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Promotion Rule Set
+ * 
+ * Contents of the promotions file: the promotions, and the customer segments
+ * they can target, as lists of customer emails by segment name.
+ * 
+ * <pre>
+ * {
+ *   "segments": { "vip": ["customer@example.com"] },
+ *   "promotions": [
+ *     { "id": "spring-10", "code": "SPRING10", "percentOff": 10 },
+ *     { "id": "vip-shoes", "segment": "vip", "productIds": ["PROD-123"], "amountOff": 5.00 }
+ *   ]
+ * }
+ * </pre>
+ */
+public class PromotionRuleSet {
+    
+    private Map<String, List<String>> segments;
+    private List<PromotionDefinition> promotions;
+    
+    public PromotionRuleSet() {}
+    
+    // Getters and Setters
+    public Map<String, List<String>> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(Map<String, List<String>> segments) {
+        this.segments = segments;
+    }
+    
+    public List<PromotionDefinition> getPromotions() {
+        return promotions;
+    }
+    
+    public void setPromotions(List<PromotionDefinition> promotions) {
+        this.promotions = promotions;
+    }
+}
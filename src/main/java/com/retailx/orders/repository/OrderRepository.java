@@ -1,9 +1,20 @@
 package com.retailx.orders.repository;
 
 import com.retailx.orders.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order> {
+
+    /**
+     * Loads an order together with its lines in a single query.
+     */
+    @Override
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findById(String orderId);
 }
@@ -1,8 +1,24 @@
 package com.retailx.orders.service;
 
-import com.retailx.orders.client.NotificationClient;
+import com.retailx.orders.cache.OrderCache;
+import com.retailx.orders.client.NotificationDispatcher;
+import com.retailx.orders.client.NotificationMessage;
+import com.retailx.orders.cluster.OrderRouter;
+import com.retailx.orders.events.OrderEventHub;
+import com.retailx.orders.id.OrderIdGenerator;
+import com.retailx.orders.model.BatchOrderResult;
+import com.retailx.orders.model.BatchStatusUpdateResult;
 import com.retailx.orders.model.CreateOrderRequest;
 import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.pricing.OrderPricingEngine;
+import com.retailx.orders.status.OrderStatusMachine;
+import com.retailx.orders.status.StatusTransitionResult;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+import com.retailx.orders.store.OrderStore;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +26,10 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Order Service
@@ -21,13 +38,11 @@ import java.util.UUID;
  * Integrates with the notification service for customer communications.
  * 
  * INTEGRATION DEPENDENCIES:
- * - NotificationClient -> foo-legacy-notifications-api
+ * - NotificationDispatcher -> NotificationClient -> foo-legacy-notifications-api
  * 
  * TODOs:
- * - [ ] Replace in-memory storage with database (RETAILX-8003)
  * - [ ] Add inventory validation (RETAILX-8030)
  * - [ ] Add payment processing integration (RETAILX-8031)
- * - [ ] Add order status workflow validation (RETAILX-8020)
  * - [ ] Implement order cancellation logic (RETAILX-8032)
  */
 @Service
@@ -35,14 +50,39 @@ public class OrderService {
     
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
     
-    // TODO: Replace with proper database storage (RETAILX-8003)
-    private final Map<String, OrderResponse> orderStore = new HashMap<>();
+    // Selected by retailx.orders.persistence.mode (memory, wal or jpa)
+    private final OrderStore orderStore;
     
-    private final NotificationClient notificationClient;
+    private final OrderCache orderCache;
+    
+    private final OrderEventHub orderEventHub;
+    
+    private final NotificationDispatcher notificationDispatcher;
+    
+    private final OrderIdGenerator orderIdGenerator;
+    
+    private final OrderRouter orderRouter;
+    
+    private final OrderPricingEngine pricingEngine;
+    
+    private final OrderStatusMachine statusMachine;
+    
+    private final Validator validator;
     
     @Autowired
-    public OrderService(NotificationClient notificationClient) {
-        this.notificationClient = notificationClient;
+    public OrderService(OrderStore orderStore, OrderCache orderCache, OrderEventHub orderEventHub,
+                        NotificationDispatcher notificationDispatcher, OrderIdGenerator orderIdGenerator,
+                        OrderRouter orderRouter, OrderPricingEngine pricingEngine,
+                        OrderStatusMachine statusMachine, Validator validator) {
+        this.orderStore = orderStore;
+        this.orderCache = orderCache;
+        this.orderEventHub = orderEventHub;
+        this.notificationDispatcher = notificationDispatcher;
+        this.orderIdGenerator = orderIdGenerator;
+        this.orderRouter = orderRouter;
+        this.pricingEngine = pricingEngine;
+        this.statusMachine = statusMachine;
+        this.validator = validator;
     }
     
     /**
@@ -57,59 +97,126 @@ public class OrderService {
     public OrderResponse createOrder(CreateOrderRequest request) {
         logger.info("Creating new order for customer: {}", request.getCustomerEmail());
         
-        // Generate unique order ID
-        String orderId = "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
         // TODO: Validate inventory availability (RETAILX-8030)
         // TODO: Process payment (RETAILX-8031)
         
         // Calculate total amount
         BigDecimal totalAmount = calculateTotalAmount(request);
+        LocalDateTime now = LocalDateTime.now();
         
-        // Create order response
-        OrderResponse order = new OrderResponse(
-            orderId,
-            request.getCustomerEmail(),
-            request.getItems(),
-            request.getDeliveryAddress(),
-            totalAmount,
-            OrderResponse.OrderStatus.PENDING,
-            LocalDateTime.now(),
-            LocalDateTime.now()
-        );
-        
-        // Store order (TODO: use database instead of in-memory storage)
-        orderStore.put(orderId, order);
+        OrderResponse order = insertWithFreshId(request, totalAmount, now);
+        String orderId = order.getOrderId();
         
         logger.info("Order created successfully: {}", orderId);
         
-        // Send order confirmation notification via notification service
-        try {
-            notificationClient.sendOrderConfirmationNotification(
-                request.getCustomerEmail(), 
-                orderId
-            );
-            logger.info("Order confirmation notification sent for order: {}", orderId);
-        } catch (Exception e) {
-            // TODO: Implement proper error handling and retry logic (RETAILX-8022)
-            logger.error("Failed to send order confirmation notification for order: {}", orderId, e);
-            // Note: We don't fail the order creation if notification fails
+        // Queue order confirmation notification; it is sent asynchronously so the
+        // notification service round trip is not part of the order's latency.
+        // Note: We don't fail the order creation if the notification is dropped
+        if (notificationDispatcher.enqueue(NotificationMessage.orderConfirmation(request.getCustomerEmail(), orderId))) {
+            logger.debug("Order confirmation notification queued for order: {}", orderId);
         }
         
-        // TODO: Publish order created event to message queue (RETAILX-8005)
+        // The order created event was recorded in the store's outbox with the order;
+        // OutboxRelay delivers it to the event sink and the in-process event bus
         
         return order;
     }
     
     /**
-     * Retrieves an order by ID
+     * Creates a batch of orders
      * 
-     * TODO: Query from database instead of in-memory storage (RETAILX-8003)
+     * Each phase runs once over the whole batch: every request is validated and
+     * priced, all valid orders are stored with one {@link OrderStore#insertAll}
+     * call (a single log sync in WAL mode), and their confirmation notifications
+     * are queued together. An invalid request or a failure to store one order
+     * does not affect the others. If the batch insert fails, only orders it left
+     * absent are stored again; the ones it may have stored are reported as failed.
+     * 
+     * @return one result per request, in request order
+     */
+    public List<BatchOrderResult> createOrders(List<CreateOrderRequest> requests) {
+        logger.info("Creating batch of {} orders", requests.size());
+        
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        List<OrderResponse> orders = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        LocalDateTime now = LocalDateTime.now();
+        
+        for (int i = 0; i < results.length; i++) {
+            CreateOrderRequest request = requests.get(i);
+            List<String> errors = validate(request);
+            if (!errors.isEmpty()) {
+                results[i] = BatchOrderResult.rejected(i, errors);
+                continue;
+            }
+            BigDecimal totalAmount;
+            try {
+                totalAmount = calculateTotalAmount(request);
+            } catch (ArithmeticException e) {
+                results[i] = BatchOrderResult.rejected(i, List.of("Order total is out of range"));
+                continue;
+            }
+            orders.add(newOrder(nextOwnedId(), request, totalAmount, now));
+            positions.add(i);
+        }
+        
+        boolean[] inserted;
+        boolean[] unconfirmed = new boolean[orders.size()];
+        try {
+            inserted = orderStore.insertAll(orders);
+        } catch (RuntimeException e) {
+            // None of the batch is confirmed. An order visible under its ID may still
+            // not be durable, so it is reported as failed rather than as created or
+            // stored again under another ID; the others are stored one by one
+            logger.error("Batch insert of {} orders failed, storing them one by one", orders.size(), e);
+            inserted = new boolean[orders.size()];
+            for (int j = 0; j < unconfirmed.length; j++) {
+                unconfirmed[j] = orderStore.get(orders.get(j).getOrderId()) != null;
+            }
+        }
+        
+        List<NotificationMessage> notifications = new ArrayList<>(orders.size());
+        for (int j = 0; j < inserted.length; j++) {
+            int i = positions.get(j);
+            OrderResponse order = orders.get(j);
+            if (unconfirmed[j]) {
+                logger.error("Order {} of batch for customer {} may not have been stored",
+                    i, requests.get(i).getCustomerEmail());
+                results[i] = BatchOrderResult.failed(i, "Order could not be confirmed as stored");
+                continue;
+            }
+            if (!inserted[j]) {
+                try {
+                    CreateOrderRequest request = requests.get(i);
+                    order = insertWithFreshId(request, order.getTotalAmount(), now);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to create order {} of batch for customer: {}",
+                        i, requests.get(i).getCustomerEmail(), e);
+                    results[i] = BatchOrderResult.failed(i, "Order could not be stored");
+                    continue;
+                }
+            }
+            results[i] = BatchOrderResult.created(i, order);
+            notifications.add(NotificationMessage.orderConfirmation(order.getCustomerEmail(), order.getOrderId()));
+        }
+        
+        // Note: We don't fail the order creation if notifications are dropped
+        int queued = notificationDispatcher.enqueueAll(notifications);
+        logger.info("Created {} of {} orders in batch, {} confirmation notifications queued",
+            notifications.size(), requests.size(), queued);
+        
+        // Order created events are recorded in the store's outbox with the orders
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Retrieves an order by ID
      */
     public OrderResponse getOrderById(String orderId) {
         logger.info("Retrieving order: {}", orderId);
         
-        OrderResponse order = orderStore.get(orderId);
+        OrderResponse order = orderCache.get(orderId, orderStore::get);
         
         if (order == null) {
             logger.warn("Order not found: {}", orderId);
@@ -123,84 +230,244 @@ public class OrderService {
     /**
      * Updates order status and sends notification
      * 
-     * TODO: Add status transition validation (RETAILX-8020)
+     * The change is applied only if the order's current status allows it and
+     * the order is still at {@code expectedVersion} (when null, the version it
+     * has now); otherwise nothing changes and nothing is notified, and the result
+     * says why. See {@link OrderStatusMachine}.
+     * 
      * TODO: Add audit trail for status changes (RETAILX-8018)
      */
-    public OrderResponse updateOrderStatus(String orderId, OrderResponse.OrderStatus newStatus) {
+    public StatusTransitionResult updateOrderStatus(String orderId, OrderResponse.OrderStatus newStatus,
+                                                    Long expectedVersion) {
         logger.info("Updating order status: {} -> {}", orderId, newStatus);
         
-        OrderResponse order = orderStore.get(orderId);
-        if (order == null) {
-            logger.warn("Order not found for status update: {}", orderId);
-            return null;
+        StatusTransitionResult result = statusMachine.transition(orderId, newStatus, expectedVersion);
+        if (!result.isApplied()) {
+            logger.warn("Order status update {} -> {} not applied: {}", orderId, newStatus, result.getOutcome());
+            return result;
         }
+        OrderResponse order = result.getOrder();
+        orderCache.invalidate(orderId);
+        // Push the change to clients watching the order (SSE / long-poll)
+        orderEventHub.publish(order);
+        
+        logger.info("Order status updated: {} from {} to {} (version {})", orderId, result.getPreviousStatus(),
+            newStatus, order.getVersion());
         
-        // TODO: Validate status transition (RETAILX-8020)
-        OrderResponse.OrderStatus oldStatus = order.getStatus();
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
+        // Queue status update notification
+        if (notificationDispatcher.enqueue(
+                NotificationMessage.orderStatusUpdate(order.getCustomerEmail(), orderId, newStatus.toString()))) {
+            logger.debug("Order status update notification queued for order: {}", orderId);
+        }
         
-        logger.info("Order status updated: {} from {} to {}", orderId, oldStatus, newStatus);
+        // The status changed event was recorded in the store's outbox with the update
         
-        // Send status update notification
-        try {
-            notificationClient.sendOrderStatusUpdateNotification(
-                order.getCustomerEmail(),
-                orderId,
-                newStatus.toString()
-            );
-            logger.info("Order status update notification sent for order: {}", orderId);
-        } catch (Exception e) {
-            // TODO: Implement proper error handling and retry logic (RETAILX-8022)
-            logger.error("Failed to send order status update notification for order: {}", orderId, e);
+        return result;
+    }
+    
+    /**
+     * Updates the status of a batch of orders
+     * 
+     * Valid entries are applied by {@link OrderStatusMachine#transitionAll}, in
+     * parallel across partitions of the batch and with one store write per
+     * partition, under the same transition and version rules as
+     * {@link #updateOrderStatus}. The status update notifications of every
+     * applied change are queued together. An invalid or rejected entry does not
+     * affect the others.
+     * 
+     * @return one result per entry, in entry order
+     */
+    public List<BatchStatusUpdateResult> updateOrderStatuses(List<OrderStatusUpdate> updates) {
+        logger.info("Updating status of batch of {} orders", updates.size());
+        
+        BatchStatusUpdateResult[] results = new BatchStatusUpdateResult[updates.size()];
+        List<OrderStatusUpdate> valid = new ArrayList<>(updates.size());
+        List<Integer> positions = new ArrayList<>(updates.size());
+        for (int i = 0; i < results.length; i++) {
+            OrderStatusUpdate update = updates.get(i);
+            List<String> errors = new ArrayList<>();
+            if (update == null) {
+                errors.add("Status update is required");
+            } else {
+                addViolations(validator.validate(update), errors);
+            }
+            if (!errors.isEmpty()) {
+                results[i] = BatchStatusUpdateResult.rejected(i, update == null ? null : update.getOrderId(), errors);
+                continue;
+            }
+            valid.add(update);
+            positions.add(i);
         }
         
-        // TODO: Publish order status updated event to message queue (RETAILX-8005)
+        List<StatusTransitionResult> transitions = statusMachine.transitionAll(valid);
         
+        List<NotificationMessage> notifications = new ArrayList<>(valid.size());
+        for (int j = 0; j < transitions.size(); j++) {
+            int i = positions.get(j);
+            String orderId = valid.get(j).getOrderId();
+            StatusTransitionResult transition = transitions.get(j);
+            results[i] = BatchStatusUpdateResult.of(i, orderId,
+                BatchStatusUpdateResult.Outcome.valueOf(transition.getOutcome().name()), transition.getOrder());
+            if (!transition.isApplied()) {
+                logger.debug("Order status update {} -> {} not applied: {}", orderId, valid.get(j).getStatus(),
+                    transition.getOutcome());
+                continue;
+            }
+            OrderResponse order = transition.getOrder();
+            orderCache.invalidate(orderId);
+            orderEventHub.publish(order);
+            notifications.add(NotificationMessage.orderStatusUpdate(order.getCustomerEmail(), orderId,
+                order.getStatus().toString()));
+        }
+        
+        // Note: We don't fail the status updates if notifications are dropped
+        int queued = notificationDispatcher.enqueueAll(notifications);
+        logger.info("Updated status of {} of {} orders in batch, {} status update notifications queued",
+            notifications.size(), updates.size(), queued);
+        
+        // Status changed events are recorded in the store's outbox with the updates
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Stores an order under a fresh ID; the store never overwrites an existing order,
+     * so an ID collision (possible only between instances sharing a node ID) is
+     * retried with a new ID instead of losing the older order
+     */
+    private OrderResponse insertWithFreshId(CreateOrderRequest request, BigDecimal totalAmount, LocalDateTime now) {
+        OrderResponse order;
+        do {
+            order = newOrder(nextOwnedId(), request, totalAmount, now);
+        } while (!orderStore.insert(order));
         return order;
     }
     
+    /**
+     * Returns a new order ID that this instance owns, so that the order is
+     * stored here and later requests for it are routed here; in a cluster of N
+     * instances this draws about N IDs
+     */
+    private String nextOwnedId() {
+        String orderId;
+        do {
+            orderId = orderIdGenerator.nextId();
+        } while (!orderRouter.isLocal(orderId));
+        return orderId;
+    }
+    
+    private static OrderResponse newOrder(String orderId, CreateOrderRequest request, BigDecimal totalAmount,
+                                          LocalDateTime now) {
+        return new OrderResponse(
+            orderId,
+            request.getCustomerEmail(),
+            request.getItems(),
+            request.getDeliveryAddress(),
+            totalAmount,
+            OrderResponse.OrderStatus.PENDING,
+            now,
+            now
+        );
+    }
+    
+    /**
+     * Validates one request of a batch the way {@code @Valid} validates a single
+     * order, plus the items themselves, which the total calculation relies on
+     * 
+     * @return the violation messages, empty if the request is valid
+     */
+    private List<String> validate(CreateOrderRequest request) {
+        List<String> errors = new ArrayList<>();
+        if (request == null) {
+            errors.add("Order is required");
+            return errors;
+        }
+        addViolations(validator.validate(request), errors);
+        if (request.getItems() != null) {
+            for (CreateOrderRequest.OrderItem item : request.getItems()) {
+                if (item == null) {
+                    errors.add("Items must not be null");
+                    continue;
+                }
+                addViolations(validator.validate(item), errors);
+                if (item.getQuantity() == null) {
+                    errors.add("Quantity is required");
+                }
+                if (item.getPrice() == null) {
+                    errors.add("Price is required");
+                }
+            }
+        }
+        return errors;
+    }
+    
+    private static <T> void addViolations(Set<ConstraintViolation<T>> violations, List<String> errors) {
+        for (ConstraintViolation<T> violation : violations) {
+            errors.add(violation.getMessage());
+        }
+    }
+    
     /**
      * Calculates the total amount for an order
      * 
+     * Priced by {@link OrderPricingEngine} in minor units; tax, shipping and
+     * discounts plug in as {@link com.retailx.orders.pricing.PricingRule} beans.
+     * Promotions are applied by {@link com.retailx.orders.promotion.PromotionEngine}.
+     * 
      * TODO: Add tax calculation (RETAILX-8033)
      * TODO: Add shipping cost calculation (RETAILX-8034)
-     * TODO: Add discount/promotion code support (RETAILX-8010)
      */
     private BigDecimal calculateTotalAmount(CreateOrderRequest request) {
-        BigDecimal total = request.getItems().stream()
-            .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // TODO: Add tax calculation (RETAILX-8033)
-        // TODO: Add shipping cost (RETAILX-8034)
-        // TODO: Apply discounts/promotions (RETAILX-8010)
+        BigDecimal total = pricingEngine.price(request).getTotalAmount();
         
         logger.debug("Calculated total amount: {}", total);
         return total;
     }
     
     /**
-     * Retrieves all orders in the system
+     * Retrieves all orders in the system, most recent first
      * 
-     * TODO: Query from database instead of in-memory storage (RETAILX-8003)
-     * TODO: Add pagination support (RETAILX-8038)
-     * TODO: Add filtering and sorting options (RETAILX-8036, RETAILX-8046)
+     * TODO: Add sorting options (RETAILX-8046)
      * TODO: Add customer authorization to only return their orders (RETAILX-8043)
      */
     public java.util.List<OrderResponse> getAllOrders() {
-        logger.info("Retrieving all orders");
+        return getOrdersPage(null, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Retrieves one page of orders, most recent first
+     * 
+     * Keyset pagination: {@code after} is the key of the last order on the previous
+     * page (null for the first page). Walks the store's creation-time index, so no
+     * copy or sort of the whole store is needed and pages stay stable while new
+     * orders are created.
+     */
+    public java.util.List<OrderResponse> getOrdersPage(OrderKey after, int limit) {
+        logger.debug("Retrieving up to {} orders after {}", limit, after);
+        
+        java.util.List<OrderResponse> orders = orderStore.findRecent(after, limit);
         
-        java.util.List<OrderResponse> orders = new java.util.ArrayList<>(orderStore.values());
+        logger.debug("Retrieved {} orders successfully", orders.size());
+        return orders;
+    }
+    
+    /**
+     * Searches orders by customer, status and creation time, most recent first
+     * 
+     * Uses the store's secondary indexes (customer email, status, creation time),
+     * so a search never scans the whole store. Paging works as in
+     * {@link #getOrdersPage}.
+     * 
+     * TODO: Add customer authorization to only return their orders (RETAILX-8043)
+     */
+    public java.util.List<OrderResponse> searchOrders(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        logger.info("Searching orders ({}) after {} with limit {}", criteria, after, limit);
         
-        // TODO: Add sorting by creation date (most recent first) (RETAILX-8046)
-        orders.sort((o1, o2) -> o2.getCreatedAt().compareTo(o1.getCreatedAt()));
+        java.util.List<OrderResponse> orders = orderStore.search(criteria, after, limit);
         
-        logger.info("Retrieved {} orders successfully", orders.size());
+        logger.info("Found {} orders", orders.size());
         return orders;
     }
     
     // TODO: Add method to cancel order (RETAILX-8032)
-    // TODO: Add method to get orders by customer email (RETAILX-8035)
-    // TODO: Add method to search orders with filters (RETAILX-8036)
 }
@@ -0,0 +1,243 @@
+package com.retailx.orders.status;
+
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.store.OrderStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Order Status Machine
+ * 
+ * Applies status changes allowed by {@link OrderStatusTransitions} as
+ * compare-and-set operations on the order version.
+ * 
+ * A change names the version it was based on. The version check, the transition
+ * check and the write happen in one {@link OrderStore#update} call, which is
+ * atomic per order in every store, so of several concurrent changes to the same
+ * version exactly one is applied and the others get CONFLICT with the order as it
+ * is now; nothing is overwritten silently and only the applied change goes on to
+ * notify. No lock is held between reading the order and writing it, and the
+ * check inside the update is a few field comparisons, so a hot order's critical
+ * section stays as short as a plain status write.
+ * 
+ * Without an expected version the change is based on the version read just
+ * before it is applied; it still loses against a concurrent change that lands
+ * first.
+ * 
+ * A batch of changes ({@link #transitionAll}) is split into partitions by order
+ * ID, applied in parallel on up to {@code retailx.orders.status.bulk-parallelism}
+ * threads, each partition with one {@link OrderStore#updateAll} call (one log
+ * sync in wal mode). All changes of one order fall in the same partition and are
+ * applied in batch order, so a batch may move an order through several statuses;
+ * a later change without an expected version is based on the version left by
+ * the earlier ones.
+ * 
+ * METRICS:
+ * - retailx.orders.status.transitions{outcome} - attempted changes by outcome
+ * - retailx.orders.status.bulk - time to apply one batch of changes
+ */
+@Component
+public class OrderStatusMachine {
+    
+    // Smaller partitions cost more in thread hand-offs (and log syncs) than they save
+    private static final int MIN_PARTITION_SIZE = 256;
+    
+    private final OrderStore orderStore;
+    private final int parallelism;
+    private final ExecutorService bulkExecutor;
+    private final Map<StatusTransitionResult.Outcome, Counter> outcomeCounters =
+        new EnumMap<>(StatusTransitionResult.Outcome.class);
+    private final Timer bulkTimer;
+    
+    @Autowired
+    public OrderStatusMachine(
+            OrderStore orderStore,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.status.bulk-parallelism:0}") int bulkParallelism) {
+        this.orderStore = orderStore;
+        this.parallelism = bulkParallelism > 0 ? bulkParallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.bulkExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "order-status-bulk-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        for (StatusTransitionResult.Outcome outcome : StatusTransitionResult.Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("retailx.orders.status.transitions")
+                .description("Order status changes attempted, by outcome")
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry));
+        }
+        this.bulkTimer = Timer.builder("retailx.orders.status.bulk")
+            .description("Time to apply one batch of order status changes")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Changes the status of an order if its version is still
+     * {@code expectedVersion} (or, when null, the version it has when read
+     * here) and its current status allows the change.
+     */
+    public StatusTransitionResult transition(String orderId, OrderResponse.OrderStatus newStatus,
+                                             Long expectedVersion) {
+        StatusTransitionResult[] results = new StatusTransitionResult[1];
+        applyPartition(List.of(new OrderStatusUpdate(orderId, newStatus, expectedVersion)), new int[] {0},
+            LocalDateTime.now(), results);
+        return results[0];
+    }
+    
+    /**
+     * Applies a batch of changes with the same rules as {@link #transition} for
+     * each of them.
+     * 
+     * @return for each change, in order, its result
+     */
+    public List<StatusTransitionResult> transitionAll(List<OrderStatusUpdate> updates) {
+        Timer.Sample sample = Timer.start();
+        StatusTransitionResult[] results = new StatusTransitionResult[updates.size()];
+        LocalDateTime now = LocalDateTime.now();
+        int partitionCount = Math.min(parallelism, (updates.size() + MIN_PARTITION_SIZE - 1) / MIN_PARTITION_SIZE);
+        if (partitionCount <= 1) {
+            int[] all = new int[updates.size()];
+            Arrays.setAll(all, i -> i);
+            applyPartition(updates, all, now, results);
+        } else {
+            int[][] partitions = partition(updates, partitionCount);
+            List<Future<?>> futures = new ArrayList<>(partitionCount - 1);
+            for (int p = 1; p < partitionCount; p++) {
+                int[] indexes = partitions[p];
+                futures.add(bulkExecutor.submit(() -> applyPartition(updates, indexes, now, results)));
+            }
+            applyPartition(updates, partitions[0], now, results);
+            awaitAll(futures);
+        }
+        sample.stop(bulkTimer);
+        return Arrays.asList(results);
+    }
+    
+    @PreDestroy
+    void stop() {
+        bulkExecutor.shutdown();
+    }
+    
+    /**
+     * Applies the changes at {@code indexes}, in that order, with one store call.
+     */
+    private void applyPartition(List<OrderStatusUpdate> updates, int[] indexes, LocalDateTime now,
+                                StatusTransitionResult[] results) {
+        // Version each order is expected at by changes without an expected version;
+        // transitions run one after another in this thread, so applying one moves
+        // the expectation of later changes to the same order
+        Map<String, Long> baseVersions = new HashMap<>();
+        List<String> orderIds = new ArrayList<>(indexes.length);
+        List<UnaryOperator<OrderResponse>> transitions = new ArrayList<>(indexes.length);
+        StatusTransitionResult.Outcome[] outcomes = new StatusTransitionResult.Outcome[indexes.length];
+        OrderResponse.OrderStatus[] previousStatuses = new OrderResponse.OrderStatus[indexes.length];
+        
+        for (int i = 0; i < indexes.length; i++) {
+            OrderStatusUpdate update = updates.get(indexes[i]);
+            String orderId = update.getOrderId();
+            if (update.getExpectedVersion() == null && !baseVersions.containsKey(orderId)) {
+                OrderResponse current = orderStore.get(orderId);
+                baseVersions.put(orderId, current == null ? null : current.getVersion());
+            }
+            int slot = i;
+            orderIds.add(orderId);
+            transitions.add(current -> {
+                previousStatuses[slot] = current.getStatus();
+                Long expected = update.getExpectedVersion() != null
+                    ? update.getExpectedVersion()
+                    : baseVersions.get(orderId);
+                if (expected == null || current.getVersion() != expected) {
+                    outcomes[slot] = StatusTransitionResult.Outcome.CONFLICT;
+                    return current;
+                }
+                if (!OrderStatusTransitions.isAllowed(current.getStatus(), update.getStatus())) {
+                    outcomes[slot] = StatusTransitionResult.Outcome.INVALID_TRANSITION;
+                    return current;
+                }
+                outcomes[slot] = StatusTransitionResult.Outcome.APPLIED;
+                OrderResponse updated = current.withStatus(update.getStatus(), now);
+                if (update.getExpectedVersion() == null) {
+                    baseVersions.put(orderId, updated.getVersion());
+                }
+                return updated;
+            });
+        }
+        
+        OrderResponse[] orders = orderStore.updateAll(orderIds, transitions);
+        for (int i = 0; i < indexes.length; i++) {
+            StatusTransitionResult result = orders[i] == null
+                ? StatusTransitionResult.notFound()
+                : new StatusTransitionResult(outcomes[i], orders[i], previousStatuses[i]);
+            outcomeCounters.get(result.getOutcome()).increment();
+            results[indexes[i]] = result;
+        }
+    }
+    
+    /**
+     * Splits the batch positions by order ID hash, keeping batch order within
+     * each partition.
+     */
+    private static int[][] partition(List<OrderStatusUpdate> updates, int partitionCount) {
+        int[] partitionOf = new int[updates.size()];
+        int[] sizes = new int[partitionCount];
+        for (int i = 0; i < partitionOf.length; i++) {
+            String orderId = updates.get(i).getOrderId();
+            partitionOf[i] = (orderId.hashCode() & Integer.MAX_VALUE) % partitionCount;
+            sizes[partitionOf[i]]++;
+        }
+        int[][] partitions = new int[partitionCount][];
+        for (int p = 0; p < partitionCount; p++) {
+            partitions[p] = new int[sizes[p]];
+            sizes[p] = 0;
+        }
+        for (int i = 0; i < partitionOf.length; i++) {
+            int p = partitionOf[i];
+            partitions[p][sizes[p]++] = i;
+        }
+        return partitions;
+    }
+    
+    private static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new IllegalStateException("Order status batch partition failed", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while applying order status changes", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
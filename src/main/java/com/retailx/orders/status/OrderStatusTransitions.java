@@ -0,0 +1,64 @@
+package com.retailx.orders.status;
+
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order Status Transitions
+ * 
+ * The order status workflow (RETAILX-8020) as a table of the statuses each
+ * status may change to:
+ * 
+ * - PENDING -> CONFIRMED, CANCELLED
+ * - CONFIRMED -> SHIPPED, CANCELLED
+ * - SHIPPED -> DELIVERED, RETURNED
+ * - DELIVERED -> RETURNED
+ * - CANCELLED -> REFUNDED
+ * - RETURNED -> REFUNDED
+ * - REFUNDED - final
+ * 
+ * A status never changes to itself, so repeating a change that was already
+ * applied is rejected instead of being applied (and notified) twice.
+ */
+public final class OrderStatusTransitions {
+    
+    private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED = new EnumMap<>(OrderStatus.class);
+    
+    static {
+        allow(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.CANCELLED);
+        allow(OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.CANCELLED);
+        allow(OrderStatus.SHIPPED, OrderStatus.DELIVERED, OrderStatus.RETURNED);
+        allow(OrderStatus.DELIVERED, OrderStatus.RETURNED);
+        allow(OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+        allow(OrderStatus.RETURNED, OrderStatus.REFUNDED);
+        allow(OrderStatus.REFUNDED);
+    }
+    
+    private OrderStatusTransitions() {
+    }
+    
+    /**
+     * True if an order in status {@code from} may change to {@code to}.
+     */
+    public static boolean isAllowed(OrderStatus from, OrderStatus to) {
+        return from != null && to != null && ALLOWED.get(from).contains(to);
+    }
+    
+    /**
+     * The statuses an order in status {@code from} may change to.
+     */
+    public static Set<OrderStatus> allowedFrom(OrderStatus from) {
+        return ALLOWED.get(from);
+    }
+    
+    private static void allow(OrderStatus from, OrderStatus... to) {
+        EnumSet<OrderStatus> targets = EnumSet.noneOf(OrderStatus.class);
+        Collections.addAll(targets, to);
+        ALLOWED.put(from, Collections.unmodifiableSet(targets));
+    }
+}
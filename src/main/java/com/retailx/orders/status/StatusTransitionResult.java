@@ -0,0 +1,58 @@
+package com.retailx.orders.status;
+
+import com.retailx.orders.model.OrderResponse;
+
+/**
+ * Status Transition Result
+ * 
+ * Outcome of one status change attempted through {@link OrderStatusMachine}.
+ * {@code order} is the order after the attempt: the changed order when the
+ * change was applied, the current (unchanged) order when it was rejected, and
+ * null when the order does not exist.
+ */
+public final class StatusTransitionResult {
+    
+    public enum Outcome {
+        /** The status was changed. */
+        APPLIED,
+        /** No order with the given ID exists. */
+        NOT_FOUND,
+        /** The order's current status does not allow the change. */
+        INVALID_TRANSITION,
+        /** The order changed since the expected version; nothing was changed. */
+        CONFLICT
+    }
+    
+    private final Outcome outcome;
+    private final OrderResponse order;
+    private final OrderResponse.OrderStatus previousStatus;
+    
+    StatusTransitionResult(Outcome outcome, OrderResponse order, OrderResponse.OrderStatus previousStatus) {
+        this.outcome = outcome;
+        this.order = order;
+        this.previousStatus = previousStatus;
+    }
+    
+    static StatusTransitionResult notFound() {
+        return new StatusTransitionResult(Outcome.NOT_FOUND, null, null);
+    }
+    
+    public boolean isApplied() {
+        return outcome == Outcome.APPLIED;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public OrderResponse getOrder() {
+        return order;
+    }
+    
+    /**
+     * Status before the change; for a rejected change, the current status.
+     */
+    public OrderResponse.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
@@ -0,0 +1,189 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent Order Store
+ * 
+ * Default in-memory {@link OrderStore} backed by a {@link ConcurrentHashMap}.
+ * 
+ * Reads are lock-free. Writes lock only the hash bin of the affected order, so
+ * updates to different orders proceed in parallel and updates to the same order
+ * are serialized; no update is lost and no reader ever sees a half-applied change.
+ * 
+ * Listing and search are served from concurrent skip lists of {@link OrderKey}s
+ * kept in creation-time order: one over all orders, one per customer email and
+ * one per status. Secondary index entries are added and moved inside the same
+ * per-order critical section as the primary write, so concurrent changes to one
+ * order cannot leave it indexed under a stale status. Index entries only carry
+ * the immutable key; every hit is resolved and re-checked against the current
+ * snapshot in the primary map, so readers never return an order that does not
+ * match at the time it is read.
+ * 
+ * Also used as the in-memory state of the WAL-backed store.
+ */
+public class ConcurrentOrderStore implements InMemoryOrderStore {
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final ConcurrentMap<String, OrderResponse> orders;
+    
+    private final NavigableSet<OrderKey> createdAtIndex = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, NavigableSet<OrderKey>> customerIndex = new ConcurrentHashMap<>();
+    private final Map<OrderResponse.OrderStatus, NavigableSet<OrderKey>> statusIndex =
+        new EnumMap<>(OrderResponse.OrderStatus.class);
+    
+    public ConcurrentOrderStore() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        this.orders = new ConcurrentHashMap<>(INITIAL_CAPACITY, 0.75f, parallelism);
+        for (OrderResponse.OrderStatus status : OrderResponse.OrderStatus.values()) {
+            statusIndex.put(status, new ConcurrentSkipListSet<>());
+        }
+    }
+    
+    @Override
+    public boolean insert(OrderResponse order) {
+        boolean[] inserted = new boolean[1];
+        orders.compute(order.getOrderId(), (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            OrderKey key = OrderKey.of(order);
+            createdAtIndex.add(key);
+            customerIndex.computeIfAbsent(OrderSearchCriteria.normalizeEmail(order.getCustomerEmail()),
+                email -> new ConcurrentSkipListSet<>()).add(key);
+            statusIndex.get(order.getStatus()).add(key);
+            inserted[0] = true;
+            return order;
+        });
+        return inserted[0];
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        return orders.get(orderId);
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        return orders.computeIfPresent(orderId, (id, current) -> {
+            OrderResponse updated = transition.apply(current);
+            if (updated.getStatus() != current.getStatus()) {
+                OrderKey key = OrderKey.of(current);
+                statusIndex.get(updated.getStatus()).add(key);
+                statusIndex.get(current.getStatus()).remove(key);
+            }
+            return updated;
+        });
+    }
+    
+    @Override
+    public boolean remove(String orderId) {
+        boolean[] removed = new boolean[1];
+        orders.computeIfPresent(orderId, (id, existing) -> {
+            OrderKey key = OrderKey.of(existing);
+            createdAtIndex.remove(key);
+            NavigableSet<OrderKey> customerOrders =
+                customerIndex.get(OrderSearchCriteria.normalizeEmail(existing.getCustomerEmail()));
+            if (customerOrders != null) {
+                customerOrders.remove(key);
+            }
+            statusIndex.get(existing.getStatus()).remove(key);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        return scan(createdAtIndex, null, after, limit, order -> true);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        // Drive the scan from the most selective index and check the remaining
+        // criteria against each snapshot; a customer's orders are far fewer than
+        // the orders in any one status, which are fewer than all orders
+        NavigableSet<OrderKey> index;
+        if (criteria.getCustomerEmail() != null) {
+            index = customerIndex.get(criteria.getCustomerEmail());
+            if (index == null) {
+                return new ArrayList<>();
+            }
+        } else if (criteria.getStatus() != null) {
+            index = statusIndex.get(criteria.getStatus());
+        } else {
+            index = createdAtIndex;
+        }
+        
+        // The empty order ID sorts before every real ID, so these bounds cover
+        // every order created at or after "from" and strictly before "to"
+        OrderKey from = criteria.getCreatedFrom() == null ? null : new OrderKey(criteria.getCreatedFrom(), "");
+        OrderKey before = after;
+        if (criteria.getCreatedTo() != null) {
+            OrderKey to = new OrderKey(criteria.getCreatedTo(), "");
+            if (before == null || to.compareTo(before) < 0) {
+                before = to;
+            }
+        }
+        return scan(index, from, before, limit, criteria::matches);
+    }
+    
+    @Override
+    public int size() {
+        return orders.size();
+    }
+    
+    /**
+     * Visits every stored order in no particular order. Weakly consistent: changes
+     * made while iterating may or may not be seen.
+     */
+    @Override
+    public void forEach(Consumer<OrderResponse> action) {
+        orders.values().forEach(action);
+    }
+    
+    /**
+     * Walks the index newest first over keys at or after {@code from} (inclusive)
+     * and strictly before {@code before}; either bound may be null.
+     */
+    private List<OrderResponse> scan(NavigableSet<OrderKey> index, OrderKey from, OrderKey before, int limit,
+                                     Predicate<OrderResponse> filter) {
+        List<OrderResponse> page = new ArrayList<>(Math.min(limit, orders.size()));
+        NavigableSet<OrderKey> range;
+        if (from != null && before != null) {
+            if (from.compareTo(before) >= 0) {
+                return page;
+            }
+            range = index.subSet(from, true, before, false);
+        } else if (from != null) {
+            range = index.tailSet(from, true);
+        } else if (before != null) {
+            range = index.headSet(before, false);
+        } else {
+            range = index;
+        }
+        
+        Iterator<OrderKey> keys = range.descendingIterator();
+        while (page.size() < limit && keys.hasNext()) {
+            OrderResponse order = orders.get(keys.next().getOrderId());
+            if (order != null && filter.test(order)) {
+                page.add(order);
+            }
+        }
+        return page;
+    }
+}
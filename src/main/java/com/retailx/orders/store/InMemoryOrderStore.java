@@ -0,0 +1,28 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.util.function.Consumer;
+
+/**
+ * In-Memory Order Store
+ * 
+ * {@link OrderStore} holding all of its orders in this process, so they can be
+ * visited in one pass: the memory persistence mode and the in-memory state of
+ * the WAL store, which writes its snapshots with {@link #forEach}.
+ */
+public interface InMemoryOrderStore extends OrderStore {
+    
+    /**
+     * Visits every stored order. Weakly consistent: changes made while iterating
+     * may or may not be seen.
+     */
+    void forEach(Consumer<OrderResponse> action);
+    
+    /**
+     * Removes an order, e.g. to undo an insert that could not be made durable.
+     * 
+     * @return true if the order was stored
+     */
+    boolean remove(String orderId);
+}
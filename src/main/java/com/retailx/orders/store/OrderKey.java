@@ -0,0 +1,102 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Order Key
+ * 
+ * Position of an order in creation-time order. The order ID breaks ties between
+ * orders created within the same clock tick, so every order has a unique key.
+ * 
+ * Both components are immutable for the lifetime of an order, so a key never has
+ * to be moved when the order's status changes.
+ * 
+ * Keys are handed to API clients as opaque pagination cursors; the encoding is
+ * an implementation detail and may change between releases.
+ */
+public final class OrderKey implements Comparable<OrderKey> {
+    
+    private static final char CURSOR_SEPARATOR = '|';
+    
+    private final LocalDateTime createdAt;
+    private final String orderId;
+    
+    public OrderKey(LocalDateTime createdAt, String orderId) {
+        this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
+        this.orderId = Objects.requireNonNull(orderId, "orderId");
+    }
+    
+    public static OrderKey of(OrderResponse order) {
+        return new OrderKey(order.getCreatedAt(), order.getOrderId());
+    }
+    
+    /**
+     * Decodes a cursor produced by {@link #toCursor()}.
+     * 
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static OrderKey fromCursor(String cursor) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed order cursor", e);
+        }
+        int separator = decoded.indexOf(CURSOR_SEPARATOR);
+        if (separator <= 0 || separator == decoded.length() - 1) {
+            throw new IllegalArgumentException("Malformed order cursor");
+        }
+        try {
+            return new OrderKey(LocalDateTime.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed order cursor", e);
+        }
+    }
+    
+    public String toCursor() {
+        String raw = createdAt.toString() + CURSOR_SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    @Override
+    public int compareTo(OrderKey other) {
+        int result = createdAt.compareTo(other.createdAt);
+        return result != 0 ? result : orderId.compareTo(other.orderId);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderKey)) {
+            return false;
+        }
+        OrderKey other = (OrderKey) o;
+        return createdAt.equals(other.createdAt) && orderId.equals(other.orderId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * createdAt.hashCode() + orderId.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return createdAt + "/" + orderId;
+    }
+}
@@ -0,0 +1,73 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Order Search Criteria
+ * 
+ * Filters for {@link OrderStore#search}. Every criterion is optional; a null
+ * value matches all orders. Customer emails are matched case-insensitively and
+ * the creation-time range is inclusive of {@code createdFrom} and exclusive of
+ * {@code createdTo}.
+ * 
+ * TODOs:
+ * - [ ] Add customer authorization to only match their orders (RETAILX-8043)
+ */
+public class OrderSearchCriteria {
+    
+    private final String customerEmail;
+    private final OrderResponse.OrderStatus status;
+    private final LocalDateTime createdFrom;
+    private final LocalDateTime createdTo;
+    
+    public OrderSearchCriteria(String customerEmail, OrderResponse.OrderStatus status,
+                               LocalDateTime createdFrom, LocalDateTime createdTo) {
+        this.customerEmail = customerEmail == null ? null : normalizeEmail(customerEmail);
+        this.status = status;
+        this.createdFrom = createdFrom;
+        this.createdTo = createdTo;
+    }
+    
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    public boolean matches(OrderResponse order) {
+        if (customerEmail != null && !customerEmail.equals(normalizeEmail(order.getCustomerEmail()))) {
+            return false;
+        }
+        if (status != null && status != order.getStatus()) {
+            return false;
+        }
+        if (createdFrom != null && order.getCreatedAt().isBefore(createdFrom)) {
+            return false;
+        }
+        return createdTo == null || order.getCreatedAt().isBefore(createdTo);
+    }
+    
+    // Getters
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+    
+    public OrderResponse.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+    
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+    
+    @Override
+    public String toString() {
+        return "customerEmail=" + customerEmail + ", status=" + status
+            + ", createdFrom=" + createdFrom + ", createdTo=" + createdTo;
+    }
+}
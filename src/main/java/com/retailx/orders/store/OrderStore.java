@@ -0,0 +1,103 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Order Store
+ * 
+ * Storage abstraction for orders owned by this service instance.
+ * Implementations must be safe for concurrent use by request threads.
+ * 
+ * Stored orders are treated as immutable snapshots: a change is applied by
+ * replacing the stored instance with an updated copy, never by mutating the
+ * instance other threads may currently be reading.
+ */
+public interface OrderStore {
+    
+    /**
+     * Stores a new order.
+     * 
+     * @return false if an order with the same ID already exists (nothing is overwritten)
+     */
+    boolean insert(OrderResponse order);
+    
+    /**
+     * Stores a batch of new orders, with the same semantics as {@link #insert}
+     * for each of them. Stores override this to share per-write costs (such as
+     * a disk sync) across the batch.
+     * 
+     * If the call throws, orders before the failing one may have been stored.
+     * 
+     * @return for each order, in order, whether it was stored
+     */
+    default boolean[] insertAll(List<OrderResponse> orders) {
+        boolean[] inserted = new boolean[orders.size()];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = insert(orders.get(i));
+        }
+        return inserted;
+    }
+    
+    /**
+     * Returns the current snapshot of an order, or null if it does not exist.
+     */
+    OrderResponse get(String orderId);
+    
+    /**
+     * Atomically replaces an order with the result of the given transition.
+     * 
+     * The transition receives the current snapshot and must return a new instance
+     * (or the same instance to leave the order unchanged). It may be invoked while
+     * other writers to the same order are blocked, so it must be short and free of I/O.
+     * 
+     * @return the stored snapshot after the transition, or null if the order does not exist
+     */
+    OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition);
+    
+    /**
+     * Applies {@code transitions.get(i)} to the order {@code orderIds.get(i)} for
+     * each i, in order, with the same semantics as {@link #update} for each of
+     * them. Stores override this to share per-write costs (such as a disk sync)
+     * across the batch.
+     * 
+     * If the call throws, orders before the failing one may have been updated.
+     * 
+     * @return for each order, in order, the stored snapshot after its transition,
+     *         or null if the order does not exist
+     */
+    default OrderResponse[] updateAll(List<String> orderIds, List<UnaryOperator<OrderResponse>> transitions) {
+        OrderResponse[] updated = new OrderResponse[orderIds.size()];
+        for (int i = 0; i < updated.length; i++) {
+            updated[i] = update(orderIds.get(i), transitions.get(i));
+        }
+        return updated;
+    }
+    
+    /**
+     * Returns up to {@code limit} orders, most recently created first.
+     * 
+     * When {@code after} is given, only orders that sort strictly after that key
+     * in newest-first order (i.e. were created before it) are returned, which lets
+     * callers page through the store by passing the key of the last order they saw.
+     * 
+     * Served from a creation-time index, so the cost is proportional to
+     * {@code limit} rather than to the number of stored orders.
+     */
+    List<OrderResponse> findRecent(OrderKey after, int limit);
+    
+    /**
+     * Returns up to {@code limit} orders matching the criteria, most recently
+     * created first, with the same {@code after} paging semantics as
+     * {@link #findRecent}.
+     * 
+     * Served from secondary indexes on customer, status and creation time, so the
+     * cost is proportional to the number of orders in the narrowest matching index
+     * range rather than to the number of stored orders.
+     */
+    List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit);
+    
+    int size();
+}
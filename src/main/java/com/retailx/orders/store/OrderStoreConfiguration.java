@@ -0,0 +1,169 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.repository.OrderRepository;
+import com.retailx.orders.store.jpa.JpaOrderStore;
+import com.retailx.orders.store.offheap.OffHeapOrderStore;
+import com.retailx.orders.store.wal.PartitionedWalOrderStore;
+import com.retailx.orders.store.wal.WalOrderStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Order Store Configuration
+ * 
+ * Selects the {@link OrderStore} implementation with
+ * {@code retailx.orders.persistence.mode}:
+ * - memory (default) - {@link ConcurrentOrderStore}, orders are lost on restart
+ * - wal - {@link WalOrderStore}, in-memory store made durable by a write-ahead
+ *   log and periodic snapshots under {@code retailx.orders.persistence.wal.directory}
+ * - jpa - {@link JpaOrderStore}, orders stored in the configured database through
+ *   {@link OrderRepository}, with new orders written behind in batches
+ * 
+ * The memory and WAL stores are split into {@code retailx.orders.partitions.count}
+ * hash partitions by order ID ({@link PartitionedOrderStore}); with the WAL store
+ * every partition has its own log under the WAL directory. The JPA store leaves
+ * partitioning to the database and ignores the setting.
+ * 
+ * {@code retailx.orders.persistence.engine} selects where the memory and WAL
+ * stores keep their orders:
+ * - heap (default) - {@link ConcurrentOrderStore}, one set of objects per order
+ * - offheap - {@link OffHeapOrderStore}, compact records in direct memory
+ *   segments of up to {@code retailx.orders.persistence.offheap.segment-size-mb}
+ * 
+ * The WAL store records order events in its log; the memory and JPA stores are
+ * wrapped in an {@link OutboxOrderStore}, whose in-memory outbox holds up to
+ * {@code retailx.orders.outbox.capacity} undelivered events and is lost on restart.
+ * 
+ * The JPA store has no transactional outbox: events are recorded in memory when
+ * a change is accepted, not in the transaction that writes it to the database.
+ * Events are therefore not guaranteed in jpa mode; they are lost on restart and
+ * may describe an order the database later rejected.
+ * 
+ * METRICS:
+ * - retailx.orders.outbox.dropped - events discarded by a full in-memory outbox
+ * - retailx.orders.offheap.allocated - direct memory reserved by off-heap segments, in bytes
+ * - retailx.orders.offheap.used - segment bytes holding order records
+ * - retailx.orders.offheap.garbage - segment bytes of replaced or removed order records
+ * - retailx.orders.offheap.index - heap bytes of the off-heap stores' indexes
+ */
+@Configuration
+public class OrderStoreConfiguration {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderStoreConfiguration.class);
+    
+    private static final String MODE_PROPERTY = "retailx.orders.persistence.mode";
+    private static final String PARTITIONS = "${retailx.orders.partitions.count:1}";
+    private static final String ENGINE = "${retailx.orders.persistence.engine:heap}";
+    private static final String OFFHEAP_SEGMENT_SIZE = "${retailx.orders.persistence.offheap.segment-size-mb:64}";
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "memory", matchIfMissing = true)
+    public OutboxOrderStore inMemoryOrderStore(
+            MeterRegistry meterRegistry,
+            @Value(PARTITIONS) int partitionCount,
+            @Value(ENGINE) String engine,
+            @Value(OFFHEAP_SEGMENT_SIZE) int offHeapSegmentSizeMb,
+            @Value("${retailx.orders.outbox.capacity:100000}") int outboxCapacity) {
+        Supplier<InMemoryOrderStore> memoryStores = memoryStores(engine, offHeapSegmentSizeMb, meterRegistry);
+        if (partitionCount <= 1) {
+            return withOutbox(memoryStores.get(), meterRegistry, outboxCapacity);
+        }
+        List<InMemoryOrderStore> partitions = new ArrayList<>(partitionCount);
+        for (int p = 0; p < partitionCount; p++) {
+            partitions.add(memoryStores.get());
+        }
+        return withOutbox(new PartitionedOrderStore(partitions), meterRegistry, outboxCapacity);
+    }
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "wal")
+    public PartitionedWalOrderStore walOrderStore(
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.persistence.wal.directory:data/orders}") String directory,
+            @Value(PARTITIONS) int partitionCount,
+            @Value(ENGINE) String engine,
+            @Value(OFFHEAP_SEGMENT_SIZE) int offHeapSegmentSizeMb,
+            @Value("${retailx.orders.persistence.wal.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${retailx.orders.persistence.wal.snapshot-interval-ms:60000}") long snapshotIntervalMs,
+            @Value("${retailx.orders.persistence.wal.snapshot-min-records:100000}") long snapshotMinRecords)
+            throws IOException {
+        return PartitionedWalOrderStore.open(Paths.get(directory), partitionCount, segmentSizeMb << 20,
+            snapshotIntervalMs, snapshotMinRecords, memoryStores(engine, offHeapSegmentSizeMb, meterRegistry));
+    }
+    
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "jpa")
+    public OutboxOrderStore jpaOrderStore(
+            OrderRepository orderRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${retailx.orders.persistence.write-behind.batch-size:100}") int batchSize,
+            @Value("${retailx.orders.persistence.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+            @Value("${retailx.orders.persistence.write-behind.capacity:10000}") int capacity,
+            @Value("${retailx.orders.persistence.write-behind.offer-timeout-ms:1000}") long offerTimeoutMs,
+            @Value("${retailx.orders.outbox.capacity:100000}") int outboxCapacity) {
+        JpaOrderStore store = new JpaOrderStore(orderRepository, transactionManager, meterRegistry, batchSize,
+            flushIntervalMs, capacity, offerTimeoutMs);
+        logger.warn("Order events are not guaranteed in jpa mode: they are kept in memory, not written with the orders");
+        return withOutbox(store, meterRegistry, outboxCapacity);
+    }
+    
+    /**
+     * Creates the in-memory stores (one per partition) of the configured engine.
+     */
+    private static Supplier<InMemoryOrderStore> memoryStores(String engine, int offHeapSegmentSizeMb,
+                                                             MeterRegistry meterRegistry) {
+        if ("heap".equals(engine)) {
+            return ConcurrentOrderStore::new;
+        }
+        if (!"offheap".equals(engine)) {
+            throw new IllegalArgumentException("Unknown retailx.orders.persistence.engine: " + engine);
+        }
+        List<OffHeapOrderStore> stores = new CopyOnWriteArrayList<>();
+        registerOffHeapGauge(meterRegistry, "retailx.orders.offheap.allocated",
+            "Direct memory reserved by off-heap order segments", stores, OffHeapOrderStore::getAllocatedBytes);
+        registerOffHeapGauge(meterRegistry, "retailx.orders.offheap.used",
+            "Off-heap segment bytes holding order records", stores, OffHeapOrderStore::getUsedBytes);
+        registerOffHeapGauge(meterRegistry, "retailx.orders.offheap.garbage",
+            "Off-heap segment bytes of replaced or removed order records", stores, OffHeapOrderStore::getGarbageBytes);
+        registerOffHeapGauge(meterRegistry, "retailx.orders.offheap.index",
+            "Heap bytes of the off-heap order indexes", stores, OffHeapOrderStore::getIndexBytes);
+        return () -> {
+            OffHeapOrderStore store = new OffHeapOrderStore(offHeapSegmentSizeMb << 20);
+            stores.add(store);
+            return store;
+        };
+    }
+    
+    private static void registerOffHeapGauge(MeterRegistry meterRegistry, String name, String description,
+                                             List<OffHeapOrderStore> stores,
+                                             ToLongFunction<OffHeapOrderStore> bytes) {
+        Gauge.builder(name, stores, all -> all.stream().mapToLong(bytes).sum())
+            .description(description)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+    
+    private static OutboxOrderStore withOutbox(OrderStore store, MeterRegistry meterRegistry, int capacity) {
+        OutboxOrderStore outboxStore = new OutboxOrderStore(store, capacity);
+        Gauge.builder("retailx.orders.outbox.dropped", outboxStore, OutboxOrderStore::getDroppedEventCount)
+            .description("Order events discarded because the in-memory outbox was full")
+            .register(meterRegistry);
+        return outboxStore;
+    }
+}
@@ -0,0 +1,146 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.events.outbox.InMemoryOrderOutbox;
+import com.retailx.orders.events.outbox.OrderOutbox;
+import com.retailx.orders.model.OrderResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Outbox Order Store
+ * 
+ * Adds an {@link InMemoryOrderOutbox} to a store that has no log of its own:
+ * every successful insert and every update that changes an order appends an
+ * {@link OrderEvent} before the call returns.
+ * 
+ * The event is appended after the delegate's write, so a failed write never
+ * produces an event; concurrent updates of the same order may append their
+ * events in either order, and consumers tell them apart by {@code version}.
+ * 
+ * The event is only as durable as the outbox, which is in memory: with a
+ * delegate that persists orders (the JPA store) the order can outlive its event,
+ * and an order accepted into a write-behind buffer but rejected when written
+ * still has its event. Events are exact only when the delegate is in memory too.
+ */
+public class OutboxOrderStore implements OrderStore, OrderOutbox, Closeable {
+    
+    private final OrderStore delegate;
+    private final InMemoryOrderOutbox outbox;
+    
+    public OutboxOrderStore(OrderStore delegate, int capacity) {
+        this.delegate = delegate;
+        this.outbox = new InMemoryOrderOutbox(capacity);
+    }
+    
+    @Override
+    public boolean insert(OrderResponse order) {
+        if (!delegate.insert(order)) {
+            return false;
+        }
+        outbox.append(sequence -> OrderEvent.created(sequence, order));
+        return true;
+    }
+    
+    @Override
+    public boolean[] insertAll(List<OrderResponse> orders) {
+        boolean[] inserted = delegate.insertAll(orders);
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                OrderResponse order = orders.get(i);
+                outbox.append(sequence -> OrderEvent.created(sequence, order));
+            }
+        }
+        return inserted;
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        return delegate.get(orderId);
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        OrderResponse[] previous = new OrderResponse[1];
+        OrderResponse updated = delegate.update(orderId, tracking(transition, previous, 0));
+        appendChange(previous[0], updated);
+        return updated;
+    }
+    
+    @Override
+    public OrderResponse[] updateAll(List<String> orderIds, List<UnaryOperator<OrderResponse>> transitions) {
+        OrderResponse[] previous = new OrderResponse[orderIds.size()];
+        List<UnaryOperator<OrderResponse>> tracked = new ArrayList<>(transitions.size());
+        for (int i = 0; i < transitions.size(); i++) {
+            tracked.add(tracking(transitions.get(i), previous, i));
+        }
+        OrderResponse[] updated = delegate.updateAll(orderIds, tracked);
+        for (int i = 0; i < updated.length; i++) {
+            appendChange(previous[i], updated[i]);
+        }
+        return updated;
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        return delegate.findRecent(after, limit);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        return delegate.search(criteria, after, limit);
+    }
+    
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+    
+    @Override
+    public List<OrderEvent> read(long position, int limit) {
+        return outbox.read(position, limit);
+    }
+    
+    @Override
+    public void acknowledge(long position) {
+        outbox.acknowledge(position);
+    }
+    
+    @Override
+    public long getAcknowledgedPosition() {
+        return outbox.getAcknowledgedPosition();
+    }
+    
+    public long getDroppedEventCount() {
+        return outbox.getDroppedCount();
+    }
+    
+    /**
+     * Wraps a transition so that it records the order it was applied to in
+     * {@code previous[index]}.
+     */
+    private static UnaryOperator<OrderResponse> tracking(UnaryOperator<OrderResponse> transition,
+                                                         OrderResponse[] previous, int index) {
+        return current -> {
+            previous[index] = current;
+            return transition.apply(current);
+        };
+    }
+    
+    private void appendChange(OrderResponse previous, OrderResponse updated) {
+        if (updated != null && updated != previous) {
+            outbox.append(sequence -> OrderEvent.changed(sequence, previous, updated));
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Partitioned Order Store
+ * 
+ * Splits orders into a fixed number of hash partitions by order ID
+ * ({@link #partitionOf}), each held by its own {@link OrderStore}. Partitions
+ * share nothing: their maps, indexes and (in wal mode) logs are separate, so
+ * writes to different partitions never contend, and the creation-time index hot
+ * spot where every new order is added is split as many ways as there are
+ * partitions.
+ * 
+ * Single-order calls go to the order's partition. Batch calls are split by
+ * partition and the partitions' share of the batch is written in parallel, so a
+ * batch costs one write per partition (one log sync each in wal mode) running
+ * side by side. Listing and search ask every partition for a page and merge the
+ * pages newest first.
+ * 
+ * The partition of an order depends only on its ID and the partition count,
+ * which must therefore stay the same for the lifetime of the stored data; it is
+ * also how {@link com.retailx.orders.cluster.OrderRouter} decides which service
+ * instance owns an order.
+ */
+public class PartitionedOrderStore implements OrderStore, Closeable {
+    
+    private static final Comparator<OrderResponse> NEWEST_FIRST =
+        Comparator.comparing(OrderKey::of, Comparator.reverseOrder());
+    
+    private final List<? extends OrderStore> partitions;
+    private final ExecutorService batchExecutor;
+    
+    public PartitionedOrderStore(List<? extends OrderStore> partitions) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one order store partition is required");
+        }
+        this.partitions = List.copyOf(partitions);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, partitions.size() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "order-partition-batch-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Partition of an order ID among {@code partitionCount} partitions. Stable
+     * across instances and releases: stored data and cluster routing depend on it.
+     */
+    public static int partitionOf(String orderId, int partitionCount) {
+        // String.hashCode is specified, but consecutive IDs differ only in their
+        // last characters; mixing spreads them over all partitions
+        int hash = orderId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+    
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+    
+    public OrderStore getPartition(int partition) {
+        return partitions.get(partition);
+    }
+    
+    @Override
+    public boolean insert(OrderResponse order) {
+        return partitionFor(order.getOrderId()).insert(order);
+    }
+    
+    @Override
+    public boolean[] insertAll(List<OrderResponse> orders) {
+        boolean[] inserted = new boolean[orders.size()];
+        int[][] byPartition = split(orders.size(), i -> orders.get(i).getOrderId());
+        forEachPartition(byPartition, (partition, positions) -> {
+            List<OrderResponse> batch = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                batch.add(orders.get(position));
+            }
+            boolean[] result = partitions.get(partition).insertAll(batch);
+            for (int j = 0; j < positions.length; j++) {
+                inserted[positions[j]] = result[j];
+            }
+        });
+        return inserted;
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        return partitionFor(orderId).get(orderId);
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        return partitionFor(orderId).update(orderId, transition);
+    }
+    
+    /**
+     * Updates of the same order fall in the same partition and are applied in
+     * batch order, as {@link OrderStore#updateAll} requires.
+     */
+    @Override
+    public OrderResponse[] updateAll(List<String> orderIds, List<UnaryOperator<OrderResponse>> transitions) {
+        OrderResponse[] updated = new OrderResponse[orderIds.size()];
+        int[][] byPartition = split(orderIds.size(), orderIds::get);
+        forEachPartition(byPartition, (partition, positions) -> {
+            List<String> ids = new ArrayList<>(positions.length);
+            List<UnaryOperator<OrderResponse>> batch = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                ids.add(orderIds.get(position));
+                batch.add(transitions.get(position));
+            }
+            OrderResponse[] result = partitions.get(partition).updateAll(ids, batch);
+            for (int j = 0; j < positions.length; j++) {
+                updated[positions[j]] = result[j];
+            }
+        });
+        return updated;
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        List<OrderResponse> merged = new ArrayList<>();
+        for (OrderStore partition : partitions) {
+            merged.addAll(partition.findRecent(after, limit));
+        }
+        return newestFirst(merged, limit);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        List<OrderResponse> merged = new ArrayList<>();
+        for (OrderStore partition : partitions) {
+            merged.addAll(partition.search(criteria, after, limit));
+        }
+        return newestFirst(merged, limit);
+    }
+    
+    @Override
+    public int size() {
+        int size = 0;
+        for (OrderStore partition : partitions) {
+            size += partition.size();
+        }
+        return size;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        batchExecutor.shutdown();
+        IOException failure = null;
+        for (OrderStore partition : partitions) {
+            if (partition instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private OrderStore partitionFor(String orderId) {
+        return partitions.get(partitionOf(orderId, partitions.size()));
+    }
+    
+    /**
+     * Positions 0..size-1 of a batch grouped by the partition of their order ID,
+     * in batch order within each partition; null for partitions with none.
+     */
+    private int[][] split(int size, IntFunction<String> orderIdAt) {
+        int[] partitionOf = new int[size];
+        int[] counts = new int[partitions.size()];
+        for (int i = 0; i < size; i++) {
+            partitionOf[i] = partitionOf(orderIdAt.apply(i), partitions.size());
+            counts[partitionOf[i]]++;
+        }
+        int[][] byPartition = new int[partitions.size()][];
+        for (int p = 0; p < counts.length; p++) {
+            if (counts[p] > 0) {
+                byPartition[p] = new int[counts[p]];
+                counts[p] = 0;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int p = partitionOf[i];
+            byPartition[p][counts[p]++] = i;
+        }
+        return byPartition;
+    }
+    
+    private interface PartitionTask {
+        void run(int partition, int[] positions);
+    }
+    
+    /**
+     * Runs the task for every partition with positions, in parallel when there
+     * is more than one; the last one runs on the calling thread.
+     */
+    private void forEachPartition(int[][] byPartition, PartitionTask task) {
+        List<Integer> nonEmpty = new ArrayList<>(byPartition.length);
+        for (int p = 0; p < byPartition.length; p++) {
+            if (byPartition[p] != null) {
+                nonEmpty.add(p);
+            }
+        }
+        List<Future<?>> futures = new ArrayList<>(nonEmpty.size());
+        for (int k = 0; k < nonEmpty.size() - 1; k++) {
+            int partition = nonEmpty.get(k);
+            futures.add(batchExecutor.submit(() -> task.run(partition, byPartition[partition])));
+        }
+        RuntimeException failure = null;
+        if (!nonEmpty.isEmpty()) {
+            int last = nonEmpty.get(nonEmpty.size() - 1);
+            try {
+                task.run(last, byPartition[last]);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new IllegalStateException("Order store partition write failed", e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while writing order store partitions", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private static List<OrderResponse> newestFirst(List<OrderResponse> merged, int limit) {
+        merged.sort(NEWEST_FIRST);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+}
@@ -0,0 +1,398 @@
+package com.retailx.orders.store.jpa;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.Order;
+import com.retailx.orders.model.OrderLine;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.repository.OrderRepository;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+import com.retailx.orders.store.OrderStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * JPA Order Store
+ * 
+ * {@link OrderStore} backed by the database through {@link OrderRepository}
+ * (RETAILX-8003).
+ * 
+ * New orders go into a write-behind buffer and the call returns without touching
+ * the database; a background task flushes the buffer every
+ * {@code flush-interval-ms}, saving up to {@code batch-size} orders per
+ * transaction so Hibernate sends them as JDBC batch inserts. Lookups by ID check
+ * the buffer first, so a created order can be read back immediately; listing and
+ * search query the database and see new orders once they are flushed. A page of
+ * orders costs two queries however large it is: one for the orders and one for
+ * the lines of all of them.
+ * 
+ * Status changes to orders still in the buffer are applied to the buffered
+ * order; otherwise they are written to the database in their own transaction
+ * before the call returns.
+ * 
+ * Creating an order never queries the database. The buffer holds at most
+ * {@code capacity} orders; when it is full, creating an order waits up to
+ * {@code offer-timeout-ms} for a flush and then fails. A batch
+ * that fails because the database is unavailable stays buffered and is retried on
+ * the next flush; otherwise its orders are retried one by one, and an order the
+ * database still rejects is dropped and counted.
+ * 
+ * METRICS:
+ * - retailx.orders.write-behind.pending - orders waiting to be flushed
+ * - retailx.orders.write-behind.flushed / failed - orders written or dropped
+ * - retailx.orders.write-behind.flush - time per batch
+ */
+public class JpaOrderStore implements OrderStore, Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JpaOrderStore.class);
+    
+    private static final int LOCK_STRIPES = 256;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "orderId");
+    
+    private final OrderRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Semaphore capacity;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final ScheduledExecutorService flushScheduler;
+    
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    
+    public JpaOrderStore(OrderRepository repository, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry, int batchSize, long flushIntervalMs, int capacity,
+                         long offerTimeoutMs) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.capacity = new Semaphore(capacity);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        
+        Gauge.builder("retailx.orders.write-behind.pending", pending, Map::size)
+            .description("Orders waiting to be written to the database")
+            .register(meterRegistry);
+        this.flushedCounter = Counter.builder("retailx.orders.write-behind.flushed")
+            .description("Orders written to the database by the write-behind buffer")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("retailx.orders.write-behind.failed")
+            .description("Orders dropped because the database rejected them")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("retailx.orders.write-behind.flush")
+            .description("Time to write one batch of orders")
+            .register(meterRegistry);
+        
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Buffers a new order without touching the database. Only IDs still in the
+     * buffer are detected as duplicates here; order IDs are generated unique, and
+     * an order whose ID is already in the database is rejected by the primary key
+     * when flushed.
+     */
+    @Override
+    public boolean insert(OrderResponse order) {
+        // Wait for room before anything else, so a full buffer does not hold up
+        // other orders
+        try {
+            if (!capacity.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Order write-behind buffer is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order write-behind buffer", e);
+        }
+        if (pending.putIfAbsent(order.getOrderId(), new PendingWrite(order, true)) != null) {
+            capacity.release();
+            return false;
+        }
+        return true;
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        PendingWrite write = pending.get(orderId);
+        if (write != null) {
+            return write.order;
+        }
+        return readOnlyTransactionTemplate.execute(status ->
+            repository.findById(orderId).map(JpaOrderStore::toResponse).orElse(null));
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        ReentrantLock lock = lockFor(orderId);
+        lock.lock();
+        try {
+            PendingWrite buffered = pending.computeIfPresent(orderId, (id, write) -> write.apply(transition));
+            if (buffered != null) {
+                return buffered.order;
+            }
+            return transactionTemplate.execute(status -> {
+                Order entity = repository.findById(orderId).orElse(null);
+                if (entity == null) {
+                    return null;
+                }
+                OrderResponse current = toResponse(entity);
+                OrderResponse updated = transition.apply(current);
+                if (updated != current) {
+                    // Written by dirty checking when the transaction commits
+                    copyState(current, updated, entity);
+                }
+                return updated;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        return search(new OrderSearchCriteria(null, null, null, null), after, limit);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        Specification<Order> specification = matching(criteria, after);
+        return readOnlyTransactionTemplate.execute(status -> {
+            List<Order> page = repository.findBy(specification,
+                query -> query.sortBy(NEWEST_FIRST).limit(limit).all());
+            return page.stream().map(JpaOrderStore::toResponse).toList();
+        });
+    }
+    
+    @Override
+    public int size() {
+        return (int) repository.count() + (int) pending.values().stream().filter(write -> write.isNew).count();
+    }
+    
+    /**
+     * Writes every buffered order to the database.
+     */
+    public void flush() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        for (PendingWrite write : pending.values()) {
+            batch.add(write);
+            if (batch.size() == batchSize) {
+                if (!writeBatch(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+    
+    @Override
+    public void close() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            logger.warn("Shutting down with {} orders not written to the database", pending.size());
+        }
+    }
+    
+    /**
+     * @return false if the database is unavailable and flushing should stop for now
+     */
+    private boolean writeBatch(List<PendingWrite> batch) {
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                repository.saveAll(batch.stream().map(PendingWrite::toEntity).toList()));
+            batch.forEach(this::written);
+            flushedCounter.increment(batch.size());
+            return true;
+        } catch (RuntimeException e) {
+            if (isUnavailable(e)) {
+                logger.warn("Database unavailable, {} orders stay buffered: {}", pending.size(), e.getMessage());
+                return false;
+            }
+            logger.warn("Batch write of {} orders failed, retrying them one by one", batch.size(), e);
+        } finally {
+            sample.stop(flushTimer);
+        }
+        
+        for (PendingWrite write : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> repository.save(write.toEntity()));
+                flushedCounter.increment();
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    return false;
+                }
+                failedCounter.increment();
+                logger.error("Dropping order {} rejected by the database", write.order.getOrderId(), e);
+            }
+            written(write);
+        }
+        return true;
+    }
+    
+    private void written(PendingWrite write) {
+        // An order changed while it was being written stays buffered, now as an update
+        boolean[] removed = new boolean[1];
+        pending.computeIfPresent(write.order.getOrderId(), (id, current) -> {
+            if (current == write) {
+                removed[0] = true;
+                return null;
+            }
+            return current.persisted();
+        });
+        if (removed[0]) {
+            capacity.release();
+        }
+    }
+    
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+            || e instanceof DataAccessResourceFailureException
+            || e instanceof CannotCreateTransactionException;
+    }
+    
+    private ReentrantLock lockFor(String orderId) {
+        return locks[(orderId.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+    
+    private static Specification<Order> matching(OrderSearchCriteria criteria, OrderKey after) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getCustomerEmail() != null) {
+                predicates.add(builder.equal(builder.lower(root.get("customerEmail")), criteria.getCustomerEmail()));
+            }
+            if (criteria.getStatus() != null) {
+                predicates.add(builder.equal(root.get("status"), criteria.getStatus()));
+            }
+            if (criteria.getCreatedFrom() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("createdAt"), criteria.getCreatedFrom()));
+            }
+            if (criteria.getCreatedTo() != null) {
+                predicates.add(builder.lessThan(root.get("createdAt"), criteria.getCreatedTo()));
+            }
+            if (after != null) {
+                // Keyset paging: strictly after the cursor in newest-first order
+                predicates.add(builder.or(
+                    builder.lessThan(root.get("createdAt"), after.getCreatedAt()),
+                    builder.and(
+                        builder.equal(root.get("createdAt"), after.getCreatedAt()),
+                        builder.lessThan(root.get("orderId"), after.getOrderId()))));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    private static OrderResponse toResponse(Order entity) {
+        return new OrderResponse(entity.getOrderId(), entity.getCustomerEmail(), toItems(entity.getItems()),
+            entity.getDeliveryAddress(), entity.getTotalAmount(), entity.getStatus(), entity.getCreatedAt(),
+            entity.getUpdatedAt(), entity.getVersion() == null ? 1 : entity.getVersion());
+    }
+    
+    private static List<CreateOrderRequest.OrderItem> toItems(List<OrderLine> lines) {
+        List<CreateOrderRequest.OrderItem> items = new ArrayList<>(lines.size());
+        for (OrderLine line : lines) {
+            items.add(line.toOrderItem());
+        }
+        return items;
+    }
+    
+    private static List<OrderLine> toLines(List<CreateOrderRequest.OrderItem> items) {
+        List<OrderLine> lines = new ArrayList<>(items.size());
+        for (CreateOrderRequest.OrderItem item : items) {
+            lines.add(OrderLine.from(item));
+        }
+        return lines;
+    }
+    
+    private static void copyState(OrderResponse current, OrderResponse order, Order entity) {
+        entity.setCustomerEmail(order.getCustomerEmail());
+        if (order.getItems() != current.getItems()) {
+            // Replacing the collection rewrites every line, so only do it on a real change
+            entity.setItems(toLines(order.getItems()));
+        }
+        entity.setDeliveryAddress(order.getDeliveryAddress());
+        entity.setTotalAmount(order.getTotalAmount());
+        entity.setStatus(order.getStatus());
+        entity.setCreatedAt(order.getCreatedAt());
+        entity.setUpdatedAt(order.getUpdatedAt());
+        entity.setVersion(order.getVersion());
+    }
+    
+    /**
+     * A buffered order and whether it still has to be inserted (rather than updated).
+     */
+    private static final class PendingWrite {
+        
+        final OrderResponse order;
+        final boolean isNew;
+        
+        PendingWrite(OrderResponse order, boolean isNew) {
+            this.order = order;
+            this.isNew = isNew;
+        }
+        
+        PendingWrite apply(UnaryOperator<OrderResponse> transition) {
+            OrderResponse updated = transition.apply(order);
+            return updated == order ? this : new PendingWrite(updated, isNew);
+        }
+        
+        PendingWrite persisted() {
+            return new PendingWrite(order, false);
+        }
+        
+        Order toEntity() {
+            Order entity = new Order(order.getOrderId(), order.getCustomerEmail(), toLines(order.getItems()),
+                order.getDeliveryAddress(), order.getTotalAmount(), order.getStatus(), order.getCreatedAt(),
+                order.getUpdatedAt(), order.getVersion());
+            if (!isNew) {
+                entity.markNotNew();
+            }
+            return entity;
+        }
+    }
+}
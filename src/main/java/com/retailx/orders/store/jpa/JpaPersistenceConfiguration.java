@@ -0,0 +1,30 @@
+package com.retailx.orders.store.jpa;
+
+import com.retailx.orders.model.Order;
+import com.retailx.orders.repository.OrderRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * JPA Persistence Configuration
+ * 
+ * Sets up the database only for {@code retailx.orders.persistence.mode=jpa}.
+ * The DataSource, Hibernate and Spring Data JPA auto-configurations are excluded
+ * on {@link com.retailx.orders.OrdersApiApplication}, so the memory and wal modes
+ * open no connection pool and create no database file, and several instances can
+ * run side by side from one working directory. In jpa mode this configuration
+ * imports the DataSource and Hibernate configurations and enables the order
+ * repository.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "retailx.orders.persistence.mode", havingValue = "jpa")
+@Import({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@EntityScan(basePackageClasses = Order.class)
+@EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+public class JpaPersistenceConfiguration {
+}
@@ -0,0 +1,594 @@
+package com.retailx.orders.store.offheap;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.store.InMemoryOrderStore;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Off-Heap Order Store
+ * 
+ * {@link InMemoryOrderStore} that keeps orders outside the Java heap, so that
+ * millions of orders do not mean millions of long-lived objects for the garbage
+ * collector to trace. Each order is one {@link OrderRecordLayout} record in a
+ * direct {@link ByteBuffer} segment; segments start at 1 MB and double up to
+ * {@code maxSegmentSize}. {@link OrderResponse}s are decoded from the record on
+ * every read and are not retained.
+ * 
+ * The only per-order state on the heap is in primitive arrays: an ID index
+ * (open addressing over 64-bit ID hashes and record locations) and a creation
+ * index (creation time, location, email hash and status, sorted by
+ * {@link OrderKey}), together about 60 bytes per order with no objects. Listing
+ * walks the creation index; search filters it on the email hash and status
+ * before decoding candidates, and re-checks every candidate in full.
+ * 
+ * A status change (status, update time and version) is written into the record
+ * in place. Any other change writes a new record and leaves the old one as
+ * garbage, which is not reclaimed; no API changes orders that way today.
+ * 
+ * Readers take no lock: they read under an optimistic {@link StampedLock} stamp
+ * and read again under the read lock only if a write happened meanwhile. Writes
+ * hold the write lock for the copy of one record and the index update. Updates
+ * of the same order are also serialized by a lock stripe around the transition,
+ * so a transition runs once, against the current order, as in
+ * {@link com.retailx.orders.store.ConcurrentOrderStore}.
+ * 
+ * Direct memory is released when the segments are garbage collected after
+ * {@link #close()}; size {@code -XX:MaxDirectMemorySize} for the order data.
+ */
+public class OffHeapOrderStore implements InMemoryOrderStore, Closeable {
+    
+    private static final int INITIAL_SEGMENT_SIZE = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int UPDATE_LOCK_STRIPES = 256;
+    // Creation index entries examined per lock acquisition while searching
+    private static final int SCAN_CHUNK = 4096;
+    private static final byte ANY_STATUS = Byte.MIN_VALUE;
+    
+    private final int maxSegmentSize;
+    private final StampedLock lock = new StampedLock();
+    private final ReentrantLock[] updateLocks = new ReentrantLock[UPDATE_LOCK_STRIPES];
+    
+    // Everything below is guarded by lock
+    
+    // A location is (segment index << 32) | offset of the record in the segment
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private ByteBuffer currentSegment;
+    private int writeOffset;
+    
+    // ID index; a location is stored + 1 so that 0 marks an empty slot
+    private long[] slotHashes = new long[INITIAL_CAPACITY];
+    private long[] slotLocations = new long[INITIAL_CAPACITY];
+    
+    // Creation index, sorted by creation time, then order ID
+    private long[] createdNanos = new long[INITIAL_CAPACITY];
+    private long[] createdLocations = new long[INITIAL_CAPACITY];
+    private int[] emailHashes = new int[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int count;
+    
+    private volatile long allocatedBytes;
+    private volatile long usedBytes;
+    private volatile long garbageBytes;
+    
+    public OffHeapOrderStore(int maxSegmentSize) {
+        this.maxSegmentSize = Math.max(INITIAL_SEGMENT_SIZE, maxSegmentSize);
+        for (int i = 0; i < UPDATE_LOCK_STRIPES; i++) {
+            updateLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    @Override
+    public boolean insert(OrderResponse order) {
+        return insertAll(List.of(order))[0];
+    }
+    
+    /**
+     * Encodes the batch first and then stores it under one write lock.
+     */
+    @Override
+    public boolean[] insertAll(List<OrderResponse> orders) {
+        byte[][] records = new byte[orders.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = OrderRecordLayout.encode(orders.get(i));
+        }
+        boolean[] inserted = new boolean[records.length];
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < records.length; i++) {
+                OrderResponse order = orders.get(i);
+                String orderId = order.getOrderId();
+                long hash = hash(orderId);
+                if (findSlot(orderId, hash) >= 0) {
+                    continue;
+                }
+                long location = append(records[i]);
+                putSlot(hash, location);
+                addCreated(OrderRecordLayout.createdAtNanos(order.getCreatedAt()), orderId, location,
+                    emailHash(order.getCustomerEmail()), OrderRecordLayout.status(order));
+                inserted[i] = true;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return inserted;
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        long hash = hash(orderId);
+        return read(() -> {
+            int slot = findSlot(orderId, hash);
+            return slot < 0 ? null : decode(slotLocations[slot] - 1);
+        });
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        ReentrantLock updateLock = updateLocks[(orderId.hashCode() & Integer.MAX_VALUE) % UPDATE_LOCK_STRIPES];
+        updateLock.lock();
+        try {
+            OrderResponse current = get(orderId);
+            if (current == null) {
+                return null;
+            }
+            OrderResponse updated = transition.apply(current);
+            if (updated == current) {
+                return current;
+            }
+            boolean inPlace = OrderEvent.isStatusChange(current, updated);
+            byte[] record = inPlace ? null : OrderRecordLayout.encode(updated);
+            long hash = hash(orderId);
+            long stamp = lock.writeLock();
+            try {
+                int slot = findSlot(orderId, hash);
+                long location = slotLocations[slot] - 1;
+                int position = createdPosition(OrderRecordLayout.createdAtNanos(current.getCreatedAt()), orderId);
+                if (inPlace) {
+                    OrderRecordLayout.putStatusFields(segment(location), offset(location), updated);
+                    statuses[position] = OrderRecordLayout.status(updated);
+                } else {
+                    garbageBytes += OrderRecordLayout.length(segment(location), offset(location));
+                    location = append(record);
+                    slotLocations[slot] = location + 1;
+                    removeCreated(position);
+                    addCreated(OrderRecordLayout.createdAtNanos(updated.getCreatedAt()), orderId, location,
+                        emailHash(updated.getCustomerEmail()), OrderRecordLayout.status(updated));
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            return updated;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean remove(String orderId) {
+        ReentrantLock updateLock = updateLocks[(orderId.hashCode() & Integer.MAX_VALUE) % UPDATE_LOCK_STRIPES];
+        updateLock.lock();
+        try {
+            long hash = hash(orderId);
+            long stamp = lock.writeLock();
+            try {
+                int slot = findSlot(orderId, hash);
+                if (slot < 0) {
+                    return false;
+                }
+                long location = slotLocations[slot] - 1;
+                ByteBuffer segment = segment(location);
+                int offset = offset(location);
+                OrderResponse order = OrderRecordLayout.decode(segment, offset);
+                removeCreated(createdPosition(OrderRecordLayout.createdAtNanos(order.getCreatedAt()), orderId));
+                removeSlot(slot);
+                garbageBytes += OrderRecordLayout.length(segment, offset);
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        return search(new OrderSearchCriteria(null, null, null, null), after, limit);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        // Same bounds as the concurrent store: created at or after "from" and
+        // strictly before both "after" and "to"
+        long fromNanos = criteria.getCreatedFrom() == null
+            ? Long.MIN_VALUE
+            : OrderRecordLayout.createdAtNanos(criteria.getCreatedFrom());
+        OrderKey before = after;
+        if (criteria.getCreatedTo() != null) {
+            OrderKey to = new OrderKey(criteria.getCreatedTo(), "");
+            if (before == null || to.compareTo(before) < 0) {
+                before = to;
+            }
+        }
+        byte status = criteria.getStatus() == null ? ANY_STATUS : (byte) criteria.getStatus().ordinal();
+        String email = criteria.getCustomerEmail();
+        int emailHash = email == null ? 0 : email.hashCode();
+        
+        List<OrderResponse> page = new ArrayList<>(Math.min(limit, 1024));
+        long beforeNanos = before == null ? Long.MAX_VALUE : OrderRecordLayout.createdAtNanos(before.getCreatedAt());
+        String beforeId = before == null ? null : before.getOrderId();
+        while (page.size() < limit) {
+            long chunkBeforeNanos = beforeNanos;
+            String chunkBeforeId = beforeId;
+            int wanted = limit - page.size();
+            ScanChunk chunk = read(() -> {
+                ScanChunk result = new ScanChunk();
+                int end = chunkBeforeId == null ? count : lowerBound(chunkBeforeNanos, chunkBeforeId);
+                int start = Math.max(0, end - SCAN_CHUNK);
+                int i = end - 1;
+                for (; i >= start && result.orders.size() < wanted; i--) {
+                    if (createdNanos[i] < fromNanos) {
+                        result.exhausted = true;
+                        return result;
+                    }
+                    if ((status != ANY_STATUS && statuses[i] != status)
+                            || (email != null && emailHashes[i] != emailHash)) {
+                        continue;
+                    }
+                    OrderResponse order = decode(createdLocations[i]);
+                    if (criteria.matches(order)) {
+                        result.orders.add(order);
+                    }
+                }
+                if (i < 0) {
+                    result.exhausted = true;
+                } else {
+                    // Resume before the last entry examined
+                    long last = createdLocations[i + 1];
+                    result.nextNanos = createdNanos[i + 1];
+                    result.nextId = OrderRecordLayout.orderId(segment(last), offset(last));
+                }
+                return result;
+            });
+            page.addAll(chunk.orders);
+            if (chunk.exhausted) {
+                break;
+            }
+            beforeNanos = chunk.nextNanos;
+            beforeId = chunk.nextId;
+        }
+        return page;
+    }
+    
+    @Override
+    public int size() {
+        return read(() -> count);
+    }
+    
+    /**
+     * Visits every stored order in creation order, decoding a chunk at a time.
+     * Weakly consistent: changes made while iterating may or may not be seen.
+     */
+    @Override
+    public void forEach(Consumer<OrderResponse> action) {
+        long afterNanos = Long.MIN_VALUE;
+        String afterId = null;
+        while (true) {
+            long chunkAfterNanos = afterNanos;
+            String chunkAfterId = afterId;
+            List<OrderResponse> chunk = read(() -> {
+                int start = 0;
+                if (chunkAfterId != null) {
+                    start = lowerBound(chunkAfterNanos, chunkAfterId);
+                    if (start < count && compareAt(start, chunkAfterNanos, chunkAfterId) == 0) {
+                        start++;
+                    }
+                }
+                List<OrderResponse> orders = new ArrayList<>(Math.min(SCAN_CHUNK, count - start));
+                for (int i = start; i < count && orders.size() < SCAN_CHUNK; i++) {
+                    orders.add(decode(createdLocations[i]));
+                }
+                return orders;
+            });
+            if (chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(action);
+            OrderResponse last = chunk.get(chunk.size() - 1);
+            afterNanos = OrderRecordLayout.createdAtNanos(last.getCreatedAt());
+            afterId = last.getOrderId();
+        }
+    }
+    
+    /**
+     * Off-heap bytes reserved by segments.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    
+    /**
+     * Off-heap bytes holding records, including replaced ones.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+    
+    /**
+     * Off-heap bytes of records replaced by a later record of the same order, or removed.
+     */
+    public long getGarbageBytes() {
+        return garbageBytes;
+    }
+    
+    /**
+     * Heap bytes of the ID and creation indexes.
+     */
+    public long getIndexBytes() {
+        return read(() -> (long) slotHashes.length * 2 * Long.BYTES
+            + (long) createdNanos.length * (2 * Long.BYTES + Integer.BYTES + 1));
+    }
+    
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            segments.clear();
+            currentSegment = null;
+            slotHashes = new long[INITIAL_CAPACITY];
+            slotLocations = new long[INITIAL_CAPACITY];
+            createdNanos = new long[0];
+            createdLocations = new long[0];
+            emailHashes = new int[0];
+            statuses = new byte[0];
+            count = 0;
+            allocatedBytes = 0;
+            usedBytes = 0;
+            garbageBytes = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Runs a reader under an optimistic stamp and, if a write intervened (which
+     * may also have made the reader fail on a half-written record), again under
+     * the read lock.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private OrderResponse decode(long location) {
+        return OrderRecordLayout.decode(segment(location), offset(location));
+    }
+    
+    private ByteBuffer segment(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+    
+    private static int offset(long location) {
+        return (int) location;
+    }
+    
+    /**
+     * Copies a record into the current segment, starting a new one if it does
+     * not fit.
+     * 
+     * @return the record's location
+     */
+    private long append(byte[] record) {
+        if (currentSegment == null || writeOffset + record.length > currentSegment.capacity()) {
+            if (record.length > maxSegmentSize) {
+                throw new IllegalArgumentException("Order record of " + record.length
+                    + " bytes does not fit in an off-heap segment of " + maxSegmentSize + " bytes");
+            }
+            int size = currentSegment == null
+                ? INITIAL_SEGMENT_SIZE
+                : (int) Math.min(maxSegmentSize, 2L * currentSegment.capacity());
+            currentSegment = ByteBuffer.allocateDirect(size);
+            segments.add(currentSegment);
+            writeOffset = 0;
+            allocatedBytes += size;
+        }
+        currentSegment.put(writeOffset, record);
+        long location = ((long) (segments.size() - 1) << 32) | writeOffset;
+        writeOffset += record.length;
+        usedBytes += record.length;
+        return location;
+    }
+    
+    /**
+     * Slot of the order in the ID index, or -1.
+     */
+    private int findSlot(String orderId, long hash) {
+        long[] hashes = slotHashes;
+        long[] locations = slotLocations;
+        int mask = hashes.length - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            long location = locations[slot];
+            if (location == 0) {
+                return -1;
+            }
+            if (hashes[slot] == hash
+                    && orderId.equals(OrderRecordLayout.orderId(segment(location - 1), offset(location - 1)))) {
+                return slot;
+            }
+        }
+    }
+    
+    private void putSlot(long hash, long location) {
+        if (count + 1 > slotHashes.length * LOAD_FACTOR) {
+            long[] oldHashes = slotHashes;
+            long[] oldLocations = slotLocations;
+            slotHashes = new long[oldHashes.length * 2];
+            slotLocations = new long[oldHashes.length * 2];
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldLocations[i] != 0) {
+                    placeSlot(oldHashes[i], oldLocations[i]);
+                }
+            }
+        }
+        placeSlot(hash, location + 1);
+    }
+    
+    private void placeSlot(long hash, long storedLocation) {
+        int mask = slotHashes.length - 1;
+        int slot = (int) hash & mask;
+        while (slotLocations[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slotHashes[slot] = hash;
+        slotLocations[slot] = storedLocation;
+    }
+    
+    /**
+     * Empties a slot and moves later entries of its probe run back, so that
+     * every entry stays reachable from its home slot without tombstones.
+     */
+    private void removeSlot(int slot) {
+        int mask = slotHashes.length - 1;
+        int hole = slot;
+        for (int i = (hole + 1) & mask; slotLocations[i] != 0; i = (i + 1) & mask) {
+            int home = (int) slotHashes[i] & mask;
+            // Move the entry unless its home lies cyclically after the hole
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                slotHashes[hole] = slotHashes[i];
+                slotLocations[hole] = slotLocations[i];
+                hole = i;
+            }
+        }
+        slotHashes[hole] = 0;
+        slotLocations[hole] = 0;
+    }
+    
+    private void addCreated(long nanos, String orderId, long location, int emailHash, byte status) {
+        // New orders are almost always the newest, and go at the end
+        int position = count == 0 || compareAt(count - 1, nanos, orderId) < 0 ? count : lowerBound(nanos, orderId);
+        if (count == createdNanos.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, createdNanos.length * 2);
+            createdNanos = Arrays.copyOf(createdNanos, capacity);
+            createdLocations = Arrays.copyOf(createdLocations, capacity);
+            emailHashes = Arrays.copyOf(emailHashes, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        int moved = count - position;
+        if (moved > 0) {
+            System.arraycopy(createdNanos, position, createdNanos, position + 1, moved);
+            System.arraycopy(createdLocations, position, createdLocations, position + 1, moved);
+            System.arraycopy(emailHashes, position, emailHashes, position + 1, moved);
+            System.arraycopy(statuses, position, statuses, position + 1, moved);
+        }
+        createdNanos[position] = nanos;
+        createdLocations[position] = location;
+        emailHashes[position] = emailHash;
+        statuses[position] = status;
+        count++;
+    }
+    
+    private void removeCreated(int position) {
+        int moved = count - position - 1;
+        System.arraycopy(createdNanos, position + 1, createdNanos, position, moved);
+        System.arraycopy(createdLocations, position + 1, createdLocations, position, moved);
+        System.arraycopy(emailHashes, position + 1, emailHashes, position, moved);
+        System.arraycopy(statuses, position + 1, statuses, position, moved);
+        count--;
+    }
+    
+    private int createdPosition(long nanos, String orderId) {
+        int position = lowerBound(nanos, orderId);
+        if (position == count || compareAt(position, nanos, orderId) != 0) {
+            throw new IllegalStateException("Order " + orderId + " missing from the creation index");
+        }
+        return position;
+    }
+    
+    /**
+     * First position of the creation index not before (nanos, orderId).
+     */
+    private int lowerBound(long nanos, String orderId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareAt(middle, nanos, orderId) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private int compareAt(int position, long nanos, String orderId) {
+        int result = Long.compare(createdNanos[position], nanos);
+        if (result != 0) {
+            return result;
+        }
+        long location = createdLocations[position];
+        return OrderRecordLayout.orderId(segment(location), offset(location)).compareTo(orderId);
+    }
+    
+    private static int emailHash(String email) {
+        return email == null ? 0 : OrderSearchCriteria.normalizeEmail(email).hashCode();
+    }
+    
+    /**
+     * 64-bit hash of an order ID; with 64 bits, unequal IDs almost never share
+     * a hash, so a lookup decodes about one stored ID.
+     */
+    private static long hash(String orderId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < orderId.length(); i++) {
+            hash = (hash ^ orderId.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    /**
+     * Matches found in one chunk of a search, and where the next chunk starts.
+     */
+    private static final class ScanChunk {
+        
+        final List<OrderResponse> orders = new ArrayList<>();
+        boolean exhausted;
+        long nextNanos;
+        String nextId;
+    }
+}
@@ -0,0 +1,307 @@
+package com.retailx.orders.store.offheap;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.OrderResponse;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Order Record Layout
+ * 
+ * Binary layout of an order in an {@link OffHeapOrderStore} segment. The fields
+ * a status change touches have fixed offsets, so a status change is written in
+ * place; everything else follows as variable-length fields:
+ * 
+ * - 0: int - record length in bytes
+ * - 4: long - version
+ * - 12: byte - status ordinal, -1 for none
+ * - 13: long + int - update time as epoch second and nanosecond (UTC)
+ * - 25: long + int - creation time, likewise
+ * - 37: order ID, customer email, delivery address, total amount, items
+ * 
+ * Strings are UTF-8 prefixed with a varint of length + 1 (0 for null). Decimals
+ * are a tag byte followed by a zigzag varint unscaled value (or, beyond 64
+ * bits, its length-prefixed bytes) and a zigzag varint scale. Item lists are a
+ * varint of count + 1, each item its product ID, quantity and price. A typical
+ * order with two items takes about 160 bytes.
+ * 
+ * Decoding checks every length against the record bounds, so reading a record
+ * that is being overwritten fails with an exception rather than allocating
+ * arbitrary amounts of memory.
+ */
+final class OrderRecordLayout {
+    
+    static final int LENGTH_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int STATUS_OFFSET = 12;
+    static final int UPDATED_AT_OFFSET = 13;
+    static final int CREATED_AT_OFFSET = 25;
+    static final int ORDER_ID_OFFSET = 37;
+    
+    private static final long NULL_SECOND = Long.MIN_VALUE;
+    private static final byte NULL_STATUS = -1;
+    private static final byte NULL_DECIMAL = 0;
+    private static final byte LONG_DECIMAL = 1;
+    private static final byte BIG_DECIMAL = 2;
+    
+    private static final OrderResponse.OrderStatus[] STATUSES = OrderResponse.OrderStatus.values();
+    
+    private OrderRecordLayout() {
+    }
+    
+    static byte[] encode(OrderResponse order) {
+        List<CreateOrderRequest.OrderItem> items = order.getItems();
+        Writer writer = new Writer(96 + 32 * (items == null ? 0 : items.size()));
+        writer.position = ORDER_ID_OFFSET;
+        writer.putString(order.getOrderId());
+        writer.putString(order.getCustomerEmail());
+        writer.putString(order.getDeliveryAddress());
+        writer.putDecimal(order.getTotalAmount());
+        if (items == null) {
+            writer.putVarint(0);
+        } else {
+            writer.putVarint(items.size() + 1L);
+            for (CreateOrderRequest.OrderItem item : items) {
+                writer.putString(item.getProductId());
+                writer.putVarint(item.getQuantity() == null ? 0 : zigzag(item.getQuantity()) + 1);
+                writer.putDecimal(item.getPrice());
+            }
+        }
+        byte[] record = Arrays.copyOf(writer.bytes, writer.position);
+        ByteBuffer header = ByteBuffer.wrap(record);
+        header.putInt(LENGTH_OFFSET, record.length);
+        putStatusFields(header, 0, order);
+        putTimestamp(header, CREATED_AT_OFFSET, order.getCreatedAt());
+        return record;
+    }
+    
+    /**
+     * Writes the fields a status change touches: version, status and update time.
+     */
+    static void putStatusFields(ByteBuffer segment, int offset, OrderResponse order) {
+        segment.putLong(offset + VERSION_OFFSET, order.getVersion());
+        segment.put(offset + STATUS_OFFSET, status(order));
+        putTimestamp(segment, offset + UPDATED_AT_OFFSET, order.getUpdatedAt());
+    }
+    
+    static int length(ByteBuffer segment, int offset) {
+        return segment.getInt(offset + LENGTH_OFFSET);
+    }
+    
+    static byte status(OrderResponse order) {
+        return order.getStatus() == null ? NULL_STATUS : (byte) order.getStatus().ordinal();
+    }
+    
+    static byte status(ByteBuffer segment, int offset) {
+        return segment.get(offset + STATUS_OFFSET);
+    }
+    
+    static String orderId(ByteBuffer segment, int offset) {
+        return new Reader(segment, offset).getString();
+    }
+    
+    static OrderResponse decode(ByteBuffer segment, int offset) {
+        Reader reader = new Reader(segment, offset);
+        String orderId = reader.getString();
+        String customerEmail = reader.getString();
+        String deliveryAddress = reader.getString();
+        BigDecimal totalAmount = reader.getDecimal();
+        List<CreateOrderRequest.OrderItem> items = null;
+        int itemCount = reader.getLength();
+        if (itemCount >= 0) {
+            items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                String productId = reader.getString();
+                long quantity = reader.getVarint();
+                BigDecimal price = reader.getDecimal();
+                items.add(new CreateOrderRequest.OrderItem(productId,
+                    quantity == 0 ? null : (int) unzigzag(quantity - 1), price));
+            }
+        }
+        byte status = segment.get(offset + STATUS_OFFSET);
+        return new OrderResponse(orderId, customerEmail, items, deliveryAddress, totalAmount,
+            status == NULL_STATUS ? null : STATUSES[status],
+            getTimestamp(segment, offset + CREATED_AT_OFFSET), getTimestamp(segment, offset + UPDATED_AT_OFFSET),
+            segment.getLong(offset + VERSION_OFFSET));
+    }
+    
+    /**
+     * Creation time as nanoseconds since the epoch, the order of the creation index.
+     */
+    static long createdAtNanos(LocalDateTime createdAt) {
+        return createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + createdAt.getNano();
+    }
+    
+    private static void putTimestamp(ByteBuffer segment, int offset, LocalDateTime value) {
+        segment.putLong(offset, value == null ? NULL_SECOND : value.toEpochSecond(ZoneOffset.UTC));
+        segment.putInt(offset + Long.BYTES, value == null ? 0 : value.getNano());
+    }
+    
+    private static LocalDateTime getTimestamp(ByteBuffer segment, int offset) {
+        long epochSecond = segment.getLong(offset);
+        return epochSecond == NULL_SECOND
+            ? null
+            : LocalDateTime.ofEpochSecond(epochSecond, segment.getInt(offset + Long.BYTES), ZoneOffset.UTC);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    /**
+     * Growable byte array for encoding one record.
+     */
+    private static final class Writer {
+        
+        private byte[] bytes;
+        private int position;
+        
+        Writer(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+        
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+        
+        void putBytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, position, value.length);
+            position += value.length;
+        }
+        
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1L);
+            putBytes(utf8);
+        }
+        
+        void putDecimal(BigDecimal value) {
+            ensure(1);
+            if (value == null) {
+                bytes[position++] = NULL_DECIMAL;
+                return;
+            }
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < Long.SIZE) {
+                bytes[position++] = LONG_DECIMAL;
+                putVarint(zigzag(unscaled.longValue()));
+            } else {
+                bytes[position++] = BIG_DECIMAL;
+                byte[] magnitude = unscaled.toByteArray();
+                putVarint(magnitude.length);
+                putBytes(magnitude);
+            }
+            putVarint(zigzag(value.scale()));
+        }
+        
+        private void ensure(int count) {
+            if (bytes.length - position < count) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + count));
+            }
+        }
+    }
+    
+    /**
+     * Reads the variable-length fields of one record with absolute gets, so
+     * concurrent readers can share a segment.
+     */
+    private static final class Reader {
+        
+        private final ByteBuffer segment;
+        private final int end;
+        private int position;
+        
+        Reader(ByteBuffer segment, int offset) {
+            this.segment = segment;
+            this.end = offset + segment.getInt(offset + LENGTH_OFFSET);
+            this.position = offset + ORDER_ID_OFFSET;
+            if (end < position || end > segment.capacity()) {
+                throw new IllegalStateException("Corrupt order record at offset " + offset);
+            }
+        }
+        
+        long getVarint() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Corrupt order record varint");
+        }
+        
+        /**
+         * Reads a varint of length + 1; -1 for null.
+         */
+        int getLength() {
+            long length = getVarint() - 1;
+            if (length < -1 || length > end - position) {
+                throw new IllegalStateException("Corrupt order record length " + length);
+            }
+            return (int) length;
+        }
+        
+        String getString() {
+            int length = getLength();
+            if (length < 0) {
+                return null;
+            }
+            return new String(getBytes(length), StandardCharsets.UTF_8);
+        }
+        
+        BigDecimal getDecimal() {
+            byte tag = next();
+            BigInteger unscaled;
+            if (tag == NULL_DECIMAL) {
+                return null;
+            } else if (tag == LONG_DECIMAL) {
+                unscaled = BigInteger.valueOf(unzigzag(getVarint()));
+            } else {
+                int length = (int) getVarint();
+                if (length < 0 || length > end - position) {
+                    throw new IllegalStateException("Corrupt order record decimal");
+                }
+                unscaled = new BigInteger(getBytes(length));
+            }
+            return new BigDecimal(unscaled, (int) unzigzag(getVarint()));
+        }
+        
+        private byte[] getBytes(int length) {
+            byte[] bytes = new byte[length];
+            segment.get(position, bytes);
+            position += length;
+            return bytes;
+        }
+        
+        private byte next() {
+            if (position >= end) {
+                throw new IllegalStateException("Order record ends early");
+            }
+            return segment.get(position++);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.retailx.orders.store.wal;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.OrderResponse;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order Record Codec
+ * 
+ * Compact binary encoding of the records kept in the write-ahead log and in
+ * snapshots. Every record starts with a type byte:
+ * 
+ * - ORDER: the full state of one order (order creation, snapshot entries)
+ * - STATUS: order ID, new status and update time (status changes)
+ * - END: number of orders in a snapshot, written last so a truncated snapshot
+ *   can be told apart from a complete one
+ * 
+ * Every record carries absolute values, so applying a record more than once
+ * leaves the order in the same state. Strings are length-prefixed UTF-8 and
+ * null fields are encoded explicitly, since item fields are optional.
+ * 
+ * The order version is the last field of ORDER and STATUS records. Records
+ * written before versions existed end without it; they decode with
+ * {@link #UNKNOWN_VERSION}.
+ */
+final class OrderRecordCodec {
+    
+    static final byte ORDER = 1;
+    static final byte STATUS = 2;
+    static final byte END = 3;
+    
+    static final long UNKNOWN_VERSION = 0;
+    
+    private static final int NULL_LENGTH = -1;
+    
+    private OrderRecordCodec() {
+    }
+    
+    static byte[] encodeOrder(OrderResponse order) {
+        List<CreateOrderRequest.OrderItem> items = order.getItems();
+        Writer writer = new Writer(128 + 48 * (items == null ? 0 : items.size()));
+        writer.putByte(ORDER);
+        writer.putString(order.getOrderId());
+        writer.putString(order.getCustomerEmail());
+        writer.putString(order.getDeliveryAddress());
+        writer.putDecimal(order.getTotalAmount());
+        writer.putString(order.getStatus() == null ? null : order.getStatus().name());
+        writer.putTimestamp(order.getCreatedAt());
+        writer.putTimestamp(order.getUpdatedAt());
+        if (items == null) {
+            writer.putInt(NULL_LENGTH);
+        } else {
+            writer.putInt(items.size());
+            for (CreateOrderRequest.OrderItem item : items) {
+                writer.putString(item.getProductId());
+                writer.putNullableInt(item.getQuantity());
+                writer.putDecimal(item.getPrice());
+            }
+        }
+        writer.putLong(order.getVersion());
+        return writer.toByteArray();
+    }
+    
+    static byte[] encodeStatus(OrderResponse order) {
+        Writer writer = new Writer(72);
+        writer.putByte(STATUS);
+        writer.putString(order.getOrderId());
+        writer.putString(order.getStatus().name());
+        writer.putTimestamp(order.getUpdatedAt());
+        writer.putLong(order.getVersion());
+        return writer.toByteArray();
+    }
+    
+    static byte[] encodeEnd(long orderCount) {
+        Writer writer = new Writer(9);
+        writer.putByte(END);
+        writer.putLong(orderCount);
+        return writer.toByteArray();
+    }
+    
+    /**
+     * Decodes an ORDER record; the buffer is positioned after the type byte.
+     */
+    static OrderResponse decodeOrder(ByteBuffer buffer) {
+        String orderId = getString(buffer);
+        String customerEmail = getString(buffer);
+        String deliveryAddress = getString(buffer);
+        BigDecimal totalAmount = getDecimal(buffer);
+        String status = getString(buffer);
+        LocalDateTime createdAt = getTimestamp(buffer);
+        LocalDateTime updatedAt = getTimestamp(buffer);
+        int itemCount = buffer.getInt();
+        List<CreateOrderRequest.OrderItem> items = null;
+        if (itemCount != NULL_LENGTH) {
+            items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                String productId = getString(buffer);
+                Integer quantity = getNullableInt(buffer);
+                BigDecimal price = getDecimal(buffer);
+                items.add(new CreateOrderRequest.OrderItem(productId, quantity, price));
+            }
+        }
+        long version = getVersion(buffer);
+        return new OrderResponse(orderId, customerEmail, items, deliveryAddress, totalAmount,
+            status == null ? null : OrderResponse.OrderStatus.valueOf(status), createdAt, updatedAt,
+            version == UNKNOWN_VERSION ? 1 : version);
+    }
+    
+    /**
+     * Decodes a STATUS record into an order carrying only the ID, status, update
+     * time and version ({@link #UNKNOWN_VERSION} for records written without
+     * one); the buffer is positioned after the type byte.
+     */
+    static OrderResponse decodeStatus(ByteBuffer buffer) {
+        OrderResponse change = new OrderResponse();
+        change.setOrderId(getString(buffer));
+        change.setStatus(OrderResponse.OrderStatus.valueOf(getString(buffer)));
+        change.setUpdatedAt(getTimestamp(buffer));
+        change.setVersion(getVersion(buffer));
+        return change;
+    }
+    
+    /**
+     * Decodes an END record; the buffer is positioned after the type byte.
+     */
+    static long decodeEnd(ByteBuffer buffer) {
+        return buffer.getLong();
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static long getVersion(ByteBuffer buffer) {
+        return buffer.remaining() >= Long.BYTES ? buffer.getLong() : UNKNOWN_VERSION;
+    }
+    
+    private static Integer getNullableInt(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getInt();
+    }
+    
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), buffer.getInt());
+    }
+    
+    private static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long epochSecond = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, buffer.getInt(), ZoneOffset.UTC);
+    }
+    
+    /**
+     * Growable big-endian byte buffer for encoding one record.
+     */
+    private static final class Writer {
+        
+        private ByteBuffer buffer;
+        
+        Writer(int initialCapacity) {
+            this.buffer = ByteBuffer.allocate(initialCapacity);
+        }
+        
+        void putByte(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+        
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+        
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+        
+        void putNullableInt(Integer value) {
+            if (value == null) {
+                putByte((byte) 0);
+            } else {
+                putByte((byte) 1);
+                putInt(value);
+            }
+        }
+        
+        void putString(String value) {
+            if (value == null) {
+                putInt(NULL_LENGTH);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        
+        void putDecimal(BigDecimal value) {
+            if (value == null) {
+                putInt(NULL_LENGTH);
+                return;
+            }
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            ensure(8 + unscaled.length);
+            buffer.putInt(unscaled.length);
+            buffer.put(unscaled);
+            buffer.putInt(value.scale());
+        }
+        
+        void putTimestamp(LocalDateTime value) {
+            if (value == null) {
+                putByte((byte) 0);
+                return;
+            }
+            ensure(13);
+            buffer.put((byte) 1);
+            buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(value.getNano());
+        }
+        
+        byte[] toByteArray() {
+            byte[] bytes = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(bytes);
+            return bytes;
+        }
+        
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.retailx.orders.store.wal;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.events.outbox.OrderOutbox;
+import com.retailx.orders.store.InMemoryOrderStore;
+import com.retailx.orders.store.PartitionedOrderStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Partitioned WAL Order Store
+ * 
+ * {@link PartitionedOrderStore} of {@link WalOrderStore}s, each with its own
+ * write-ahead log, group commit and snapshots, so partitions recover, sync and
+ * snapshot independently and in parallel with each other.
+ * 
+ * With one partition the store uses {@code directory} itself, as an unpartitioned
+ * {@link WalOrderStore} does; with more, partition N lives in
+ * {@code directory/partition-NN}. The partition count is recorded in
+ * {@code directory/partitions} and the store refuses to open data written with
+ * a different count, since orders would no longer be found in their partition.
+ * 
+ * The partitions' logs are merged into one {@link OrderOutbox}. The sequence of
+ * an event is {@code (partition << 48) | lsn}: unique, and increasing within a
+ * partition, which holds all events of an order. Reads take events from the
+ * partitions in turn, and acknowledging the last event of a read acknowledges
+ * what was read from every partition; each partition keeps its own outbox cursor.
+ */
+public class PartitionedWalOrderStore extends PartitionedOrderStore implements OrderOutbox {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedWalOrderStore.class);
+    
+    private static final String PARTITIONS_FILE = "partitions";
+    private static final int PARTITION_SHIFT = 48;
+    private static final long LSN_MASK = (1L << PARTITION_SHIFT) - 1;
+    
+    private final List<WalOrderStore> partitions;
+    
+    // Outbox read state; the relay is the only reader
+    private final long[] readLsns;
+    private long lastReadPosition = -1;
+    private long lastAcknowledgedPosition = -1;
+    private int nextReadPartition;
+    
+    private PartitionedWalOrderStore(List<WalOrderStore> partitions) {
+        super(partitions);
+        this.partitions = partitions;
+        this.readLsns = new long[partitions.size()];
+        for (int p = 0; p < readLsns.length; p++) {
+            readLsns[p] = partitions.get(p).getAcknowledgedPosition();
+        }
+    }
+    
+    /**
+     * @param memoryStores creates the in-memory store of each partition
+     */
+    public static PartitionedWalOrderStore open(Path directory, int partitionCount, int segmentSize,
+                                                long snapshotIntervalMs, long snapshotMinRecords,
+                                                Supplier<InMemoryOrderStore> memoryStores) throws IOException {
+        if (partitionCount < 1 || partitionCount > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Order store partition count must be between 1 and "
+                + Short.MAX_VALUE + ": " + partitionCount);
+        }
+        Files.createDirectories(directory);
+        checkPartitionCount(directory, partitionCount);
+        
+        List<WalOrderStore> partitions = new ArrayList<>(partitionCount);
+        try {
+            for (int p = 0; p < partitionCount; p++) {
+                Path partitionDirectory = partitionCount == 1
+                    ? directory
+                    : directory.resolve(String.format("partition-%02d", p));
+                partitions.add(new WalOrderStore(partitionDirectory, segmentSize, snapshotIntervalMs,
+                    snapshotMinRecords, memoryStores.get()));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (WalOrderStore partition : partitions) {
+                try {
+                    partition.close();
+                } catch (IOException | RuntimeException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            throw e;
+        }
+        return new PartitionedWalOrderStore(partitions);
+    }
+    
+    /**
+     * Writes a snapshot of every partition.
+     */
+    public void snapshot() throws IOException {
+        for (WalOrderStore partition : partitions) {
+            partition.snapshot();
+        }
+    }
+    
+    /**
+     * Continues after the last read when {@code position} is its last event, and
+     * otherwise (first read, or the relay retrying a batch it could not deliver)
+     * starts over after the acknowledged events.
+     */
+    @Override
+    public synchronized List<OrderEvent> read(long position, int limit) {
+        if (position != lastReadPosition) {
+            for (int p = 0; p < readLsns.length; p++) {
+                readLsns[p] = partitions.get(p).getAcknowledgedPosition();
+            }
+        }
+        List<OrderEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        // Starting with a different partition each time keeps a busy partition
+        // from filling every batch
+        int start = nextReadPartition;
+        nextReadPartition = (nextReadPartition + 1) % readLsns.length;
+        for (int i = 0; i < readLsns.length && events.size() < limit; i++) {
+            int p = (start + i) % readLsns.length;
+            List<OrderEvent> partitionEvents = partitions.get(p).read(readLsns[p], limit - events.size());
+            for (OrderEvent event : partitionEvents) {
+                events.add(withSequence(event, ((long) p << PARTITION_SHIFT) | event.getSequence()));
+            }
+            if (!partitionEvents.isEmpty()) {
+                readLsns[p] = partitionEvents.get(partitionEvents.size() - 1).getSequence();
+            }
+        }
+        if (!events.isEmpty()) {
+            lastReadPosition = events.get(events.size() - 1).getSequence();
+        }
+        return events;
+    }
+    
+    /**
+     * Acknowledges everything read so far when {@code position} is the last event
+     * of the last read; any other position acknowledges the events of its own
+     * partition up to it.
+     */
+    @Override
+    public synchronized void acknowledge(long position) {
+        if (position == lastReadPosition) {
+            for (int p = 0; p < readLsns.length; p++) {
+                partitions.get(p).acknowledge(readLsns[p]);
+            }
+        } else {
+            partitions.get((int) (position >>> PARTITION_SHIFT)).acknowledge(position & LSN_MASK);
+        }
+        lastAcknowledgedPosition = position;
+    }
+    
+    @Override
+    public synchronized long getAcknowledgedPosition() {
+        return lastAcknowledgedPosition;
+    }
+    
+    private static OrderEvent withSequence(OrderEvent event, long sequence) {
+        if (event.getSequence() == sequence) {
+            return event;
+        }
+        return new OrderEvent(sequence, event.getType(), event.getOrderId(), event.getStatus(),
+            event.getOccurredAt(), event.getVersion(), event.getOrder());
+    }
+    
+    private static void checkPartitionCount(Path directory, int partitionCount) throws IOException {
+        Path partitionsFile = directory.resolve(PARTITIONS_FILE);
+        Integer existing = null;
+        if (Files.exists(partitionsFile)) {
+            existing = Integer.parseInt(Files.readString(partitionsFile, StandardCharsets.US_ASCII).trim());
+        } else {
+            try (Stream<Path> files = Files.list(directory)) {
+                if (files.findAny().isPresent()) {
+                    // Written before the store was partitioned
+                    existing = 1;
+                }
+            }
+        }
+        if (existing != null && existing != partitionCount) {
+            throw new IllegalStateException("Orders in " + directory + " are stored in " + existing
+                + " partition(s) but retailx.orders.partitions.count is " + partitionCount
+                + "; restore the previous count or move the data away");
+        }
+        if (!Files.exists(partitionsFile)) {
+            Files.writeString(partitionsFile, Integer.toString(partitionCount), StandardCharsets.US_ASCII);
+            logger.info("Storing orders in {} in {} partition(s)", directory, partitionCount);
+        }
+    }
+}
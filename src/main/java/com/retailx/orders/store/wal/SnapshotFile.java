@@ -0,0 +1,208 @@
+package com.retailx.orders.store.wal;
+
+import com.retailx.orders.store.InMemoryOrderStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot File
+ * 
+ * Point-in-time copy of every order, so that startup only replays the log
+ * written since the snapshot instead of the whole history.
+ * 
+ * A snapshot is named after the LSN it was started at and holds a header
+ * (magic, version, LSN) followed by ORDER records framed like log records and a
+ * final END record with the order count. It is written to a temporary file,
+ * synced and then atomically renamed, so a crash while writing never replaces
+ * the previous snapshot with a partial one.
+ * 
+ * Snapshots are fuzzy: orders changed while the snapshot is written may already
+ * show those changes. That is safe because replay starts at the snapshot LSN and
+ * every log record carries absolute values, so re-applying a change the
+ * snapshot already contains is a no-op.
+ */
+final class SnapshotFile {
+    
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int MAGIC = 0x52584F53;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    
+    private SnapshotFile() {
+    }
+    
+    /**
+     * Writes a snapshot of the given orders taken at {@code lsn} and deletes older snapshots.
+     * The snapshot only replaces the previous one once every change it may
+     * contain is durable in {@code log}.
+     * 
+     * @return the number of orders written
+     * @throws java.io.UncheckedIOException if the log cannot be synced
+     */
+    static long write(Path directory, long lsn, InMemoryOrderStore orders, WriteAheadLog log) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            FrameWriter writer = new FrameWriter(channel);
+            writer.buffer.putInt(MAGIC).putInt(VERSION).putLong(lsn);
+            long[] written = new long[1];
+            orders.forEach(order -> {
+                writer.write(OrderRecordCodec.encodeOrder(order));
+                written[0]++;
+            });
+            count = written[0];
+            writer.write(OrderRecordCodec.encodeEnd(count));
+            writer.flush();
+            channel.force(true);
+        }
+        // A change is appended before it is applied in memory, so every change
+        // the snapshot saw is in the log by now
+        log.awaitDurable(log.getWrittenLsn());
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        
+        for (Path snapshot : list(directory)) {
+            if (!snapshot.equals(target)) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Passes every order of the latest snapshot to {@code handler} as an
+     * ORDER record payload.
+     * 
+     * @return the LSN the snapshot was taken at, or 0 if there is no snapshot
+     * @throws IOException if the latest snapshot is incomplete or corrupt
+     */
+    static long load(Path directory, Consumer<ByteBuffer> handler) throws IOException {
+        List<Path> snapshots = list(directory);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            // Read through a fixed buffer rather than mapping the file: snapshots of
+            // large stores exceed the 2 GB limit of a single mapping
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).limit(0);
+            if (!fill(channel, buffer, HEADER_BYTES) || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an order snapshot: " + latest);
+            }
+            long lsn = buffer.getLong();
+            CRC32C crc = new CRC32C();
+            long count = 0;
+            while (fill(channel, buffer, 8)) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.capacity() || !fill(channel, buffer, length)) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length).asReadOnlyBuffer();
+                buffer.position(buffer.position() + length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                if (payload.get() == OrderRecordCodec.END) {
+                    if (OrderRecordCodec.decodeEnd(payload) != count) {
+                        break;
+                    }
+                    return lsn;
+                }
+                payload.rewind();
+                handler.accept(payload);
+                count++;
+            }
+            throw new IOException("Order snapshot " + latest + " is incomplete or corrupt");
+        }
+    }
+    
+    /**
+     * Makes sure at least {@code bytes} bytes are readable in the buffer, reading
+     * more from the channel as needed.
+     * 
+     * @return false if the file ends first
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+    
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+    }
+    
+    /**
+     * Buffers framed records and writes them to the channel in large chunks.
+     */
+    private static final class FrameWriter {
+        
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        private final CRC32C crc = new CRC32C();
+        
+        FrameWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void write(byte[] payload) {
+            crc.reset();
+            crc.update(payload);
+            try {
+                if (buffer.remaining() < 8 + payload.length) {
+                    flush();
+                }
+                if (buffer.remaining() < 8 + payload.length) {
+                    throw new IOException("Snapshot record of " + payload.length + " bytes is too large");
+                }
+                buffer.putInt(payload.length);
+                buffer.putInt((int) crc.getValue());
+                buffer.put(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
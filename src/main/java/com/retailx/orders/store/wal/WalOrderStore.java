@@ -0,0 +1,461 @@
+package com.retailx.orders.store.wal;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.events.outbox.OrderOutbox;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.store.ConcurrentOrderStore;
+import com.retailx.orders.store.InMemoryOrderStore;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+import com.retailx.orders.store.OrderStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * WAL Order Store
+ * 
+ * Durable {@link OrderStore}: orders are served from an {@link InMemoryOrderStore}
+ * ({@link ConcurrentOrderStore} unless another is given) and every change is
+ * recorded in a {@link WriteAheadLog} before the call returns, so orders
+ * survive a restart (RETAILX-8003).
+ * 
+ * A write is appended to the log, applied in memory and then waits for the
+ * log's group commit; reads never touch the disk. The log append and the
+ * in-memory change happen under a per-order lock stripe, so the log holds the
+ * changes to each order in the order they were applied. A change the log cannot
+ * take is never applied, and one whose commit fails is undone in memory, so
+ * reads do not show changes that would be lost on restart.
+ * 
+ * A background task periodically writes a {@link SnapshotFile} once enough
+ * records have accumulated, and deletes the log segments it covers. On startup
+ * the latest snapshot is loaded and only the log written since is replayed.
+ * 
+ * If the log cannot be written or synced, the failing call and every later
+ * write throw {@link java.io.UncheckedIOException}; reads keep working.
+ * 
+ * The log doubles as the {@link OrderOutbox}: each change record is an order
+ * event, made durable by the same append and sync as the change itself. The
+ * position of an event is the LSN of its record. The last acknowledged LSN is
+ * kept in {@code outbox.cursor}, and segments holding unacknowledged events are
+ * not deleted after a snapshot. When there is no cursor file, events start with
+ * the first change after startup.
+ */
+public class WalOrderStore implements OrderStore, OrderOutbox, Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WalOrderStore.class);
+    
+    private static final int LOCK_STRIPES = 256;
+    private static final String OUTBOX_CURSOR_FILE = "outbox.cursor";
+    
+    private final InMemoryOrderStore orders;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final Path directory;
+    private final WriteAheadLog log;
+    private final long snapshotMinRecords;
+    private final AtomicLong recordsSinceSnapshot = new AtomicLong();
+    private final ScheduledExecutorService snapshotScheduler;
+    private volatile long acknowledgedLsn;
+    
+    public WalOrderStore(Path directory, int segmentSize, long snapshotIntervalMs, long snapshotMinRecords)
+            throws IOException {
+        this(directory, segmentSize, snapshotIntervalMs, snapshotMinRecords, new ConcurrentOrderStore());
+    }
+    
+    /**
+     * @param orders empty store to serve orders from; closed with this store if it is {@link Closeable}
+     */
+    public WalOrderStore(Path directory, int segmentSize, long snapshotIntervalMs, long snapshotMinRecords,
+                         InMemoryOrderStore orders) throws IOException {
+        this.orders = orders;
+        this.directory = directory;
+        this.snapshotMinRecords = snapshotMinRecords;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        long snapshotLsn = SnapshotFile.load(directory, this::apply);
+        int fromSnapshot = orders.size();
+        this.log = WriteAheadLog.open(directory, segmentSize, snapshotLsn, record -> {
+            apply(record);
+            recordsSinceSnapshot.incrementAndGet();
+        });
+        logger.info("Recovered {} orders ({} from snapshot, log replayed from LSN {}) in {} ms",
+            orders.size(), fromSnapshot, snapshotLsn, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        this.acknowledgedLsn = loadOutboxCursor();
+        
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-wal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotIfDue,
+            snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public boolean insert(OrderResponse order) {
+        Change change = insertAndAppend(order);
+        if (change == null) {
+            return false;
+        }
+        commit(List.of(change));
+        return true;
+    }
+    
+    /**
+     * Appends every order of the batch, then waits once for the log to be
+     * synced up to the last of them, so the batch costs a single group commit.
+     */
+    @Override
+    public boolean[] insertAll(List<OrderResponse> batch) {
+        boolean[] inserted = new boolean[batch.size()];
+        List<Change> changes = new ArrayList<>(batch.size());
+        try {
+            for (int i = 0; i < inserted.length; i++) {
+                Change change = insertAndAppend(batch.get(i));
+                if (change != null) {
+                    changes.add(change);
+                    inserted[i] = true;
+                }
+            }
+        } finally {
+            // Also if the batch failed part way: changes already appended stay
+            // if the log can sync them
+            commit(changes);
+        }
+        return inserted;
+    }
+    
+    @Override
+    public OrderResponse get(String orderId) {
+        return orders.get(orderId);
+    }
+    
+    @Override
+    public OrderResponse update(String orderId, UnaryOperator<OrderResponse> transition) {
+        OrderResponse[] updated = new OrderResponse[1];
+        Change change = updateAndAppend(orderId, transition, updated);
+        if (change != null) {
+            commit(List.of(change));
+        }
+        return updated[0];
+    }
+    
+    /**
+     * Appends and applies every transition of the batch, then waits once for the
+     * log to be synced up to the last change, so the batch costs a single group
+     * commit.
+     */
+    @Override
+    public OrderResponse[] updateAll(List<String> orderIds, List<UnaryOperator<OrderResponse>> transitions) {
+        OrderResponse[] updated = new OrderResponse[orderIds.size()];
+        OrderResponse[] result = new OrderResponse[1];
+        List<Change> changes = new ArrayList<>();
+        try {
+            for (int i = 0; i < updated.length; i++) {
+                Change change = updateAndAppend(orderIds.get(i), transitions.get(i), result);
+                updated[i] = result[0];
+                if (change != null) {
+                    changes.add(change);
+                }
+            }
+        } finally {
+            // Also if the batch failed part way: changes already appended stay
+            // if the log can sync them
+            commit(changes);
+        }
+        return updated;
+    }
+    
+    @Override
+    public List<OrderEvent> read(long position, int limit) {
+        List<OrderEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        log.read(position, limit, (lsn, record) -> {
+            byte type = record.get();
+            if (type == OrderRecordCodec.ORDER) {
+                OrderResponse order = OrderRecordCodec.decodeOrder(record);
+                // Orders are written in full when created; later changes are status records
+                events.add(Objects.equals(order.getCreatedAt(), order.getUpdatedAt())
+                    ? OrderEvent.created(lsn, order)
+                    : OrderEvent.updated(lsn, order));
+            } else if (type == OrderRecordCodec.STATUS) {
+                events.add(OrderEvent.statusChanged(lsn, OrderRecordCodec.decodeStatus(record)));
+            }
+        });
+        return events;
+    }
+    
+    @Override
+    public void acknowledge(long position) {
+        if (position <= acknowledgedLsn) {
+            return;
+        }
+        acknowledgedLsn = position;
+        try {
+            storeOutboxCursor(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store the order outbox cursor", e);
+        }
+    }
+    
+    @Override
+    public long getAcknowledgedPosition() {
+        return acknowledgedLsn;
+    }
+    
+    @Override
+    public List<OrderResponse> findRecent(OrderKey after, int limit) {
+        return orders.findRecent(after, limit);
+    }
+    
+    @Override
+    public List<OrderResponse> search(OrderSearchCriteria criteria, OrderKey after, int limit) {
+        return orders.search(criteria, after, limit);
+    }
+    
+    @Override
+    public int size() {
+        return orders.size();
+    }
+    
+    /**
+     * Writes a snapshot of all orders and deletes the log segments it covers.
+     */
+    public void snapshot() throws IOException {
+        // Records are appended and applied under their stripe lock; with every
+        // stripe held, each record before this LSN is already in memory, so the
+        // snapshot taken from here on contains it
+        long lsn;
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            lsn = log.getWrittenLsn();
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+        long records = recordsSinceSnapshot.get();
+        long start = System.nanoTime();
+        long count = SnapshotFile.write(directory, lsn, orders, log);
+        recordsSinceSnapshot.addAndGet(-records);
+        // Segments with undelivered order events are kept for the outbox relay
+        log.deleteBefore(Math.min(lsn, acknowledgedLsn));
+        logger.info("Wrote snapshot of {} orders at LSN {} in {} ms",
+            count, lsn, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    
+    @Override
+    public void close() throws IOException {
+        snapshotScheduler.shutdownNow();
+        try {
+            snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A snapshot on shutdown keeps the next startup's replay short
+        if (recordsSinceSnapshot.get() > 0) {
+            snapshot();
+        }
+        log.close();
+        if (orders instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+    
+    private void snapshotIfDue() {
+        if (recordsSinceSnapshot.get() < snapshotMinRecords) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write order snapshot", e);
+        }
+    }
+    
+    /**
+     * Appends a new order to the log and then stores it in memory, without
+     * waiting for it to be durable.
+     * 
+     * @return the change to wait for, or null if the order already exists
+     */
+    private Change insertAndAppend(OrderResponse order) {
+        ReentrantLock lock = lockFor(order.getOrderId());
+        lock.lock();
+        try {
+            if (orders.get(order.getOrderId()) != null) {
+                return null;
+            }
+            long lsn = log.append(OrderRecordCodec.encodeOrder(order));
+            orders.insert(order);
+            return new Change(lsn, order.getOrderId(), null, order);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Runs a transition, appends the change to the log and then applies it in
+     * memory, without waiting for it to be durable. All changes to the in-memory
+     * store are made under the order's stripe, so the transition runs once,
+     * against the current order. The order after the transition is stored in
+     * {@code updated[0]}.
+     * 
+     * @return the change to wait for, or null if nothing changed
+     */
+    private Change updateAndAppend(String orderId, UnaryOperator<OrderResponse> transition, OrderResponse[] updated) {
+        ReentrantLock lock = lockFor(orderId);
+        lock.lock();
+        try {
+            OrderResponse current = orders.get(orderId);
+            updated[0] = current == null ? null : transition.apply(current);
+            if (updated[0] == null || updated[0] == current) {
+                return null;
+            }
+            OrderResponse next = updated[0];
+            // A STATUS record captures a change of status, update time and version only
+            long lsn = log.append(OrderEvent.isStatusChange(current, next)
+                ? OrderRecordCodec.encodeStatus(next)
+                : OrderRecordCodec.encodeOrder(next));
+            orders.update(orderId, stored -> next);
+            return new Change(lsn, orderId, current, next);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Waits for the log to be synced up to the last of the changes; if it cannot
+     * be, undoes the changes that did not become durable and rethrows.
+     */
+    private void commit(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            log.awaitDurable(changes.get(changes.size() - 1).lsn);
+        } catch (RuntimeException e) {
+            undo(changes, e);
+        }
+        recordsSinceSnapshot.addAndGet(changes.size());
+    }
+    
+    /**
+     * Reverts the changes past the log's durable LSN in memory, newest first,
+     * and rethrows the failure.
+     */
+    private void undo(List<Change> changes, RuntimeException failure) {
+        long durableLsn = log.getDurableLsn();
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change change = changes.get(i);
+            if (change.lsn <= durableLsn) {
+                continue;
+            }
+            ReentrantLock lock = lockFor(change.orderId);
+            lock.lock();
+            try {
+                if (change.previous == null) {
+                    orders.remove(change.orderId);
+                } else {
+                    // No later change to the order can be durable either; whichever
+                    // undo runs last leaves the oldest non-durable change reverted
+                    orders.update(change.orderId, current ->
+                        current == change.applied || current.getVersion() > change.previous.getVersion()
+                            ? change.previous
+                            : current);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        throw failure;
+    }
+    
+    private void apply(ByteBuffer record) {
+        byte type = record.get();
+        if (type == OrderRecordCodec.ORDER) {
+            OrderResponse order = OrderRecordCodec.decodeOrder(record);
+            if (!orders.insert(order)) {
+                orders.update(order.getOrderId(), current -> order);
+            }
+        } else if (type == OrderRecordCodec.STATUS) {
+            OrderResponse change = OrderRecordCodec.decodeStatus(record);
+            orders.update(change.getOrderId(), current -> change.getVersion() == OrderRecordCodec.UNKNOWN_VERSION
+                ? current.withStatus(change.getStatus(), change.getUpdatedAt())
+                : current.withStatus(change.getStatus(), change.getUpdatedAt(), change.getVersion()));
+        } else {
+            throw new IllegalStateException("Unknown order log record type " + type);
+        }
+    }
+    
+    /**
+     * A change appended to the log and applied in memory, with what it replaced
+     * ({@code previous} is null for a new order).
+     */
+    private static final class Change {
+        
+        final long lsn;
+        final String orderId;
+        final OrderResponse previous;
+        final OrderResponse applied;
+        
+        Change(long lsn, String orderId, OrderResponse previous, OrderResponse applied) {
+            this.lsn = lsn;
+            this.orderId = orderId;
+            this.previous = previous;
+            this.applied = applied;
+        }
+    }
+    
+    private long loadOutboxCursor() throws IOException {
+        Path cursorFile = directory.resolve(OUTBOX_CURSOR_FILE);
+        if (!Files.exists(cursorFile)) {
+            long lsn = log.getWrittenLsn();
+            logger.info("No order outbox cursor, publishing order events from LSN {}", lsn);
+            storeOutboxCursor(lsn);
+            return lsn;
+        }
+        long lsn = Long.parseLong(Files.readString(cursorFile, StandardCharsets.US_ASCII).trim());
+        if (lsn < log.getFirstLsn()) {
+            // Segments deleted before the outbox existed; their events cannot be delivered
+            logger.warn("Order events before LSN {} are no longer in the log, skipping from LSN {}",
+                log.getFirstLsn(), lsn);
+            return log.getFirstLsn();
+        }
+        return lsn;
+    }
+    
+    private void storeOutboxCursor(long lsn) throws IOException {
+        // Not synced: after a crash the cursor may be behind, and the events since are delivered again
+        Path temporary = directory.resolve(OUTBOX_CURSOR_FILE + ".tmp");
+        Files.writeString(temporary, Long.toString(lsn), StandardCharsets.US_ASCII);
+        Files.move(temporary, directory.resolve(OUTBOX_CURSOR_FILE),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private ReentrantLock lockFor(String orderId) {
+        return locks[(orderId.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,491 @@
+package com.retailx.orders.store.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-Ahead Log
+ * 
+ * Append-only log of records stored in fixed-size, memory-mapped segment files.
+ * 
+ * Each record is framed as {@code [payload length][CRC32C of payload][payload]}.
+ * A record is identified by its log sequence number (LSN): the byte offset just
+ * past its end in the logical log. A segment file is named after the LSN at which
+ * it starts; records never span segments, and a zero length marks the end of the
+ * data in a segment.
+ * 
+ * Appending only copies the record into the mapped segment. Durability is
+ * provided by group commit: {@link #awaitDurable} wakes a single flusher thread,
+ * which forces the active segment to disk and releases every writer whose record
+ * was covered by that sync. Writers that append while a sync is in progress are
+ * covered by the next one, so under load one fsync commits many records.
+ * 
+ * On open the log is replayed from a given LSN. Replay stops at the first record
+ * whose length or checksum is invalid in the last segment (a write torn by a
+ * crash); the rest of that segment is zeroed and appending resumes there.
+ * 
+ * While the log is open, {@link #read} lets a reader tail the records that are
+ * already durable, e.g. to relay them elsewhere.
+ */
+public final class WriteAheadLog implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+    
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int FRAME_HEADER_BYTES = 8;
+    
+    private final Path directory;
+    private final int segmentSize;
+    
+    // Guards the segment list, the active segment and writtenLsn
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    private long writtenLsn;
+    
+    // Guards requestedLsn, durableLsn and failure
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition flushRequested = commitLock.newCondition();
+    private final Condition flushed = commitLock.newCondition();
+    private long requestedLsn;
+    private long durableLsn;
+    private IOException failure;
+    
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private volatile long syncCount;
+    
+    /**
+     * Receives records from {@link #read}.
+     */
+    public interface RecordVisitor {
+        
+        /**
+         * @param lsn the LSN of the record
+         * @param payload read-only view of the record payload
+         */
+        void visit(long lsn, ByteBuffer payload);
+    }
+    
+    private WriteAheadLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flusher = new Thread(this::runFlusher, "order-wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+    
+    /**
+     * Opens the log in the given directory, passing every intact record from
+     * {@code fromLsn} onwards to {@code handler} before returning. The handler
+     * receives a read-only view of the record payload.
+     */
+    public static WriteAheadLog open(Path directory, int segmentSize, long fromLsn, Consumer<ByteBuffer> handler)
+            throws IOException {
+        Files.createDirectories(directory);
+        WriteAheadLog log = new WriteAheadLog(directory, segmentSize);
+        log.recover(fromLsn, handler);
+        log.flusher.start();
+        return log;
+    }
+    
+    /**
+     * Appends a record to the log. The record is not durable until
+     * {@link #awaitDurable} has returned for the returned LSN.
+     * 
+     * @return the LSN of the record
+     */
+    public long append(byte[] payload) {
+        int frameSize = FRAME_HEADER_BYTES + payload.length;
+        if (frameSize > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the WAL segment size");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int checksum = (int) crc.getValue();
+        
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            if (active.buffer.remaining() < frameSize) {
+                roll();
+            }
+            active.buffer.putInt(payload.length);
+            active.buffer.putInt(checksum);
+            active.buffer.put(payload);
+            writtenLsn = active.baseLsn + active.buffer.position();
+            return writtenLsn;
+        } catch (IOException e) {
+            fail(e);
+            throw new UncheckedIOException("Order write-ahead log failed", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /**
+     * Blocks until every record up to and including {@code lsn} is on disk.
+     * 
+     * @throws UncheckedIOException if the log can no longer be synced
+     */
+    public void awaitDurable(long lsn) {
+        commitLock.lock();
+        try {
+            if (lsn > requestedLsn) {
+                requestedLsn = lsn;
+                flushRequested.signal();
+            }
+            while (durableLsn < lsn) {
+                checkNotFailed();
+                flushed.awaitUninterruptibly();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    /**
+     * Passes up to {@code limit} durable records following the record at
+     * {@code fromLsn} to {@code visitor}, in log order. {@code fromLsn} must be
+     * the LSN of a record, or the LSN the log was opened at.
+     * 
+     * Never blocks appends or commits for longer than it takes to copy the
+     * segment list.
+     * 
+     * @return the number of records visited
+     * @throws IllegalArgumentException if the segment holding {@code fromLsn} was deleted
+     */
+    public int read(long fromLsn, int limit, RecordVisitor visitor) {
+        long durable;
+        commitLock.lock();
+        try {
+            durable = durableLsn;
+        } finally {
+            commitLock.unlock();
+        }
+        if (fromLsn >= durable) {
+            return 0;
+        }
+        List<Segment> readable;
+        appendLock.lock();
+        try {
+            readable = new ArrayList<>(segments);
+        } finally {
+            appendLock.unlock();
+        }
+        
+        int index = readable.size() - 1;
+        while (index >= 0 && readable.get(index).baseLsn > fromLsn) {
+            index--;
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("WAL segment holding LSN " + fromLsn + " was deleted");
+        }
+        int count = 0;
+        Segment segment = readable.get(index);
+        int position = (int) (fromLsn - segment.baseLsn);
+        while (count < limit && segment.baseLsn + position < durable) {
+            ByteBuffer buffer = segment.buffer;
+            int length = position + FRAME_HEADER_BYTES <= buffer.capacity() ? buffer.getInt(position) : 0;
+            if (length == 0) {
+                // End of the data in this segment; the log continues in the next one
+                if (++index == readable.size()) {
+                    break;
+                }
+                segment = readable.get(index);
+                position = 0;
+                continue;
+            }
+            int end = position + FRAME_HEADER_BYTES + length;
+            ByteBuffer payload = buffer.slice(position + FRAME_HEADER_BYTES, length).asReadOnlyBuffer();
+            visitor.visit(segment.baseLsn + end, payload);
+            position = end;
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Returns the LSN at which the oldest retained segment starts.
+     */
+    public long getFirstLsn() {
+        appendLock.lock();
+        try {
+            return segments.get(0).baseLsn;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the LSN just past the last appended record.
+     */
+    public long getWrittenLsn() {
+        appendLock.lock();
+        try {
+            return writtenLsn;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /**
+     * Returns the LSN up to which records are on disk.
+     */
+    public long getDurableLsn() {
+        commitLock.lock();
+        try {
+            return durableLsn;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    public long getSyncCount() {
+        return syncCount;
+    }
+    
+    /**
+     * Deletes segments that only hold records before {@code lsn}, once those
+     * records are covered by a snapshot.
+     */
+    public void deleteBefore(long lsn) {
+        appendLock.lock();
+        try {
+            while (segments.size() > 1 && segments.get(1).baseLsn <= lsn) {
+                Segment segment = segments.remove(0);
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+                logger.debug("Deleted WAL segment {}", segment.path.getFileName());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete WAL segments before LSN {}", lsn, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try {
+            active.buffer.force();
+            for (Segment segment : segments) {
+                segment.channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    private void recover(long fromLsn, Consumer<ByteBuffer> handler) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .sorted()
+                .toList();
+        }
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            long baseLsn = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.add(Segment.open(path, baseLsn, (int) Math.max(Files.size(path), segmentSize)));
+        }
+        
+        if (segments.isEmpty()) {
+            active = Segment.open(segmentPath(fromLsn), fromLsn, segmentSize);
+            segments.add(active);
+            writtenLsn = fromLsn;
+        } else {
+            // Replay from the segment holding fromLsn; earlier segments are only
+            // kept until the next cleanup
+            int first = segments.size() - 1;
+            while (first >= 0 && segments.get(first).baseLsn > fromLsn) {
+                first--;
+            }
+            if (first < 0) {
+                throw new IOException("WAL segments from LSN " + fromLsn + " are missing in " + directory);
+            }
+            for (int i = first; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                boolean last = i == segments.size() - 1;
+                int position = i == first ? (int) (fromLsn - segment.baseLsn) : 0;
+                position = replaySegment(segment, position, last, handler);
+                if (last) {
+                    // Zero whatever a torn write left behind, so it can never be
+                    // mistaken for a record once new records are appended
+                    MappedByteBuffer buffer = segment.buffer;
+                    for (int offset = position; offset < buffer.capacity(); offset++) {
+                        buffer.put(offset, (byte) 0);
+                    }
+                    buffer.force();
+                    buffer.position(position);
+                    active = segment;
+                    writtenLsn = segment.baseLsn + position;
+                }
+            }
+        }
+        requestedLsn = writtenLsn;
+        durableLsn = writtenLsn;
+    }
+    
+    /**
+     * Replays the records of one segment from the given offset.
+     * 
+     * @return the offset just past the last intact record
+     */
+    private static int replaySegment(Segment segment, int position, boolean last, Consumer<ByteBuffer> handler)
+            throws IOException {
+        ByteBuffer buffer = segment.buffer;
+        CRC32C crc = new CRC32C();
+        while (position + FRAME_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            boolean intact = length > 0 && length <= buffer.capacity() - position - FRAME_HEADER_BYTES;
+            ByteBuffer payload = null;
+            if (intact) {
+                payload = buffer.slice(position + FRAME_HEADER_BYTES, length).asReadOnlyBuffer();
+                crc.reset();
+                crc.update(payload.duplicate());
+                intact = (int) crc.getValue() == buffer.getInt(position + 4);
+            }
+            if (!intact) {
+                if (!last) {
+                    throw new IOException("Corrupt record in WAL segment " + segment.path + " at offset " + position);
+                }
+                logger.warn("Discarding torn WAL record in {} at offset {}", segment.path.getFileName(), position);
+                break;
+            }
+            handler.accept(payload);
+            position += FRAME_HEADER_BYTES + length;
+        }
+        return position;
+    }
+    
+    private void roll() throws IOException {
+        // The old segment must be on disk before records in the next one can be
+        // reported durable
+        active.buffer.force();
+        long baseLsn = active.baseLsn + active.buffer.position();
+        active = Segment.open(segmentPath(baseLsn), baseLsn, segmentSize);
+        segments.add(active);
+        logger.debug("Rolled WAL to segment {}", active.path.getFileName());
+    }
+    
+    private void runFlusher() {
+        while (running) {
+            commitLock.lock();
+            try {
+                while (requestedLsn <= durableLsn && running) {
+                    flushRequested.await();
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return;
+                }
+            } finally {
+                commitLock.unlock();
+            }
+            
+            long target;
+            MappedByteBuffer buffer;
+            appendLock.lock();
+            try {
+                target = writtenLsn;
+                buffer = active.buffer;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                // Records in earlier segments were forced when the log rolled
+                buffer.force();
+                syncCount++;
+            } catch (UncheckedIOException e) {
+                fail(e.getCause());
+                return;
+            }
+            
+            commitLock.lock();
+            try {
+                durableLsn = Math.max(durableLsn, target);
+                flushed.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+    
+    private void fail(IOException e) {
+        logger.error("Order write-ahead log failed, rejecting further writes", e);
+        commitLock.lock();
+        try {
+            failure = e;
+            flushed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    private void checkNotFailed() {
+        commitLock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Order write-ahead log failed", failure);
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+    
+    private Path segmentPath(long baseLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseLsn, SEGMENT_SUFFIX));
+    }
+    
+    private static final class Segment {
+        
+        final Path path;
+        final long baseLsn;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        
+        private Segment(Path path, long baseLsn, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseLsn = baseLsn;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+        
+        static Segment open(Path path, long baseLsn, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, baseLsn, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+}
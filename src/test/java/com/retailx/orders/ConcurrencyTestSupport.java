@@ -0,0 +1,75 @@
+package com.retailx.orders;
+
+import com.retailx.orders.model.OrderResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency Test Support
+ * 
+ * Shared helpers for the stress tests: runs a task on many threads released at
+ * the same moment, and builds orders for tests that only care about IDs,
+ * customers and times.
+ */
+public final class ConcurrencyTestSupport {
+    
+    public static final int THREADS = 64;
+    public static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 0, 0);
+    
+    private ConcurrencyTestSupport() {
+    }
+    
+    /**
+     * Runs {@code task} on {@link #THREADS} threads that all start together, and
+     * rethrows the first failure of any of them.
+     */
+    public static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * A PENDING order created at {@link #CREATED_AT}.
+     */
+    public static OrderResponse order(String orderId) {
+        return order(orderId, "customer@example.com", CREATED_AT);
+    }
+    
+    /**
+     * A PENDING order of {@code customerEmail} created at {@code createdAt}.
+     */
+    public static OrderResponse order(String orderId, String customerEmail, LocalDateTime createdAt) {
+        return new OrderResponse(orderId, customerEmail, List.of(), "1 Main Street",
+            BigDecimal.TEN, OrderResponse.OrderStatus.PENDING, createdAt, CREATED_AT);
+    }
+    
+    @FunctionalInterface
+    public interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,211 @@
+package com.retailx.orders.cache;
+
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static com.retailx.orders.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OrderCache}, with an in-process {@link DistributedOrderCache}
+ * shared by several cache instances in place of the distributed tier.
+ */
+class OrderCacheTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InProcessOrderCache distributed = new InProcessOrderCache();
+    private final CountingLoader loader = new CountingLoader();
+    
+    @Test
+    void localHitsDoNotReachTheStore() {
+        OrderCache cache = cache(distributed);
+        
+        for (int i = 0; i < 10; i++) {
+            assertThat(cache.get("ORD-1", loader).getOrderId()).isEqualTo("ORD-1");
+        }
+        
+        assertThat(loader.loads.get()).isEqualTo(1);
+        assertThat(distributed.orders).containsKey("ORD-1");
+    }
+    
+    @Test
+    void otherInstancesAreServedFromTheDistributedTier() {
+        OrderCache first = cache(distributed);
+        OrderCache second = cache(distributed);
+        
+        first.get("ORD-1", loader);
+        OrderResponse order = second.get("ORD-1", loader);
+        
+        assertThat(order.getOrderId()).isEqualTo("ORD-1");
+        assertThat(loader.loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("retailx.orders.cache.distributed").tag("result", "hit").counter().count())
+            .isEqualTo(1);
+    }
+    
+    @Test
+    void invalidateRemovesTheOrderFromBothTiers() {
+        OrderCache first = cache(distributed);
+        OrderCache second = cache(distributed);
+        first.get("ORD-1", loader);
+        
+        first.invalidate("ORD-1");
+        
+        assertThat(distributed.orders).doesNotContainKey("ORD-1");
+        second.get("ORD-1", loader);
+        first.get("ORD-1", loader);
+        assertThat(loader.loads.get()).isEqualTo(2);
+    }
+    
+    @Test
+    void missingOrdersAreNotCached() {
+        OrderCache cache = cache(distributed);
+        Function<String, OrderResponse> missing = orderId -> {
+            loader.loads.incrementAndGet();
+            return null;
+        };
+        
+        assertThat(cache.get("ORD-1", missing)).isNull();
+        assertThat(cache.get("ORD-1", missing)).isNull();
+        
+        assertThat(loader.loads.get()).isEqualTo(2);
+        assertThat(distributed.orders).isEmpty();
+    }
+    
+    @Test
+    void failingDistributedTierIsTreatedAsMiss() {
+        OrderCache cache = cache(distributed);
+        distributed.failing = true;
+        
+        assertThat(cache.get("ORD-1", loader).getOrderId()).isEqualTo("ORD-1");
+        cache.invalidate("ORD-1");
+        assertThat(cache.get("ORD-1", loader).getOrderId()).isEqualTo("ORD-1");
+        
+        assertThat(loader.loads.get()).isEqualTo(2);
+        // Two failed lookups, two failed puts and one failed eviction
+        assertThat(meterRegistry.get("retailx.orders.cache.distributed").tag("result", "error").counter().count())
+            .isEqualTo(5);
+    }
+    
+    @Test
+    void worksWithoutADistributedTier() {
+        OrderCache cache = cache(null);
+        
+        cache.get("ORD-1", loader);
+        cache.get("ORD-1", loader);
+        cache.invalidate("ORD-1");
+        cache.get("ORD-1", loader);
+        
+        assertThat(loader.loads.get()).isEqualTo(2);
+    }
+    
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        OrderCache cache = cache(distributed);
+        Function<String, OrderResponse> slowLoader = orderId -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loader.apply(orderId);
+        };
+        
+        runConcurrently(thread -> assertThat(cache.get("ORD-1", slowLoader)).isNotNull());
+        
+        assertThat(loader.loads.get()).isEqualTo(1);
+        assertThat(distributed.puts.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void localEntriesExpireAfterTheTtl() throws Exception {
+        OrderCache cache = new OrderCache(provider(distributed), meterRegistry, true, 100, 50);
+        cache.get("ORD-1", loader);
+        // Changed on another instance, which then cached the new version in the shared tier
+        distributed.orders.put("ORD-1", order("ORD-1").withStatus(OrderResponse.OrderStatus.CONFIRMED,
+            order("ORD-1").getCreatedAt().plusHours(1)));
+        
+        Thread.sleep(100);
+        
+        assertThat(cache.get("ORD-1", loader).getStatus()).isEqualTo(OrderResponse.OrderStatus.CONFIRMED);
+        assertThat(loader.loads.get()).isEqualTo(1);
+    }
+    
+    @Test
+    void disabledCacheAlwaysLoads() {
+        OrderCache cache = new OrderCache(provider(distributed), meterRegistry, false, 100, 60_000);
+        
+        cache.get("ORD-1", loader);
+        cache.get("ORD-1", loader);
+        
+        assertThat(loader.loads.get()).isEqualTo(2);
+        assertThat(distributed.orders).isEmpty();
+    }
+    
+    private OrderCache cache(DistributedOrderCache distributedTier) {
+        return new OrderCache(provider(distributedTier), meterRegistry, true, 100, 60_000);
+    }
+    
+    private static ObjectProvider<DistributedOrderCache> provider(DistributedOrderCache distributedTier) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        if (distributedTier != null) {
+            beanFactory.addBean("distributedOrderCache", distributedTier);
+        }
+        return beanFactory.getBeanProvider(DistributedOrderCache.class);
+    }
+    
+    private static final class CountingLoader implements Function<String, OrderResponse> {
+        
+        final AtomicInteger loads = new AtomicInteger();
+        
+        @Override
+        public OrderResponse apply(String orderId) {
+            loads.incrementAndGet();
+            return order(orderId);
+        }
+    }
+    
+    /**
+     * Stand-in for a shared cache such as Redis: one map for every instance,
+     * and a switch that makes every call fail like a lost connection.
+     */
+    private static final class InProcessOrderCache implements DistributedOrderCache {
+        
+        final Map<String, OrderResponse> orders = new ConcurrentHashMap<>();
+        final AtomicInteger puts = new AtomicInteger();
+        volatile boolean failing;
+        
+        @Override
+        public OrderResponse get(String orderId) {
+            checkConnected();
+            return orders.get(orderId);
+        }
+        
+        @Override
+        public void put(OrderResponse order) {
+            checkConnected();
+            puts.incrementAndGet();
+            orders.put(order.getOrderId(), order);
+        }
+        
+        @Override
+        public void evict(String orderId) {
+            checkConnected();
+            orders.remove(orderId);
+        }
+        
+        private void checkConnected() {
+            if (failing) {
+                throw new IllegalStateException("Connection refused");
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.retailx.orders.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link NotificationClient} against a stub notifications API: the
+ * single and bulk endpoints receive the expected bodies, error responses and
+ * timeouts fail the returned Mono, and the in-flight gauge returns to zero.
+ */
+class NotificationClientTest {
+    
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StubNotificationServer server;
+    
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new StubNotificationServer();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+    
+    @Test
+    void sendsSingleNotification() throws Exception {
+        NotificationClient client = server.client(5000);
+        
+        client.sendOrderStatusUpdateNotification("customer@example.com", "ORD-1", "SHIPPED").block(WAIT);
+        
+        assertThat(server.requests()).hasSize(1);
+        StubNotificationServer.Request request = server.requests().get(0);
+        assertThat(request.method()).isEqualTo("POST");
+        assertThat(request.path()).isEqualTo("/v1/notifications");
+        assertThat(request.contentType()).isEqualTo("application/json");
+        JsonNode body = objectMapper.readTree(request.body());
+        assertThat(body.get("recipient").asText()).isEqualTo("customer@example.com");
+        assertThat(body.get("message").asText()).isEqualTo("Order ORD-1 status update: SHIPPED");
+        assertThat(body.get("type").asText()).isEqualTo("email");
+        assertInFlightDrains(client);
+    }
+    
+    @Test
+    void sendsBatchAsOneBulkRequest() throws Exception {
+        NotificationClient client = server.client(5000);
+        
+        client.sendBulkNotifications(List.of(
+            NotificationMessage.orderConfirmation("a@example.com", "ORD-1"),
+            NotificationMessage.orderConfirmation("b@example.com", "ORD-2"))).block(WAIT);
+        
+        assertThat(server.requests()).hasSize(1);
+        StubNotificationServer.Request request = server.requests().get(0);
+        assertThat(request.path()).isEqualTo("/v1/notifications/bulk");
+        JsonNode body = objectMapper.readTree(request.body());
+        assertThat(body.isArray()).isTrue();
+        assertThat(body).extracting(notification -> notification.get("recipient").asText())
+            .containsExactly("a@example.com", "b@example.com");
+    }
+    
+    @Test
+    void errorResponseFailsTheCall() throws Exception {
+        NotificationClient client = server.client(5000);
+        server.respondWith(500);
+        
+        assertThatThrownBy(() -> client.send(NotificationMessage.orderConfirmation("a@example.com", "ORD-1"))
+                .block(WAIT))
+            .isInstanceOf(WebClientResponseException.InternalServerError.class);
+        assertInFlightDrains(client);
+    }
+    
+    @Test
+    void slowResponseTimesOut() throws Exception {
+        NotificationClient client = server.client(100);
+        server.delayResponses(2000);
+        
+        assertThatThrownBy(() -> client.send(NotificationMessage.orderConfirmation("a@example.com", "ORD-1"))
+                .block(WAIT))
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertInFlightDrains(client);
+    }
+    
+    private static void assertInFlightDrains(NotificationClient client) throws InterruptedException {
+        // The gauge is decremented just after the caller sees the result
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (client.getInFlightCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(client.getInFlightCount()).isZero();
+    }
+}
@@ -0,0 +1,119 @@
+package com.retailx.orders.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NotificationDispatcher} against a stub notifications API:
+ * queued notifications go out in bounded batches, a full queue drops and counts,
+ * and shutdown flushes what is still queued.
+ */
+class NotificationDispatcherTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StubNotificationServer server;
+    private ResilientNotificationClient client;
+    
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new StubNotificationServer();
+        client = new ResilientNotificationClient(server.client(5000), new SimpleMeterRegistry(),
+            50, 20, 50, 30000, 3, 10, 1, 10, 100, 100, 60000);
+    }
+    
+    @AfterEach
+    void stopServer() {
+        client.stop();
+        server.close();
+    }
+    
+    @Test
+    void queuedNotificationsAreSentInBatches() throws Exception {
+        NotificationDispatcher dispatcher = dispatcher(1000, 10);
+        assertThat(dispatcher.enqueueAll(messages(25))).isEqualTo(25);
+        
+        dispatcher.start();
+        awaitNotifications(25);
+        dispatcher.stop();
+        
+        List<String> texts = new ArrayList<>();
+        for (StubNotificationServer.Request request : server.requests()) {
+            assertThat(request.method()).isEqualTo("POST");
+            assertThat(request.path()).isEqualTo("/v1/notifications/bulk");
+            assertThat(request.contentType()).isEqualTo("application/json");
+            JsonNode batch = objectMapper.readTree(request.body());
+            assertThat(batch.size()).isBetween(1, 10);
+            batch.forEach(notification -> texts.add(notification.get("message").asText()));
+        }
+        assertThat(texts).hasSize(25).doesNotHaveDuplicates();
+        assertThat(dispatcher.getQueueDepth()).isZero();
+        assertThat(dispatcher.getDroppedCount()).isZero();
+    }
+    
+    @Test
+    void fullQueueDropsAndCountsNotifications() throws Exception {
+        // Not started, so nothing drains the queue
+        NotificationDispatcher dispatcher = dispatcher(2, 10);
+        
+        assertThat(dispatcher.enqueue(message(1))).isTrue();
+        assertThat(dispatcher.enqueue(message(2))).isTrue();
+        assertThat(dispatcher.enqueue(message(3))).isFalse();
+        assertThat(dispatcher.enqueueAll(messages(3))).isZero();
+        
+        assertThat(dispatcher.getQueueDepth()).isEqualTo(2);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(4);
+        dispatcher.stop();
+    }
+    
+    @Test
+    void stopFlushesQueuedNotifications() throws Exception {
+        NotificationDispatcher dispatcher = dispatcher(1000, 4);
+        dispatcher.enqueueAll(messages(10));
+        
+        dispatcher.stop();
+        
+        assertThat(server.requests()).hasSize(3);
+        assertThat(dispatcher.getQueueDepth()).isZero();
+    }
+    
+    private NotificationDispatcher dispatcher(int queueCapacity, int batchSize) {
+        return new NotificationDispatcher(client, new SimpleMeterRegistry(), queueCapacity, 1, batchSize,
+            20, 10, 8, false);
+    }
+    
+    private void awaitNotifications(int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (notificationCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+    
+    private int notificationCount() throws Exception {
+        int count = 0;
+        for (StubNotificationServer.Request request : server.requests()) {
+            count += objectMapper.readTree(request.body()).size();
+        }
+        return count;
+    }
+    
+    private static List<NotificationMessage> messages(int count) {
+        List<NotificationMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(message(i));
+        }
+        return messages;
+    }
+    
+    private static NotificationMessage message(int i) {
+        return NotificationMessage.orderConfirmation("customer" + i + "@example.com", "ORD-" + i);
+    }
+}
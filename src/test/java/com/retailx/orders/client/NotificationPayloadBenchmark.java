@@ -0,0 +1,89 @@
+package com.retailx.orders.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification Payload Benchmark
+ * 
+ * Time and allocation per order confirmation payload for:
+ * - formatRequestAndResponse: what NotificationClient did before the payload
+ *   encoder, two String.format JSON blocks per call (request and simulated
+ *   response), converted to UTF-8 as a request body would be; the INFO logging
+ *   of both is left out
+ * - objectMapper: a map serialized with Jackson, the obvious alternative
+ * - encoder: {@link NotificationPayloadEncoder} into a pooled buffer, released
+ *   as the HTTP client does once the body is written
+ * 
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec} and compare the
+ * {@code gc.alloc.rate.norm} column (bytes per call).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationPayloadBenchmark {
+    
+    private final NotificationPayloadEncoder encoder = new NotificationPayloadEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String customerEmail = "customer@example.com";
+    private final String orderId = "ORD-0A88WKHQ00P4R";
+    
+    @Benchmark
+    public int formatRequestAndResponse() {
+        String request = String.format("""
+            {
+              "recipient": "%s",
+              "message": "Your order %s has been confirmed and is being processed. You will receive updates as your order progresses.",
+              "type": "email"
+            }
+            """, customerEmail, orderId);
+        String response = String.format("""
+            {
+              "id": "mock-notification-id-%s",
+              "recipient": "%s",
+              "message": "Your order %s has been confirmed and is being processed. You will receive updates as your order progresses.",
+              "type": "email",
+              "status": "sent",
+              "createdAt": "%s"
+            }
+            """, System.currentTimeMillis(), customerEmail, orderId, LocalDateTime.now());
+        return request.getBytes(StandardCharsets.UTF_8).length + response.length();
+    }
+    
+    @Benchmark
+    public int objectMapper() throws Exception {
+        NotificationMessage message = NotificationMessage.orderConfirmation(customerEmail, orderId);
+        Map<String, String> payload = new LinkedHashMap<>();
+        payload.put("recipient", message.getRecipient());
+        payload.put("message", message.getMessage());
+        payload.put("type", message.getType());
+        return objectMapper.writeValueAsBytes(payload).length;
+    }
+    
+    @Benchmark
+    public int encoder() {
+        DataBuffer payload = encoder.encode(NotificationMessage.orderConfirmation(customerEmail, orderId));
+        int length = payload.readableByteCount();
+        DataBufferUtils.release(payload);
+        return length;
+    }
+}
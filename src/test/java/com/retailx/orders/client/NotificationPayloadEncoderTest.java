@@ -0,0 +1,117 @@
+package com.retailx.orders.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link NotificationPayloadEncoder} produces exactly the bytes
+ * {@link ObjectMapper#writeValueAsBytes} produces for the same notification,
+ * including the characters JSON has to escape.
+ */
+class NotificationPayloadEncoderTest {
+    
+    private static final String[] AWKWARD_VALUES = {
+        "",
+        "customer@example.com",
+        "quote \" and backslash \\ and slash /",
+        "\u0000\u0001\b\t\n\u000B\f\r\u001B\u001F\u007F",
+        "caf\u00E9 \u00DF \u20AC \u4E2D\u6587 \uFFFD \uFEFF",
+        "non-BMP \uD83D\uDE00 \uD834\uDD1E",
+        "lone high \uD83D here",
+        "lone low \uDE00 here",
+        "reversed pair \uDE00\uD83D",
+        "high at the end \uD83D",
+    };
+    
+    private final NotificationPayloadEncoder encoder = new NotificationPayloadEncoder();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void encodesLikeJackson() throws Exception {
+        for (String value : AWKWARD_VALUES) {
+            for (NotificationMessage message : List.of(
+                    new NotificationMessage(value, NotificationMessage.Template.ORDER_STATUS_UPDATE,
+                        "ORD-1", "SHIPPED", NotificationMessage.TYPE_EMAIL),
+                    new NotificationMessage("customer@example.com", NotificationMessage.Template.ORDER_STATUS_UPDATE,
+                        value, value, value))) {
+                assertThat(new String(bytes(encoder.encode(message)), "ISO-8859-1"))
+                    .as("encoding of %s", escapeForMessage(value))
+                    .isEqualTo(new String(objectMapper.writeValueAsBytes(tree(message)), "ISO-8859-1"));
+            }
+        }
+    }
+    
+    @Test
+    void encodesRandomStringsLikeJackson() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int c = 0; c < chars.length; c++) {
+                // Bias towards ASCII, controls and the surrogate range
+                switch (random.nextInt(4)) {
+                    case 0 -> chars[c] = (char) random.nextInt(0x80);
+                    case 1 -> chars[c] = (char) random.nextInt(0x20);
+                    case 2 -> chars[c] = (char) (0xD800 + random.nextInt(0x800));
+                    default -> chars[c] = (char) random.nextInt(0x10000);
+                }
+            }
+            String value = new String(chars);
+            NotificationMessage message = new NotificationMessage(value, NotificationMessage.Template.ORDER_CONFIRMATION,
+                value, "", value);
+            
+            assertThat(bytes(encoder.encode(message)))
+                .as("encoding of %s", escapeForMessage(value))
+                .isEqualTo(objectMapper.writeValueAsBytes(tree(message)));
+        }
+    }
+    
+    @Test
+    void encodesBulkLikeJackson() throws Exception {
+        List<NotificationMessage> messages = new ArrayList<>();
+        List<Map<String, String>> trees = new ArrayList<>();
+        for (String value : AWKWARD_VALUES) {
+            NotificationMessage message = NotificationMessage.orderStatusUpdate(value, "ORD-" + value, value);
+            messages.add(message);
+            trees.add(tree(message));
+        }
+        
+        assertThat(bytes(encoder.encodeBulk(messages))).isEqualTo(objectMapper.writeValueAsBytes(trees));
+        assertThat(bytes(encoder.encodeBulk(List.of()))).isEqualTo(objectMapper.writeValueAsBytes(List.of()));
+    }
+    
+    private static Map<String, String> tree(NotificationMessage message) {
+        Map<String, String> tree = new LinkedHashMap<>();
+        tree.put("recipient", message.getRecipient());
+        tree.put("message", message.getMessage());
+        tree.put("type", message.getType());
+        return tree;
+    }
+    
+    private static byte[] bytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+    
+    private static String escapeForMessage(String value) {
+        StringBuilder escaped = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            escaped.append(c >= 0x20 && c < 0x7F ? String.valueOf(c) : String.format("\\u%04X", (int) c));
+        }
+        return escaped.toString();
+    }
+}
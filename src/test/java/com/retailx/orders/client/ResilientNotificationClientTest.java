@@ -0,0 +1,121 @@
+package com.retailx.orders.client;
+
+import com.retailx.orders.client.resilience.CallNotPermittedException;
+import com.retailx.orders.client.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ResilientNotificationClient} against a stub notifications API:
+ * transient failures are retried up to the attempt limit, rejected requests are
+ * not, and an open circuit rejects calls and defers their batches until the API
+ * recovers.
+ */
+class ResilientNotificationClientTest {
+    
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    private static final List<NotificationMessage> BATCH =
+        List.of(NotificationMessage.orderConfirmation("customer@example.com", "ORD-1"));
+    
+    private StubNotificationServer server;
+    private ResilientNotificationClient client;
+    
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new StubNotificationServer();
+    }
+    
+    @AfterEach
+    void stopServer() {
+        if (client != null) {
+            client.stop();
+        }
+        server.close();
+    }
+    
+    @Test
+    void retriesTransientFailuresUpToMaxAttempts() {
+        client = client(60_000, 60_000);
+        server.respondWith(503);
+        
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThat(server.requests()).hasSize(3);
+    }
+    
+    @Test
+    void succeedsWhenARetrySucceeds() {
+        client = client(60_000, 60_000);
+        server.respondWith(request -> request == 0 ? 429 : 200);
+        
+        client.sendBulkNotifications(BATCH).block(WAIT);
+        
+        assertThat(server.requests()).hasSize(2);
+    }
+    
+    @Test
+    void doesNotRetryRejectedRequests() {
+        client = client(60_000, 60_000);
+        server.respondWith(400);
+        
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(WebClientResponseException.BadRequest.class);
+        assertThat(server.requests()).hasSize(1);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+    
+    @Test
+    void openCircuitRejectsAndDefersBatches() {
+        client = client(60_000, 60_000);
+        server.respondWith(500);
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(WebClientResponseException.InternalServerError.class);
+        
+        // The 5th failed attempt opens the circuit, so the last retry is rejected
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(CallNotPermittedException.class);
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(server.requests()).hasSize(5);
+        assertThat(client.getDeferredCount()).isEqualTo(1);
+        
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(CallNotPermittedException.class);
+        assertThat(server.requests()).hasSize(5);
+        assertThat(client.getDeferredCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void deferredBatchesAreResentOnceTheApiRecovers() throws Exception {
+        client = client(100, 50);
+        server.respondWith(500);
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT));
+        assertThatThrownBy(() -> client.sendBulkNotifications(BATCH).block(WAIT))
+            .isInstanceOf(CallNotPermittedException.class);
+        assertThat(client.getDeferredCount()).isEqualTo(1);
+        int requests = server.requests().size();
+        server.respondWith(200);
+        
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((server.requests().size() == requests || client.getDeferredCount() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        
+        assertThat(client.getDeferredCount()).isZero();
+        assertThat(server.requests()).hasSizeGreaterThan(requests);
+    }
+    
+    private ResilientNotificationClient client(long openDurationMs, long deferredRetryIntervalMs) {
+        return new ResilientNotificationClient(server.client(5000), new SimpleMeterRegistry(),
+            10, 5, 50, openDurationMs, 1, 10, 3, 1, 5, 10, deferredRetryIntervalMs);
+    }
+}
@@ -0,0 +1,111 @@
+package com.retailx.orders.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Stub of the notifications API for client tests: an in-process HTTP server on
+ * a free local port that records every request and answers with a status
+ * chosen per request, optionally after a delay.
+ */
+class StubNotificationServer implements AutoCloseable {
+    
+    /**
+     * A request as received by the stub.
+     */
+    record Request(String method, String path, String contentType, String body) {
+    }
+    
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    // Status to answer, by 0-based request number
+    private final AtomicReference<IntUnaryOperator> status = new AtomicReference<>(request -> 200);
+    private volatile long delayMs;
+    
+    StubNotificationServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    /**
+     * A client for this server with the given response timeout.
+     */
+    NotificationClient client(int timeoutMs) {
+        return new NotificationClient(WebClient.builder().baseUrl(baseUrl()).build(),
+            new NotificationPayloadEncoder(), new SimpleMeterRegistry(), timeoutMs, 1);
+    }
+    
+    /**
+     * Answers every request with {@code status}.
+     */
+    void respondWith(int status) {
+        this.status.set(request -> status);
+    }
+    
+    /**
+     * Answers the n-th request (from 0) with {@code status.applyAsInt(n)}.
+     */
+    void respondWith(IntUnaryOperator status) {
+        this.status.set(status);
+    }
+    
+    void delayResponses(long delayMs) {
+        this.delayMs = delayMs;
+    }
+    
+    List<Request> requests() {
+        return requests;
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        int number;
+        synchronized (requests) {
+            number = requests.size();
+            try (InputStream body = exchange.getRequestBody()) {
+                requests.add(new Request(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Content-Type"),
+                    new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        try {
+            if (delayMs > 0) {
+                Thread.sleep(delayMs);
+            }
+            exchange.sendResponseHeaders(status.get().applyAsInt(number), -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try (OutputStream ignored = exchange.getResponseBody()) {
+                exchange.close();
+            }
+        }
+    }
+}
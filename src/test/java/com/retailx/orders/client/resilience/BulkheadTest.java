@@ -0,0 +1,27 @@
+package com.retailx.orders.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Bulkhead}: calls over the limit are rejected until a permitted
+ * call releases.
+ */
+class BulkheadTest {
+    
+    @Test
+    void rejectsCallsOverTheLimit() {
+        Bulkhead bulkhead = new Bulkhead("test", 2);
+        
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isFalse();
+        assertThat(bulkhead.getActiveCalls()).isEqualTo(2);
+        
+        bulkhead.release();
+        
+        assertThat(bulkhead.getActiveCalls()).isEqualTo(1);
+        assertThat(bulkhead.tryAcquire()).isTrue();
+    }
+}
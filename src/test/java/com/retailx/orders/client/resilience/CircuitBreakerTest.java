@@ -0,0 +1,109 @@
+package com.retailx.orders.client.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the {@link CircuitBreaker} state machine: it opens on the failure
+ * rate over the window, rejects while open, and lets a limited number of probes
+ * through when half-open.
+ */
+class CircuitBreakerTest {
+    
+    private final List<String> transitions = new ArrayList<>();
+    
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker(60_000);
+        
+        // 4 calls are below the minimum; the 5th makes it 3 failures in 5 calls
+        outcomes(breaker, true, false, true, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        outcomes(breaker, true);
+        
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+    
+    @Test
+    void failureRateIsMeasuredOverTheWindow() {
+        CircuitBreaker breaker = breaker(60_000);
+        
+        // 4 failures in the last 10 calls
+        outcomes(breaker, false, false, false, false, false, false, true, true, true, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        
+        // The oldest success slides out of the window: 5 failures in 10
+        outcomes(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+    
+    @Test
+    void closesWhenAllHalfOpenProbesSucceed() throws Exception {
+        CircuitBreaker breaker = openBreaker(20);
+        Thread.sleep(40);
+        
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).as("only two probes").isFalse();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+    
+    @Test
+    void reopensWhenAHalfOpenProbeFails() throws Exception {
+        CircuitBreaker breaker = openBreaker(20);
+        Thread.sleep(40);
+        
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onFailure();
+        
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+    
+    @Test
+    void releasedProbePermitCanBeReused() throws Exception {
+        CircuitBreaker breaker = openBreaker(20);
+        Thread.sleep(40);
+        
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.releasePermission();
+        
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+    
+    private CircuitBreaker breaker(long openDurationMs) {
+        return new CircuitBreaker("test", 10, 5, 50, openDurationMs, 2,
+            (from, to) -> transitions.add(from + "->" + to));
+    }
+    
+    private CircuitBreaker openBreaker(long openDurationMs) {
+        CircuitBreaker breaker = breaker(openDurationMs);
+        outcomes(breaker, true, true, true, true, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+    
+    private static void outcomes(CircuitBreaker breaker, boolean... failures) {
+        for (boolean failed : failures) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            if (failed) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+    }
+}
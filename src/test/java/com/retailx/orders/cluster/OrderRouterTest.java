@@ -0,0 +1,67 @@
+package com.retailx.orders.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.id.OrderIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OrderRouter}: every instance computes the same owners, and an
+ * instance that would own no partition refuses to start.
+ */
+class OrderRouterTest {
+    
+    private static final String NODES = "http://node-a:8080,http://node-b:8080,http://node-c:8080";
+    
+    @Test
+    void instanceOwningNoPartitionFailsToStart() {
+        // One partition has one owner; the other instances would own nothing
+        int started = 0;
+        for (String self : NODES.split(",")) {
+            try {
+                router(self, 1);
+                started++;
+            } catch (IllegalArgumentException e) {
+                assertThat(e).hasMessageContaining("owns none of the 1 order partitions");
+            }
+        }
+        assertThat(started).isEqualTo(1);
+    }
+    
+    @Test
+    void everyOrderHasExactlyOneOwnerThatAllInstancesAgreeOn() {
+        OrderRouter[] routers = new OrderRouter[3];
+        String[] nodes = NODES.split(",");
+        for (int i = 0; i < nodes.length; i++) {
+            routers[i] = router(nodes[i], 64);
+        }
+        OrderIdGenerator generator = new OrderIdGenerator(1);
+        
+        for (int i = 0; i < 10_000; i++) {
+            String orderId = generator.nextId();
+            String owner = routers[0].ownerOf(orderId);
+            int local = 0;
+            for (int r = 0; r < routers.length; r++) {
+                assertThat(routers[r].ownerOf(orderId)).isEqualTo(owner);
+                if (routers[r].isLocal(orderId)) {
+                    assertThat(nodes[r]).isEqualTo(owner);
+                    local++;
+                }
+            }
+            assertThat(local).isEqualTo(1);
+        }
+    }
+    
+    @Test
+    void singleInstanceOwnsEveryOrder() {
+        OrderRouter router = new OrderRouter(new ObjectMapper(), "", "", 256, 2000, 60000, 1);
+        
+        assertThat(router.isClustered()).isFalse();
+        assertThat(router.isLocal("ORD-0A88WKHQ00P4R")).isTrue();
+    }
+    
+    private static OrderRouter router(String self, int partitionCount) {
+        return new OrderRouter(new ObjectMapper(), NODES, self, 256, 2000, 60000, partitionCount);
+    }
+}
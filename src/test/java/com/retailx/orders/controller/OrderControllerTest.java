@@ -0,0 +1,171 @@
+package com.retailx.orders.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.cache.DistributedOrderCache;
+import com.retailx.orders.cache.OrderCache;
+import com.retailx.orders.client.NotificationClient;
+import com.retailx.orders.client.NotificationDispatcher;
+import com.retailx.orders.client.NotificationPayloadEncoder;
+import com.retailx.orders.client.ResilientNotificationClient;
+import com.retailx.orders.cluster.OrderRouter;
+import com.retailx.orders.events.OrderEventHub;
+import com.retailx.orders.id.OrderIdGenerator;
+import com.retailx.orders.idempotency.IdempotencyStore;
+import com.retailx.orders.model.BatchStatusUpdateResult;
+import com.retailx.orders.model.BatchStatusUpdateResult.Outcome;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.pricing.OrderPricingEngine;
+import com.retailx.orders.pricing.PricingRule;
+import com.retailx.orders.service.OrderService;
+import com.retailx.orders.status.OrderStatusMachine;
+import com.retailx.orders.store.ConcurrentOrderStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for PATCH /orders/status on a two-instance cluster whose other
+ * instance is a stub: local entries are applied here, the others are forwarded
+ * to their owner, and null or incomplete entries get a REJECTED result instead
+ * of failing the batch.
+ */
+class OrderControllerTest {
+    
+    private static final String SELF = "http://127.0.0.1:1";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentOrderStore store = new ConcurrentOrderStore();
+    private final List<JsonNode> forwarded = new CopyOnWriteArrayList<>();
+    private volatile int ownerStatus = 200;
+    private HttpServer owner;
+    private OrderRouter router;
+    private OrderController controller;
+    
+    @BeforeEach
+    void startCluster() throws IOException {
+        owner = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        owner.createContext("/orders/status", this::answerForwardedBatch);
+        owner.start();
+        router = new OrderRouter(objectMapper, SELF + ",http://127.0.0.1:" + owner.getAddress().getPort(), SELF,
+            256, 2000, 10_000, 64);
+        controller = controller();
+    }
+    
+    @AfterEach
+    void stopCluster() {
+        owner.stop(0);
+    }
+    
+    @Test
+    void nullAndIncompleteEntriesAreRejectedWhileTheRestAreRouted() {
+        String local = orderId(true);
+        String remote = orderId(false);
+        store.insert(order(local));
+        
+        ResponseEntity<List<BatchStatusUpdateResult>> response = controller.updateOrderStatuses(Arrays.asList(
+            new OrderStatusUpdate(local, OrderStatus.CONFIRMED, null),
+            null,
+            new OrderStatusUpdate(remote, OrderStatus.CONFIRMED, null),
+            new OrderStatusUpdate(null, OrderStatus.CONFIRMED, null)), null);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<BatchStatusUpdateResult> results = response.getBody();
+        assertThat(results).extracting(BatchStatusUpdateResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BatchStatusUpdateResult::getOutcome)
+            .containsExactly(Outcome.APPLIED, Outcome.REJECTED, Outcome.APPLIED, Outcome.REJECTED);
+        assertThat(results.get(1).getErrors()).containsExactly("Status update is required");
+        assertThat(results.get(3).getErrors()).containsExactly("Order ID is required");
+        assertThat(store.get(local).getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+        // Only the remote entry went to its owner
+        assertThat(forwarded).hasSize(1);
+        assertThat(forwarded.get(0).size()).isEqualTo(1);
+        assertThat(forwarded.get(0).get(0).get("orderId").asText()).isEqualTo(remote);
+    }
+    
+    @Test
+    void entriesOfAnUnreachableOwnerAreUnavailable() {
+        ownerStatus = 503;
+        String local = orderId(true);
+        String remote = orderId(false);
+        store.insert(order(local));
+        
+        List<BatchStatusUpdateResult> results = controller.updateOrderStatuses(List.of(
+            new OrderStatusUpdate(remote, OrderStatus.CONFIRMED, null),
+            new OrderStatusUpdate(local, OrderStatus.CONFIRMED, null)), null).getBody();
+        
+        assertThat(results).extracting(BatchStatusUpdateResult::getOutcome)
+            .containsExactly(Outcome.UNAVAILABLE, Outcome.APPLIED);
+        assertThat(results.get(0).getOrderId()).isEqualTo(remote);
+    }
+    
+    private String orderId(boolean local) {
+        OrderIdGenerator generator = new OrderIdGenerator(1);
+        String orderId;
+        do {
+            orderId = generator.nextId();
+        } while (router.isLocal(orderId) != local);
+        return orderId;
+    }
+    
+    private void answerForwardedBatch(HttpExchange exchange) throws IOException {
+        JsonNode batch;
+        try (InputStream body = exchange.getRequestBody()) {
+            batch = objectMapper.readTree(body);
+        }
+        forwarded.add(batch);
+        List<BatchStatusUpdateResult> results = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            results.add(new BatchStatusUpdateResult(i, batch.get(i).get("orderId").asText(), Outcome.APPLIED,
+                OrderStatus.CONFIRMED, 2L, null));
+        }
+        byte[] response = objectMapper.writeValueAsBytes(results);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(ownerStatus, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+    
+    private OrderController controller() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        ResilientNotificationClient notificationClient = new ResilientNotificationClient(
+            new NotificationClient(WebClient.create("http://127.0.0.1:9"), new NotificationPayloadEncoder(),
+                meterRegistry, 1000, 1),
+            meterRegistry, 50, 20, 50, 30000, 3, 10, 1, 10, 100, 100, 60000);
+        OrderEventHub eventHub = new OrderEventHub(meterRegistry, 1);
+        OrderService service = new OrderService(store,
+            new OrderCache(beans.getBeanProvider(DistributedOrderCache.class), meterRegistry, false, 100, 60_000),
+            eventHub,
+            new NotificationDispatcher(notificationClient, meterRegistry, 1000, 1, 100, 20, 10, 8, false),
+            new OrderIdGenerator(1), router, new OrderPricingEngine(beans.getBeanProvider(PricingRule.class)),
+            new OrderStatusMachine(store, meterRegistry, 1), Validation.buildDefaultValidatorFactory().getValidator());
+        return new OrderController(service,
+            new OrderEventStreams(eventHub, meterRegistry, 60_000, 60_000, 60_000, 32, false),
+            new IdempotencyStore(meterRegistry, 3_600_000, 100_000, 10_000, 60_000), router, objectMapper,
+            5000, 100_000);
+    }
+}
@@ -0,0 +1,48 @@
+package com.retailx.orders.controller;
+
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OrderETags}: order tags follow the order ID and version, and
+ * page tags change whenever an order on the page changes or the page's orders
+ * or their order change.
+ */
+class OrderETagsTest {
+    
+    @Test
+    void orderTagsFollowIdAndVersion() {
+        OrderResponse order = order("ORD-1");
+        // Changes of one bulk update share an update time; the version still tells them apart
+        OrderResponse confirmed = order.withStatus(OrderStatus.CONFIRMED, CREATED_AT, 2);
+        OrderResponse shipped = confirmed.withStatus(OrderStatus.SHIPPED, CREATED_AT, 3);
+        
+        assertThat(OrderETags.of(order)).matches("\"[0-9a-f]+\"");
+        assertThat(OrderETags.of(order)).isEqualTo(OrderETags.of(order("ORD-1")));
+        assertThat(OrderETags.of(confirmed)).isNotEqualTo(OrderETags.of(order));
+        assertThat(OrderETags.of(shipped)).isNotEqualTo(OrderETags.of(confirmed));
+        assertThat(OrderETags.of(order("ORD-2"))).isNotEqualTo(OrderETags.of(order));
+    }
+    
+    @Test
+    void pageTagsChangeWithTheirOrders() {
+        OrderResponse first = order("ORD-1");
+        OrderResponse second = order("ORD-2");
+        String tag = OrderETags.of(List.of(first, second));
+        
+        assertThat(OrderETags.of(List.of(order("ORD-1"), order("ORD-2")))).isEqualTo(tag);
+        assertThat(OrderETags.of(List.of(second, first))).isNotEqualTo(tag);
+        assertThat(OrderETags.of(List.of(first))).isNotEqualTo(tag);
+        assertThat(OrderETags.of(List.of(first, second, order("ORD-3")))).isNotEqualTo(tag);
+        assertThat(OrderETags.of(List.of(first, second.withStatus(OrderStatus.CONFIRMED, CREATED_AT, 2))))
+            .isNotEqualTo(tag);
+        assertThat(OrderETags.of(List.<OrderResponse>of())).isNotEqualTo(OrderETags.of(List.of(first)));
+    }
+}
@@ -0,0 +1,161 @@
+package com.retailx.orders.controller;
+
+import com.retailx.orders.events.OrderEventHub;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OrderEventStreams} with the real {@link OrderEventHub}
+ * fan-out: a client that stops reading does not hold up the streams of other
+ * clients or their heartbeats, and is closed once it falls too far behind.
+ */
+class OrderEventStreamsTest {
+    
+    private static final int BUFFER_SIZE = 4;
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // One fan-out thread, so every order is delivered by the same thread
+    private final OrderEventHub eventHub = new OrderEventHub(meterRegistry, 1);
+    private OrderEventStreams eventStreams;
+    private final CountDownLatch releaseSlowClient = new CountDownLatch(1);
+    
+    @AfterEach
+    void stop() {
+        releaseSlowClient.countDown();
+        if (eventStreams != null) {
+            eventStreams.stop();
+        }
+    }
+    
+    @Test
+    void slowClientDoesNotDelayOtherStreams() throws Exception {
+        eventStreams = eventStreams(60_000);
+        RecordingEmitter slow = new RecordingEmitter(releaseSlowClient);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        eventStreams.open("slow", () -> order("slow"), slow);
+        eventStreams.open("fast", () -> order("fast"), fast);
+        await(() -> slow.writeStarted && fast.orders.size() == 1);
+        
+        // The slow client's writer is stuck on the initial state while its changes queue up
+        for (int version = 2; version <= BUFFER_SIZE + 2; version++) {
+            eventHub.publish(change("slow", version));
+        }
+        eventHub.publish(change("fast", 2));
+        
+        await(() -> fast.orders.size() == 2);
+        assertThat(fast.orders).extracting(OrderResponse::getVersion).containsExactly(1L, 2L);
+        assertThat(eventHub.getSubscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("retailx.orders.events.overflows").counter().count()).isEqualTo(1);
+        assertThat(slow.completed).isFalse();
+        
+        // Once its write returns, the overflowed stream is completed without the queued changes
+        releaseSlowClient.countDown();
+        await(() -> slow.completed);
+        assertThat(slow.orders).extracting(OrderResponse::getVersion).containsExactly(1L);
+    }
+    
+    @Test
+    void heartbeatsReachOtherStreamsWhileAClientIsStuck() throws Exception {
+        eventStreams = eventStreams(20);
+        RecordingEmitter slow = new RecordingEmitter(releaseSlowClient);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        eventStreams.open("slow", () -> order("slow"), slow);
+        eventStreams.open("fast", () -> order("fast"), fast);
+        
+        await(() -> fast.heartbeats >= 3);
+        assertThat(slow.heartbeats).isZero();
+    }
+    
+    @Test
+    void changesAreSentInOrderWithoutRepeats() throws Exception {
+        eventStreams = eventStreams(60_000);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        eventStreams.open("watched", () -> order("watched"), emitter);
+        
+        eventHub.publish(change("watched", 1));
+        eventHub.publish(change("watched", 2));
+        eventHub.publish(change("watched", 2));
+        eventHub.publish(change("watched", 3));
+        
+        await(() -> emitter.orders.size() == 3);
+        Thread.sleep(50);
+        assertThat(emitter.orders).extracting(OrderResponse::getVersion).containsExactly(1L, 2L, 3L);
+    }
+    
+    private OrderEventStreams eventStreams(long heartbeatIntervalMs) {
+        return new OrderEventStreams(eventHub, meterRegistry, 60_000, 60_000, heartbeatIntervalMs,
+            BUFFER_SIZE, false);
+    }
+    
+    private static OrderResponse change(String orderId, long version) {
+        return order(orderId).withStatus(OrderStatus.CONFIRMED, CREATED_AT.plusMinutes(version), version);
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+    
+    /**
+     * An emitter that records what is written to it instead of writing to a
+     * response; with a latch, every write blocks until it opens, like a client
+     * that stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        
+        private final CountDownLatch release;
+        private final List<OrderResponse> orders = new CopyOnWriteArrayList<>();
+        private volatile int heartbeats;
+        private volatile boolean writeStarted;
+        private volatile boolean completed;
+        
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+        
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writeStarted = true;
+            if (release != null) {
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            for (DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof OrderResponse order) {
+                    orders.add(order);
+                } else if (data.getData().toString().contains(":heartbeat")) {
+                    heartbeats++;
+                }
+            }
+        }
+        
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.retailx.orders.events.outbox;
+
+import com.retailx.orders.events.OrderEvent;
+import com.retailx.orders.events.OrderEventBus;
+import com.retailx.orders.model.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OutboxRelay} with the in-memory outbox and event bus:
+ * events reach the sink and the bus in outbox order in bounded batches and are
+ * acknowledged, and a batch the sink rejects is retried without anything after
+ * it being delivered or acknowledged.
+ */
+class OutboxRelayTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryOrderOutbox outbox = new InMemoryOrderOutbox(1000);
+    private final OrderEventBus eventBus = new OrderEventBus(meterRegistry, 1024);
+    private final List<Long> busSequences = new CopyOnWriteArrayList<>();
+    private final OrderEventBus.Subscription subscription =
+        eventBus.subscribe("test", event -> busSequences.add(event.getSequence()));
+    private OutboxRelay relay;
+    
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (relay != null) {
+            relay.stop();
+        }
+        subscription.cancel();
+    }
+    
+    @Test
+    void eventsAreDeliveredInOrderAndAcknowledged() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        append(25);
+        relay = relay(sink);
+        relay.start();
+        
+        await(() -> outbox.getAcknowledgedPosition() == 25);
+        // Events recorded while the relay runs follow on
+        append(5);
+        await(() -> outbox.getAcknowledgedPosition() == 30 && busSequences.size() == 30);
+        
+        assertThat(sink.sequences()).containsExactlyElementsOf(sequences(1, 30));
+        assertThat(busSequences).containsExactlyElementsOf(sequences(1, 30));
+        assertThat(sink.batches).allMatch(batch -> batch.size() <= 10);
+        assertThat(meterRegistry.get("retailx.orders.outbox.relayed").counter().count()).isEqualTo(30);
+        assertThat(outbox.read(0, 100)).isEmpty();
+    }
+    
+    @Test
+    void rejectedBatchIsRetriedBeforeAnythingAfterIt() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        sink.failing.set(true);
+        append(15);
+        relay = relay(sink);
+        relay.start();
+        
+        await(() -> sink.attempts.size() >= 3);
+        // Every attempt is the first batch again, and nothing was delivered or acknowledged
+        assertThat(sink.attempts).allMatch(attempt -> attempt.equals(sequences(1, 10)));
+        assertThat(sink.batches).isEmpty();
+        assertThat(busSequences).isEmpty();
+        assertThat(outbox.getAcknowledgedPosition()).isZero();
+        assertThat(meterRegistry.get("retailx.orders.outbox.failed").counter().count()).isGreaterThanOrEqualTo(3);
+        
+        sink.failing.set(false);
+        await(() -> outbox.getAcknowledgedPosition() == 15 && busSequences.size() == 15);
+        assertThat(sink.sequences()).containsExactlyElementsOf(sequences(1, 15));
+        assertThat(busSequences).containsExactlyElementsOf(sequences(1, 15));
+    }
+    
+    private OutboxRelay relay(OrderEventSink sink) {
+        return new OutboxRelay(outbox, sink, eventBus, meterRegistry, 10, 5, 20);
+    }
+    
+    private void append(int count) {
+        for (int i = 0; i < count; i++) {
+            OrderResponse order = order("ORD-" + i);
+            outbox.append(sequence -> OrderEvent.created(sequence, order));
+        }
+    }
+    
+    private static List<Long> sequences(long first, long last) {
+        return LongStream.rangeClosed(first, last).boxed().toList();
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+    
+    /**
+     * Records every batch it is offered and, while {@code failing}, rejects it.
+     */
+    private static final class RecordingSink implements OrderEventSink {
+        
+        private final AtomicBoolean failing = new AtomicBoolean();
+        private final List<List<Long>> attempts = new CopyOnWriteArrayList<>();
+        private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public void publish(List<OrderEvent> events) {
+            List<Long> batch = events.stream().map(OrderEvent::getSequence).toList();
+            attempts.add(batch);
+            if (failing.get()) {
+                throw new IllegalStateException("broker unavailable");
+            }
+            batches.add(batch);
+        }
+        
+        List<Long> sequences() {
+            return batches.stream().flatMap(List::stream).toList();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.retailx.orders.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.retailx.orders.ConcurrencyTestSupport.THREADS;
+import static com.retailx.orders.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link OrderIdGenerator}: IDs never repeat across threads or across
+ * nodes, and IDs from one thread sort in the order they were generated.
+ */
+class OrderIdGeneratorTest {
+    
+    private static final int IDS_PER_THREAD = 20_000;
+    
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        OrderIdGenerator generator = new OrderIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        
+        // Far more than 4096 IDs per millisecond, so the sequence overflows into the timestamp
+        runConcurrently(thread -> {
+            String previous = null;
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                String id = generator.nextId();
+                assertThat(ids.add(id)).as("duplicate ID %s", id).isTrue();
+                if (previous != null) {
+                    assertThat(id).isGreaterThan(previous);
+                }
+                previous = id;
+            }
+        });
+        
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+    
+    @Test
+    void idsAreUniqueAcrossNodes() throws Exception {
+        // Each thread plays a separate instance with its own node ID, all generating in the same milliseconds
+        OrderIdGenerator[] nodes = new OrderIdGenerator[THREADS];
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = new OrderIdGenerator(node * 16);
+        }
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        
+        runConcurrently(thread -> {
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                String id = nodes[thread].nextId();
+                assertThat(ids.add(id)).as("duplicate ID %s", id).isTrue();
+            }
+        });
+        
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+    
+    @Test
+    void idsHaveTheDocumentedFormat() {
+        OrderIdGenerator generator = new OrderIdGenerator(1023);
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+        
+        assertThat(ids).hasSize(10_000)
+            .allMatch(id -> id.matches("ORD-[0-9A-HJKMNP-TV-Z]{13}"));
+    }
+    
+    @Test
+    void nodeIdOutOfRangeIsRejected() {
+        assertThatThrownBy(() -> new OrderIdGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
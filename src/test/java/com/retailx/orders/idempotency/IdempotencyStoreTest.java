@@ -0,0 +1,113 @@
+package com.retailx.orders.idempotency;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link IdempotencyStore}: concurrent requests with the same key
+ * create one order, and a key reused for a different request is rejected.
+ */
+class IdempotencyStoreTest {
+    
+    private static final int THREADS = 64;
+    
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 3_600_000, 100_000, 10_000, 60_000);
+    
+    @AfterEach
+    void stop() {
+        store.stop();
+    }
+    
+    @Test
+    void concurrentRequestsWithTheSameKeyCreateOneOrder() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<IdempotencyStore.Result> results = new ArrayList<>();
+        try {
+            List<Future<IdempotencyStore.Result>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return store.execute("key-1", request("10.50"), () -> {
+                        // Keep the creation running while the duplicates arrive
+                        sleep(200);
+                        return order("ORD-" + created.incrementAndGet());
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<IdempotencyStore.Result> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(created).hasValue(1);
+        assertThat(results).filteredOn(result -> result.getOutcome() == IdempotencyStore.Outcome.CREATED).hasSize(1);
+        assertThat(results).filteredOn(result -> result.getOutcome() == IdempotencyStore.Outcome.REPLAYED)
+            .hasSize(THREADS - 1);
+        assertThat(results).allMatch(result -> result.getOrder().getOrderId().equals("ORD-1"));
+    }
+    
+    @Test
+    void retryWithAnEquivalentRequestIsReplayed() {
+        store.execute("key-1", request("10.50"), () -> order("ORD-1"));
+        
+        IdempotencyStore.Result retry = store.execute("key-1", request("10.5"), () -> order("ORD-2"));
+        
+        assertThat(retry.getOutcome()).isEqualTo(IdempotencyStore.Outcome.REPLAYED);
+        assertThat(retry.getOrder().getOrderId()).isEqualTo("ORD-1");
+    }
+    
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        store.execute("key-1", request("10.50"), () -> order("ORD-1"));
+        
+        IdempotencyStore.Result reused = store.execute("key-1", request("11.00"), () -> order("ORD-2"));
+        
+        assertThat(reused.getOutcome()).isEqualTo(IdempotencyStore.Outcome.KEY_REUSED);
+        assertThat(reused.getOrder()).isNull();
+    }
+    
+    @Test
+    void fieldsDoNotRunIntoEachOther() {
+        CreateOrderRequest first = new CreateOrderRequest("a@example.com", List.of(), "1 Main Street");
+        first.setPromotionCode("SAVE");
+        CreateOrderRequest second = new CreateOrderRequest("a@example.com", List.of(), "1 Main StreetSAVE");
+        store.execute("key-1", first, () -> order("ORD-1"));
+        
+        IdempotencyStore.Result reused = store.execute("key-1", second, () -> order("ORD-2"));
+        
+        assertThat(reused.getOutcome()).isEqualTo(IdempotencyStore.Outcome.KEY_REUSED);
+    }
+    
+    private static CreateOrderRequest request(String price) {
+        return new CreateOrderRequest("a@example.com",
+            List.of(new CreateOrderRequest.OrderItem("SKU-1", 2, new BigDecimal(price))), "1 Main Street");
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
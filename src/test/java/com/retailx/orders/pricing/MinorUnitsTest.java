@@ -0,0 +1,67 @@
+package com.retailx.orders.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link MinorUnits}: conversions round half-even to the cent, rates
+ * match the same calculation in {@link BigDecimal}, and overflow throws.
+ */
+class MinorUnitsTest {
+    
+    @Test
+    void decimalsAreRoundedHalfEvenToTheCent() {
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("12.34"))).isEqualTo(1234);
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("7"))).isEqualTo(700);
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("1.005"))).isEqualTo(100);
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("1.015"))).isEqualTo(102);
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("1.0051"))).isEqualTo(101);
+        assertThat(MinorUnits.fromDecimal(new BigDecimal("-1.005"))).isEqualTo(-100);
+    }
+    
+    @Test
+    void minorUnitsConvertBackWithTwoDecimals() {
+        assertThat(MinorUnits.toDecimal(1234)).isEqualTo(new BigDecimal("12.34"));
+        assertThat(MinorUnits.toDecimal(5)).isEqualTo(new BigDecimal("0.05"));
+        assertThat(MinorUnits.toDecimal(0)).isEqualTo(new BigDecimal("0.00"));
+    }
+    
+    @Test
+    void ratesRoundHalfEven() {
+        // 10% of 0.05 is 0.005: a tie, rounded to the even cent
+        assertThat(MinorUnits.applyRate(5, 1000)).isZero();
+        assertThat(MinorUnits.applyRate(15, 1000)).isEqualTo(2);
+        assertThat(MinorUnits.applyRate(16, 1000)).isEqualTo(2);
+        assertThat(MinorUnits.applyRate(-15, 1000)).isEqualTo(-2);
+        assertThat(MinorUnits.applyRate(-5, 1000)).isZero();
+        assertThat(MinorUnits.applyRate(1999, 10_000)).isEqualTo(1999);
+    }
+    
+    @Test
+    void ratesMatchBigDecimalArithmetic() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long amount = random.nextLong() % 1_000_000_000L;
+            long basisPoints = random.nextInt(20_001);
+            long expected = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(basisPoints))
+                .divide(BigDecimal.valueOf(MinorUnits.BASIS_POINTS), 0, RoundingMode.HALF_EVEN)
+                .longValueExact();
+            assertThat(MinorUnits.applyRate(amount, basisPoints))
+                .as("%d at %d bp", amount, basisPoints).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    void overflowThrows() {
+        assertThatThrownBy(() -> MinorUnits.fromDecimal(new BigDecimal("1e17")))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> MinorUnits.applyRate(Long.MAX_VALUE / 2, 10_000))
+            .isInstanceOf(ArithmeticException.class);
+    }
+}
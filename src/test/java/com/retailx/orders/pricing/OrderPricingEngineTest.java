@@ -0,0 +1,141 @@
+package com.retailx.orders.pricing;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.CreateOrderRequest.OrderItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.Ordered;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link OrderPricingEngine}: the subtotal matches the same sum in
+ * {@link BigDecimal}, rules run in phase order on the discounted amount,
+ * discounts never take the subtotal below zero, and overflow throws.
+ */
+class OrderPricingEngineTest {
+    
+    @Test
+    void subtotalMatchesBigDecimalArithmetic() {
+        OrderPricingEngine engine = engine();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            List<OrderItem> items = new ArrayList<>();
+            BigDecimal expected = BigDecimal.ZERO;
+            for (int j = 1 + random.nextInt(10); j > 0; j--) {
+                BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(1_000_000), 3);
+                int quantity = 1 + random.nextInt(100);
+                items.add(new OrderItem("SKU-" + j, quantity, price));
+                expected = expected.add(price.setScale(2, RoundingMode.HALF_EVEN)
+                    .multiply(BigDecimal.valueOf(quantity)));
+            }
+            
+            PriceCalculation calculation = engine.price(request(items));
+            
+            assertThat(calculation.getTotalAmount()).isEqualTo(expected);
+            assertThat(calculation.getSubtotal()).isEqualTo(calculation.getTotal());
+        }
+    }
+    
+    @Test
+    void linesAreKeptPerItem() {
+        PriceCalculation calculation = engine().price(request(List.of(
+            new OrderItem("SKU-1", 3, new BigDecimal("2.50")),
+            new OrderItem("SKU-2", 1, new BigDecimal("0.99")))));
+        
+        assertThat(calculation.getLineAmount(0)).isEqualTo(750);
+        assertThat(calculation.getLineAmount(1)).isEqualTo(99);
+        assertThat(calculation.getSubtotal()).isEqualTo(849);
+    }
+    
+    @Test
+    void rulesRunInPhaseOrder() {
+        // Registered out of order; tax is charged on the discounted subtotal plus shipping
+        OrderPricingEngine engine = engine(
+            rule(PricingRule.TAX_PHASE, calculation -> calculation.addTax(MinorUnits.applyRate(
+                calculation.getDiscountedSubtotal() + calculation.getShipping(), 2000))),
+            rule(PricingRule.SHIPPING_PHASE, calculation -> calculation.addShipping(495)),
+            rule(PricingRule.DISCOUNT_PHASE, calculation -> calculation.addDiscount(1000)));
+        
+        PriceCalculation calculation = engine.price(request(List.of(
+            new OrderItem("SKU-1", 2, new BigDecimal("25.00")))));
+        
+        assertThat(calculation.getDiscount()).isEqualTo(1000);
+        assertThat(calculation.getShipping()).isEqualTo(495);
+        assertThat(calculation.getTax()).isEqualTo(899);
+        assertThat(calculation.getTotalAmount()).isEqualTo(new BigDecimal("53.94"));
+    }
+    
+    @Test
+    void discountsAreCappedAtTheSubtotal() {
+        OrderPricingEngine engine = engine(
+            rule(PricingRule.DISCOUNT_PHASE, calculation -> calculation.addDiscount(600)),
+            rule(PricingRule.DISCOUNT_PHASE + 1, calculation ->
+                assertThat(calculation.addDiscount(600)).isEqualTo(400)));
+        
+        PriceCalculation calculation = engine.price(request(List.of(
+            new OrderItem("SKU-1", 1, new BigDecimal("10.00")))));
+        
+        assertThat(calculation.getDiscount()).isEqualTo(1000);
+        assertThat(calculation.getTotal()).isZero();
+    }
+    
+    @Test
+    void negativeAdjustmentsAreRejected() {
+        PriceCalculation calculation = engine().price(request(List.of(
+            new OrderItem("SKU-1", 1, new BigDecimal("10.00")))));
+        
+        assertThatThrownBy(() -> calculation.addDiscount(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> calculation.addShipping(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> calculation.addTax(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void overflowThrows() {
+        OrderPricingEngine engine = engine();
+        
+        assertThatThrownBy(() -> engine.price(request(List.of(
+                new OrderItem("SKU-1", Integer.MAX_VALUE, new BigDecimal("99999999999.99"))))))
+            .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> engine.price(request(List.of(
+                new OrderItem("SKU-1", 1, new BigDecimal("90000000000000000.00")),
+                new OrderItem("SKU-2", 1, new BigDecimal("90000000000000000.00"))))))
+            .isInstanceOf(ArithmeticException.class);
+    }
+    
+    private static OrderPricingEngine engine(PricingRule... rules) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        for (int i = 0; i < rules.length; i++) {
+            beans.addBean("rule" + i, rules[i]);
+        }
+        return new OrderPricingEngine(beans.getBeanProvider(PricingRule.class));
+    }
+    
+    private static PricingRule rule(int phase, PricingRule rule) {
+        return new OrderedRule(phase, rule);
+    }
+    
+    private static CreateOrderRequest request(List<OrderItem> items) {
+        return new CreateOrderRequest("customer@example.com", items, "1 Main Street");
+    }
+    
+    private record OrderedRule(int order, PricingRule rule) implements PricingRule, Ordered {
+        
+        @Override
+        public void apply(PriceCalculation calculation) {
+            rule.apply(calculation);
+        }
+        
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+}
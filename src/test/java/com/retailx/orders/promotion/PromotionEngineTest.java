@@ -0,0 +1,162 @@
+package com.retailx.orders.promotion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.CreateOrderRequest.OrderItem;
+import com.retailx.orders.pricing.OrderPricingEngine;
+import com.retailx.orders.pricing.PricingRule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PromotionEngine} with promotion files in a temporary
+ * directory: the best line and order discounts are granted, codes, segments,
+ * minimum subtotals and validity windows are honoured, and reloads pick up a
+ * changed file while a broken one keeps the previous rules.
+ */
+class PromotionEngineTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PromotionEngine engine;
+    
+    @TempDir
+    Path directory;
+    
+    @AfterEach
+    void stop() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+    
+    @Test
+    void bestLineAndOrderDiscountsAreGranted() throws Exception {
+        OrderPricingEngine pricing = pricing("""
+            { "promotions": [
+              { "id": "p10", "productIds": ["PROD-1"], "percentOff": 10 },
+              { "id": "p1off", "productIds": ["PROD-1"], "amountOff": 1.00 },
+              { "id": "all5", "percentOff": 5 },
+              { "id": "save20", "code": "save20", "percentOff": 20 }
+            ] }
+            """, 60_000);
+        List<OrderItem> items = List.of(
+            new OrderItem("PROD-1", 2, new BigDecimal("8.00")),
+            new OrderItem("PROD-2", 1, new BigDecimal("4.00")));
+        
+        // 1.00 per unit beats 10% on PROD-1; 5% of the rest comes off the order
+        assertThat(total(pricing, "customer@example.com", null, items)).isEqualTo("17.10");
+        // The code's 20% beats the global 5% on the subtotal after line discounts
+        assertThat(total(pricing, "customer@example.com", " Save20 ", items)).isEqualTo("14.40");
+        assertThat(total(pricing, "customer@example.com", "UNKNOWN", items)).isEqualTo("17.10");
+        assertThat(engine.size()).isEqualTo(4);
+    }
+    
+    @Test
+    void segmentsMinimumSubtotalsAndValidityWindowsAreHonoured() throws Exception {
+        OrderPricingEngine pricing = pricing("""
+            { "segments": { "vip": ["VIP@example.com"] },
+              "promotions": [
+              { "id": "vip15", "segment": "vip", "percentOff": 15 },
+              { "id": "big", "minSubtotal": 50.00, "amountOff": 7.50 },
+              { "id": "past", "endsAt": "2020-01-01T00:00:00", "percentOff": 50 },
+              { "id": "future", "startsAt": "2999-01-01T00:00:00", "percentOff": 50 }
+            ] }
+            """, 60_000);
+        List<OrderItem> small = List.of(new OrderItem("PROD-1", 1, new BigDecimal("20.00")));
+        List<OrderItem> large = List.of(new OrderItem("PROD-1", 3, new BigDecimal("20.00")));
+        
+        assertThat(total(pricing, "customer@example.com", null, small)).isEqualTo("20.00");
+        assertThat(total(pricing, " vip@Example.com ", null, small)).isEqualTo("17.00");
+        assertThat(total(pricing, "customer@example.com", null, large)).isEqualTo("52.50");
+        assertThat(total(pricing, "vip@example.com", null, large)).isEqualTo("51.00");
+        // Promotions that are already over are left out of the index
+        assertThat(engine.size()).isEqualTo(3);
+    }
+    
+    @Test
+    void reloadsPickUpChangesAndKeepRulesFromABrokenFile() throws Exception {
+        OrderPricingEngine pricing = pricing("""
+            { "promotions": [ { "id": "a", "percentOff": 10 } ] }
+            """, 20);
+        List<OrderItem> items = List.of(new OrderItem("PROD-1", 1, new BigDecimal("10.00")));
+        assertThat(total(pricing, "customer@example.com", null, items)).isEqualTo("9.00");
+        
+        write("""
+            { "promotions": [ { "id": "a", "percentOff": 20 } ] }
+            """);
+        await(() -> total(pricing, "customer@example.com", null, items).equals("8.00"));
+        
+        write("{ \"promotions\": [ { \"id\": \"a\", \"percentOff\": 20, \"amountOff\": 1 } ] }");
+        await(() -> reloads("failure") == 1);
+        assertThat(total(pricing, "customer@example.com", null, items)).isEqualTo("8.00");
+        
+        Files.delete(directory.resolve("promotions.json"));
+        await(() -> engine.size() == 0);
+        assertThat(total(pricing, "customer@example.com", null, items)).isEqualTo("10.00");
+        assertThat(reloads("success")).isEqualTo(2);
+    }
+    
+    @Test
+    void invalidFileAtStartupMeansNoPromotions() throws Exception {
+        OrderPricingEngine pricing = pricing("""
+            { "promotions": [ { "id": "a", "percentOff": 150 } ] }
+            """, 60_000);
+        
+        assertThat(engine.size()).isZero();
+        assertThat(reloads("failure")).isEqualTo(1);
+        assertThat(total(pricing, "customer@example.com", null,
+            List.of(new OrderItem("PROD-1", 1, new BigDecimal("10.00"))))).isEqualTo("10.00");
+    }
+    
+    private OrderPricingEngine pricing(String promotions, long reloadIntervalMs) throws IOException {
+        write(promotions);
+        engine = new PromotionEngine(objectMapper, meterRegistry,
+            directory.resolve("promotions.json").toString(), reloadIntervalMs);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("promotionEngine", engine);
+        return new OrderPricingEngine(beans.getBeanProvider(PricingRule.class));
+    }
+    
+    private void write(String promotions) throws IOException {
+        Path file = directory.resolve("promotions.json");
+        FileTime previous = Files.exists(file) ? Files.getLastModifiedTime(file) : null;
+        Files.writeString(file, promotions);
+        if (previous != null) {
+            // A change is detected by modification time and size; make sure the time moves
+            Files.setLastModifiedTime(file, FileTime.fromMillis(previous.toMillis() + 1000));
+        }
+    }
+    
+    private double reloads(String result) {
+        return meterRegistry.get("retailx.orders.promotions.reloads").tag("result", result).counter().count();
+    }
+    
+    private static String total(OrderPricingEngine pricing, String customerEmail, String promotionCode,
+                                List<OrderItem> items) {
+        CreateOrderRequest request = new CreateOrderRequest(customerEmail, items, "1 Main Street");
+        request.setPromotionCode(promotionCode);
+        return pricing.price(request).getTotalAmount().toPlainString();
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,182 @@
+package com.retailx.orders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retailx.orders.cache.DistributedOrderCache;
+import com.retailx.orders.cache.OrderCache;
+import com.retailx.orders.client.NotificationClient;
+import com.retailx.orders.client.NotificationDispatcher;
+import com.retailx.orders.client.NotificationPayloadEncoder;
+import com.retailx.orders.client.ResilientNotificationClient;
+import com.retailx.orders.cluster.OrderRouter;
+import com.retailx.orders.events.OrderEventHub;
+import com.retailx.orders.id.OrderIdGenerator;
+import com.retailx.orders.model.BatchOrderResult;
+import com.retailx.orders.model.BatchOrderResult.Status;
+import com.retailx.orders.model.BatchStatusUpdateResult;
+import com.retailx.orders.model.BatchStatusUpdateResult.Outcome;
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.pricing.OrderPricingEngine;
+import com.retailx.orders.pricing.PricingRule;
+import com.retailx.orders.status.OrderStatusMachine;
+import com.retailx.orders.store.ConcurrentOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the batch operations of {@link OrderService}. In
+ * {@link OrderService#createOrders} invalid requests are rejected without
+ * affecting the rest of the batch, ID collisions are stored again under a fresh
+ * ID, and after a failed batch insert only orders the store does not hold are
+ * stored again. {@link OrderService#updateOrderStatuses} reports an outcome per
+ * entry and queues the notifications of the applied changes together.
+ */
+class OrderServiceTest {
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResilientNotificationClient notificationClient = new ResilientNotificationClient(
+        new NotificationClient(WebClient.create("http://127.0.0.1:9"), new NotificationPayloadEncoder(),
+            meterRegistry, 1000, 1),
+        meterRegistry, 50, 20, 50, 30000, 3, 10, 1, 10, 100, 100, 60000);
+    // Never started, so queued notifications stay queued
+    private final NotificationDispatcher notificationDispatcher = new NotificationDispatcher(notificationClient,
+        meterRegistry, 1000, 1, 100, 20, 10, 8, false);
+    private final OrderEventHub eventHub = new OrderEventHub(meterRegistry, 1);
+    
+    @Test
+    void invalidRequestsAreRejectedAndTheRestCreated() {
+        ConcurrentOrderStore store = new ConcurrentOrderStore();
+        OrderService service = service(store);
+        
+        List<BatchOrderResult> results = service.createOrders(List.of(
+            request("a@example.com"),
+            request(""),
+            request("c@example.com")));
+        
+        assertThat(results).extracting(BatchOrderResult::getStatus)
+            .containsExactly(Status.CREATED, Status.REJECTED, Status.CREATED);
+        assertThat(results).extracting(BatchOrderResult::getIndex).containsExactly(0, 1, 2);
+        assertThat(results.get(1).getErrors()).contains("Customer email is required");
+        assertThat(results.get(0).getOrder().getTotalAmount()).isEqualByComparingTo("25.00");
+        assertThat(store.get(results.get(0).getOrder().getOrderId())).isNotNull();
+        assertThat(store.get(results.get(2).getOrder().getOrderId())).isNotNull();
+        assertThat(notificationDispatcher.getQueueDepth()).isEqualTo(2);
+    }
+    
+    @Test
+    void ordersWhoseIdIsTakenAreStoredUnderAFreshId() {
+        List<String> firstIds = new ArrayList<>();
+        ConcurrentOrderStore store = new ConcurrentOrderStore() {
+            @Override
+            public boolean[] insertAll(List<OrderResponse> orders) {
+                orders.forEach(order -> firstIds.add(order.getOrderId()));
+                // The second order collides with an existing one
+                boolean[] inserted = super.insertAll(List.of(orders.get(0)));
+                return new boolean[] {inserted[0], false};
+            }
+        };
+        OrderService service = service(store);
+        
+        List<BatchOrderResult> results = service.createOrders(List.of(
+            request("a@example.com"), request("b@example.com")));
+        
+        assertThat(results).extracting(BatchOrderResult::getStatus).containsOnly(Status.CREATED);
+        assertThat(results.get(0).getOrder().getOrderId()).isEqualTo(firstIds.get(0));
+        String retriedId = results.get(1).getOrder().getOrderId();
+        assertThat(retriedId).isNotEqualTo(firstIds.get(1));
+        assertThat(store.get(retriedId).getCustomerEmail()).isEqualTo("b@example.com");
+        assertThat(notificationDispatcher.getQueueDepth()).isEqualTo(2);
+    }
+    
+    @Test
+    void failedBatchInsertStoresOnlyTheOrdersTheStoreDoesNotHold() {
+        ConcurrentOrderStore store = new ConcurrentOrderStore() {
+            @Override
+            public boolean[] insertAll(List<OrderResponse> orders) {
+                // Fails part way through, after storing the first two
+                insert(orders.get(0));
+                insert(orders.get(1));
+                throw new IllegalStateException("disk full");
+            }
+        };
+        OrderService service = service(store);
+        
+        List<BatchOrderResult> results = service.createOrders(List.of(
+            request("a@example.com"), request("b@example.com"), request("c@example.com"), request("")));
+        
+        assertThat(results).extracting(BatchOrderResult::getStatus)
+            .containsExactly(Status.FAILED, Status.FAILED, Status.CREATED, Status.REJECTED);
+        assertThat(results.get(0).getErrors()).containsExactly("Order could not be confirmed as stored");
+        assertThat(results.get(0).getOrder()).isNull();
+        assertThat(store.get(results.get(2).getOrder().getOrderId()).getCustomerEmail())
+            .isEqualTo("c@example.com");
+        // Neither unconfirmed order was stored a second time
+        assertThat(store.findRecent(null, 10)).extracting(OrderResponse::getCustomerEmail)
+            .containsExactlyInAnyOrder("a@example.com", "b@example.com", "c@example.com");
+        assertThat(notificationDispatcher.getQueueDepth()).isEqualTo(1);
+    }
+    
+    @Test
+    void statusBatchReportsAnOutcomePerEntryAndQueuesNotificationsTogether() throws Exception {
+        ConcurrentOrderStore store = new ConcurrentOrderStore();
+        for (String orderId : List.of("a", "b", "c")) {
+            store.insert(order(orderId));
+        }
+        OrderService service = service(store);
+        List<Long> watchedVersions = new CopyOnWriteArrayList<>();
+        eventHub.subscribe("a", order -> watchedVersions.add(order.getVersion()));
+        
+        List<BatchStatusUpdateResult> results = service.updateOrderStatuses(Arrays.asList(
+            new OrderStatusUpdate("a", OrderStatus.CONFIRMED, null),
+            null,
+            new OrderStatusUpdate("b", OrderStatus.DELIVERED, null),
+            new OrderStatusUpdate("missing", OrderStatus.CONFIRMED, null),
+            new OrderStatusUpdate("c", OrderStatus.CONFIRMED, 5L),
+            new OrderStatusUpdate("a", OrderStatus.SHIPPED, null)));
+        
+        assertThat(results).extracting(BatchStatusUpdateResult::getOutcome).containsExactly(
+            Outcome.APPLIED, Outcome.REJECTED, Outcome.INVALID_TRANSITION, Outcome.NOT_FOUND, Outcome.CONFLICT,
+            Outcome.APPLIED);
+        assertThat(results.get(1).getErrors()).containsExactly("Status update is required");
+        assertThat(results.get(5).getVersion()).isEqualTo(3);
+        assertThat(store.get("a").getStatus()).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(store.get("b").getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(notificationDispatcher.getQueueDepth()).isEqualTo(2);
+        // Clients watching the order are pushed every applied change
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (watchedVersions.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(watchedVersions).containsExactly(2L, 3L);
+    }
+    
+    private OrderService service(ConcurrentOrderStore store) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        return new OrderService(store,
+            new OrderCache(beans.getBeanProvider(DistributedOrderCache.class), meterRegistry, false, 100, 60_000),
+            eventHub, notificationDispatcher, new OrderIdGenerator(1),
+            new OrderRouter(new ObjectMapper(), "", "", 256, 2000, 60000, 1),
+            new OrderPricingEngine(beans.getBeanProvider(PricingRule.class)),
+            new OrderStatusMachine(store, meterRegistry, 1),
+            Validation.buildDefaultValidatorFactory().getValidator());
+    }
+    
+    private static CreateOrderRequest request(String customerEmail) {
+        return new CreateOrderRequest(customerEmail,
+            List.of(new CreateOrderRequest.OrderItem("SKU-1", 2, new BigDecimal("12.50"))), "1 Main Street");
+    }
+}
@@ -0,0 +1,123 @@
+package com.retailx.orders.status;
+
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import com.retailx.orders.model.OrderStatusUpdate;
+import com.retailx.orders.store.ConcurrentOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.retailx.orders.ConcurrencyTestSupport.THREADS;
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static com.retailx.orders.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention tests for {@link OrderStatusMachine}: of concurrent changes to the
+ * same version of an order exactly one is applied and the others get CONFLICT.
+ */
+class OrderStatusMachineTest {
+    
+    private final ConcurrentOrderStore store = new ConcurrentOrderStore();
+    private final OrderStatusMachine statusMachine = new OrderStatusMachine(store, new SimpleMeterRegistry(), 4);
+    
+    @AfterEach
+    void stop() {
+        statusMachine.stop();
+    }
+    
+    @Test
+    void concurrentChangesToTheSameVersionApplyOnce() throws Exception {
+        store.insert(order("hot"));
+        List<StatusTransitionResult> results = new ArrayList<>();
+        
+        runConcurrently(thread -> {
+            OrderStatus target = thread % 2 == 0 ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED;
+            StatusTransitionResult result = statusMachine.transition("hot", target, 1L);
+            synchronized (results) {
+                results.add(result);
+            }
+        });
+        
+        assertThat(results).filteredOn(StatusTransitionResult::isApplied).hasSize(1);
+        assertThat(results).filteredOn(result -> result.getOutcome() == StatusTransitionResult.Outcome.CONFLICT)
+            .hasSize(THREADS - 1)
+            .allMatch(result -> result.getOrder().getVersion() == 2);
+        StatusTransitionResult applied = results.stream().filter(StatusTransitionResult::isApplied).findFirst().get();
+        assertThat(store.get("hot").getVersion()).isEqualTo(2);
+        assertThat(store.get("hot").getStatus()).isEqualTo(applied.getOrder().getStatus());
+    }
+    
+    @Test
+    void hotOrdersMoveThroughTheWorkflowWithOneWinnerPerVersion() throws Exception {
+        int orderCount = 8;
+        for (int i = 0; i < orderCount; i++) {
+            store.insert(order("hot-" + i));
+        }
+        // Versions produced by applied changes, per order; a version applied twice would be a lost update
+        Map<String, Set<Long>> appliedVersions = new ConcurrentHashMap<>();
+        AtomicInteger applied = new AtomicInteger();
+        
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int attempt = 0; attempt < 2_000; attempt++) {
+                String orderId = "hot-" + random.nextInt(orderCount);
+                OrderResponse current = store.get(orderId);
+                List<OrderStatus> next = List.copyOf(OrderStatusTransitions.allowedFrom(current.getStatus()));
+                if (next.isEmpty()) {
+                    continue;
+                }
+                StatusTransitionResult result = statusMachine.transition(orderId,
+                    next.get(random.nextInt(next.size())), current.getVersion());
+                if (result.isApplied()) {
+                    applied.incrementAndGet();
+                    assertThat(result.getOrder().getVersion()).isEqualTo(current.getVersion() + 1);
+                    assertThat(appliedVersions.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet())
+                        .add(result.getOrder().getVersion())).isTrue();
+                } else if (result.getOutcome() == StatusTransitionResult.Outcome.CONFLICT) {
+                    assertThat(result.getOrder().getVersion()).isGreaterThan(current.getVersion());
+                }
+            }
+        });
+        
+        long versionIncrements = 0;
+        for (int i = 0; i < orderCount; i++) {
+            OrderResponse order = store.get("hot-" + i);
+            versionIncrements += order.getVersion() - 1;
+            assertThat(appliedVersions.getOrDefault(order.getOrderId(), Set.of()))
+                .hasSize((int) order.getVersion() - 1);
+        }
+        assertThat(versionIncrements).isEqualTo(applied.get());
+    }
+    
+    @Test
+    void batchAppliesChangesToOneOrderInBatchOrder() {
+        store.insert(order("batched"));
+        List<OrderStatusUpdate> updates = List.of(
+            new OrderStatusUpdate("batched", OrderStatus.CONFIRMED, null),
+            new OrderStatusUpdate("batched", OrderStatus.SHIPPED, null),
+            new OrderStatusUpdate("batched", OrderStatus.SHIPPED, 3L),
+            new OrderStatusUpdate("batched", OrderStatus.DELIVERED, 3L),
+            new OrderStatusUpdate("missing", OrderStatus.CONFIRMED, null));
+        
+        List<StatusTransitionResult> results = statusMachine.transitionAll(updates);
+        
+        assertThat(results).extracting(StatusTransitionResult::getOutcome).containsExactly(
+            StatusTransitionResult.Outcome.APPLIED,
+            StatusTransitionResult.Outcome.APPLIED,
+            StatusTransitionResult.Outcome.INVALID_TRANSITION,
+            StatusTransitionResult.Outcome.APPLIED,
+            StatusTransitionResult.Outcome.NOT_FOUND);
+        assertThat(store.get("batched").getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(store.get("batched").getVersion()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,104 @@
+package com.retailx.orders.store;
+
+import com.retailx.orders.ConcurrencyTestSupport;
+import com.retailx.orders.model.OrderResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static com.retailx.orders.ConcurrencyTestSupport.THREADS;
+import static com.retailx.orders.ConcurrencyTestSupport.runConcurrently;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress tests for {@link ConcurrentOrderStore}: many threads inserting and
+ * changing orders at once must not lose an order or an update.
+ */
+class ConcurrentOrderStoreTest {
+    
+    private final ConcurrentOrderStore store = new ConcurrentOrderStore();
+    
+    @Test
+    void concurrentInsertsAreNotLost() throws Exception {
+        int perThread = 2_000;
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                assertThat(store.insert(order(thread + "-" + i, i))).isTrue();
+            }
+        });
+        
+        assertThat(store.size()).isEqualTo(THREADS * perThread);
+        Set<String> listed = new HashSet<>();
+        OrderKey after = null;
+        List<OrderResponse> page;
+        while (!(page = store.findRecent(after, 1_000)).isEmpty()) {
+            page.forEach(order -> listed.add(order.getOrderId()));
+            after = OrderKey.of(page.get(page.size() - 1));
+        }
+        assertThat(listed).hasSize(THREADS * perThread);
+    }
+    
+    @Test
+    void concurrentInsertsOfTheSameIdStoreOneOrder() throws Exception {
+        AtomicLong inserted = new AtomicLong();
+        runConcurrently(thread -> {
+            for (int i = 0; i < 500; i++) {
+                if (store.insert(order("shared-" + i, i))) {
+                    inserted.incrementAndGet();
+                }
+            }
+        });
+        
+        assertThat(inserted).hasValue(500);
+        assertThat(store.size()).isEqualTo(500);
+    }
+    
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        int orderCount = 32;
+        int updatesPerThread = 2_000;
+        for (int i = 0; i < orderCount; i++) {
+            store.insert(order("hot-" + i, i));
+        }
+        OrderResponse.OrderStatus[] statuses = OrderResponse.OrderStatus.values();
+        AtomicLong transitions = new AtomicLong();
+        
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < updatesPerThread; i++) {
+                OrderResponse.OrderStatus status = statuses[random.nextInt(statuses.length)];
+                OrderResponse updated = store.update("hot-" + random.nextInt(orderCount), current -> {
+                    transitions.incrementAndGet();
+                    return current.withStatus(status, CREATED_AT.plusMinutes(1));
+                });
+                assertThat(updated).isNotNull();
+            }
+        });
+        
+        // Every transition ran exactly once and each one is reflected in a version
+        long versionIncrements = 0;
+        for (int i = 0; i < orderCount; i++) {
+            versionIncrements += store.get("hot-" + i).getVersion() - 1;
+        }
+        assertThat(transitions).hasValue((long) THREADS * updatesPerThread);
+        assertThat(versionIncrements).isEqualTo((long) THREADS * updatesPerThread);
+        
+        // The status index agrees with the stored orders
+        int indexed = 0;
+        for (OrderResponse.OrderStatus status : statuses) {
+            List<OrderResponse> found = store.search(new OrderSearchCriteria(null, status, null, null), null, 1_000);
+            assertThat(found).allMatch(order -> order.getStatus() == status);
+            indexed += found.size();
+        }
+        assertThat(indexed).isEqualTo(orderCount);
+    }
+    
+    private static OrderResponse order(String orderId, int i) {
+        return ConcurrencyTestSupport.order(orderId, "customer" + (i % 10) + "@example.com", CREATED_AT.plusNanos(i));
+    }
+}
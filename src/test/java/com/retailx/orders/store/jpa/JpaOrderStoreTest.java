@@ -0,0 +1,129 @@
+package com.retailx.orders.store.jpa;
+
+import com.retailx.orders.model.CreateOrderRequest;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.repository.OrderRepository;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JpaOrderStore} that count the SQL statements Hibernate
+ * prepares: a page of orders costs one query for the orders and one for the
+ * lines of all of them, however many orders the page holds.
+ * 
+ * Not transactional, so every store call runs its own transaction and reads
+ * from the database rather than from a shared persistence context.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaOrderStoreTest {
+    
+    private static final int ORDERS = 60;
+    private static final int LINES_PER_ORDER = 3;
+    
+    @Autowired
+    private OrderRepository repository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private JpaOrderStore store;
+    private Statistics statistics;
+    
+    @BeforeEach
+    void createOrders() {
+        store = new JpaOrderStore(repository, transactionManager, new SimpleMeterRegistry(), 100, 3_600_000,
+            1000, 1000);
+        for (int i = 0; i < ORDERS; i++) {
+            store.insert(order(i));
+        }
+        store.flush();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @AfterEach
+    void deleteOrders() {
+        store.close();
+        repository.deleteAll();
+    }
+    
+    @Test
+    void pageOfOrdersCostsTwoStatements() {
+        List<OrderResponse> page = store.findRecent(null, 25);
+        
+        assertThat(page).hasSize(25);
+        assertThat(page).allSatisfy(order -> assertThat(order.getItems()).hasSize(LINES_PER_ORDER));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void everyPageCostsTwoStatementsWhateverItsSize() {
+        OrderKey after = null;
+        int pages = 0;
+        int orders = 0;
+        while (true) {
+            statistics.clear();
+            List<OrderResponse> page = store.findRecent(after, 40);
+            if (page.isEmpty()) {
+                break;
+            }
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            orders += page.size();
+            pages++;
+            after = OrderKey.of(page.get(page.size() - 1));
+        }
+        
+        assertThat(pages).isEqualTo(2);
+        assertThat(orders).isEqualTo(ORDERS);
+    }
+    
+    @Test
+    void searchPageCostsTwoStatements() {
+        List<OrderResponse> page = store.search(
+            new OrderSearchCriteria("customer1@example.com", null, null, null), null, 100);
+        
+        assertThat(page).hasSize(ORDERS / 10)
+            .allSatisfy(order -> assertThat(order.getItems()).hasSize(LINES_PER_ORDER));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+    
+    @Test
+    void orderByIdIsLoadedWithItsLinesInOneStatement() {
+        OrderResponse order = store.get("ORD-7");
+        
+        assertThat(order.getItems()).hasSize(LINES_PER_ORDER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+    
+    private static OrderResponse order(int i) {
+        List<CreateOrderRequest.OrderItem> items = List.of(
+            new CreateOrderRequest.OrderItem("PROD-1", 1, BigDecimal.ONE),
+            new CreateOrderRequest.OrderItem("PROD-2", 2, BigDecimal.TEN),
+            new CreateOrderRequest.OrderItem("PROD-3", 3, BigDecimal.ONE));
+        return new OrderResponse("ORD-" + i, "customer" + (i % 10) + "@example.com", items, "1 Main Street",
+            new BigDecimal("24.00"), OrderResponse.OrderStatus.PENDING, CREATED_AT.plusSeconds(i),
+            CREATED_AT.plusSeconds(i));
+    }
+}
@@ -0,0 +1,161 @@
+package com.retailx.orders.store.offheap;
+
+import com.retailx.orders.model.CreateOrderRequest.OrderItem;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import com.retailx.orders.store.OrderKey;
+import com.retailx.orders.store.OrderSearchCriteria;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OffHeapOrderStore}: orders read back as stored across
+ * segments, status changes are written in place while other changes and
+ * removals are accounted as garbage, removed IDs free their index slot without
+ * losing the orders that shared its probe run, and listing and search page
+ * through the creation index newest first.
+ */
+class OffHeapOrderStoreTest {
+    
+    private static final int SEGMENT_SIZE = 1 << 20;
+    
+    private final OffHeapOrderStore store = new OffHeapOrderStore(SEGMENT_SIZE);
+    
+    @AfterEach
+    void close() {
+        store.close();
+    }
+    
+    @Test
+    void ordersRoundTripAcrossSegments() {
+        // About 4 KB per record, so the orders need several 1 MB segments
+        String address = "Straße ".repeat(512);
+        List<OrderResponse> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(new OrderResponse("ORD-" + i, "customer" + i + "@example.com",
+                List.of(new OrderItem("SKU-" + i, i + 1, new BigDecimal("9.99"))), address,
+                new BigDecimal("9.99").multiply(BigDecimal.valueOf(i + 1)), OrderStatus.PENDING,
+                CREATED_AT.plusSeconds(i), CREATED_AT.plusSeconds(i)));
+        }
+        
+        boolean[] inserted = store.insertAll(orders);
+        
+        assertThat(inserted).containsOnly(true);
+        assertThat(store.size()).isEqualTo(1000);
+        assertThat(store.getAllocatedBytes()).isGreaterThan(3L * SEGMENT_SIZE);
+        assertThat(store.getUsedBytes()).isLessThanOrEqualTo(store.getAllocatedBytes());
+        for (OrderResponse order : orders) {
+            assertThat(store.get(order.getOrderId())).usingRecursiveComparison().isEqualTo(order);
+        }
+        assertThat(store.get("ORD-missing")).isNull();
+    }
+    
+    @Test
+    void duplicateIdsAreNotInserted() {
+        assertThat(store.insert(order("ORD-1"))).isTrue();
+        
+        assertThat(store.insert(order("ORD-1", "other@example.com", CREATED_AT))).isFalse();
+        assertThat(store.insertAll(List.of(order("ORD-2"), order("ORD-1"), order("ORD-2"))))
+            .containsExactly(true, false, false);
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.get("ORD-1").getCustomerEmail()).isEqualTo("customer@example.com");
+    }
+    
+    @Test
+    void statusChangesAreWrittenInPlace() {
+        store.insert(order("ORD-1"));
+        long usedBytes = store.getUsedBytes();
+        
+        OrderResponse updated = store.update("ORD-1",
+            order -> order.withStatus(OrderStatus.CONFIRMED, CREATED_AT.plusHours(1)));
+        
+        assertThat(store.get("ORD-1")).usingRecursiveComparison().isEqualTo(updated);
+        assertThat(store.get("ORD-1").getVersion()).isEqualTo(2);
+        assertThat(store.getUsedBytes()).isEqualTo(usedBytes);
+        assertThat(store.getGarbageBytes()).isZero();
+        assertThat(store.search(new OrderSearchCriteria(null, OrderStatus.CONFIRMED, null, null), null, 10))
+            .extracting(OrderResponse::getOrderId).containsExactly("ORD-1");
+        assertThat(store.update("ORD-missing", order -> order)).isNull();
+    }
+    
+    @Test
+    void replacedAndRemovedRecordsAreAccountedAsGarbage() {
+        store.insert(order("ORD-1"));
+        store.insert(order("ORD-2"));
+        long recordBytes = store.getUsedBytes() / 2;
+        
+        store.update("ORD-1", order -> new OrderResponse(order.getOrderId(), order.getCustomerEmail(),
+            order.getItems(), "2 Side Street", order.getTotalAmount(), order.getStatus(),
+            order.getCreatedAt(), CREATED_AT.plusHours(1), order.getVersion() + 1));
+        
+        assertThat(store.get("ORD-1").getDeliveryAddress()).isEqualTo("2 Side Street");
+        assertThat(store.getGarbageBytes()).isEqualTo(recordBytes);
+        assertThat(store.getUsedBytes()).isEqualTo(3 * recordBytes);
+        
+        assertThat(store.remove("ORD-2")).isTrue();
+        assertThat(store.remove("ORD-2")).isFalse();
+        
+        assertThat(store.get("ORD-2")).isNull();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.getGarbageBytes()).isEqualTo(2 * recordBytes);
+        assertThat(store.findRecent(null, 10)).extracting(OrderResponse::getOrderId).containsExactly("ORD-1");
+    }
+    
+    @Test
+    void removedIdsFreeTheirSlotsWithoutLosingOtherOrders() {
+        for (int i = 0; i < 5000; i++) {
+            store.insert(order("ORD-" + i, "customer@example.com", CREATED_AT.plusSeconds(i)));
+        }
+        for (int i = 0; i < 5000; i += 2) {
+            assertThat(store.remove("ORD-" + i)).isTrue();
+        }
+        
+        assertThat(store.size()).isEqualTo(2500);
+        for (int i = 0; i < 5000; i++) {
+            if (i % 2 == 0) {
+                assertThat(store.get("ORD-" + i)).isNull();
+            } else {
+                assertThat(store.get("ORD-" + i).getOrderId()).isEqualTo("ORD-" + i);
+            }
+        }
+        
+        // A removed ID can be stored again, and its slot is taken by the new order
+        for (int i = 0; i < 5000; i += 2) {
+            assertThat(store.insert(order("ORD-" + i, "again@example.com", CREATED_AT.minusSeconds(i)))).isTrue();
+        }
+        assertThat(store.size()).isEqualTo(5000);
+        assertThat(store.get("ORD-0").getCustomerEmail()).isEqualTo("again@example.com");
+        assertThat(store.get("ORD-1").getCustomerEmail()).isEqualTo("customer@example.com");
+        assertThat(store.findRecent(null, 1)).extracting(OrderResponse::getOrderId).containsExactly("ORD-4999");
+    }
+    
+    @Test
+    void listingAndSearchPageNewestFirst() {
+        for (int i = 0; i < 10; i++) {
+            String email = i % 2 == 0 ? "even@example.com" : "odd@example.com";
+            store.insert(order("ORD-" + i, email, CREATED_AT.plusMinutes(i)));
+        }
+        
+        List<OrderResponse> firstPage = store.findRecent(null, 4);
+        List<OrderResponse> secondPage = store.findRecent(OrderKey.of(firstPage.get(3)), 4);
+        
+        assertThat(firstPage).extracting(OrderResponse::getOrderId)
+            .containsExactly("ORD-9", "ORD-8", "ORD-7", "ORD-6");
+        assertThat(secondPage).extracting(OrderResponse::getOrderId)
+            .containsExactly("ORD-5", "ORD-4", "ORD-3", "ORD-2");
+        assertThat(store.search(new OrderSearchCriteria(" Even@Example.com ", null, CREATED_AT.plusMinutes(2),
+                CREATED_AT.plusMinutes(8)), null, 10))
+            .extracting(OrderResponse::getOrderId).containsExactly("ORD-6", "ORD-4", "ORD-2");
+        List<String> visited = new ArrayList<>();
+        store.forEach(order -> visited.add(order.getOrderId()));
+        assertThat(visited).hasSize(10).startsWith("ORD-0", "ORD-1").endsWith("ORD-9");
+    }
+}
@@ -0,0 +1,93 @@
+package com.retailx.orders.store.offheap;
+
+import com.retailx.orders.model.CreateOrderRequest.OrderItem;
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link OrderRecordLayout}: every field survives an encode and
+ * decode, including nulls, non-ASCII text and decimals beyond 64 bits; status
+ * fields are rewritten in place without moving the rest of the record; and a
+ * record cut short fails to decode instead of reading past its end.
+ */
+class OrderRecordLayoutTest {
+    
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 12, 30, 15, 123_456_789);
+    
+    @Test
+    void everyFieldRoundTrips() {
+        OrderResponse order = new OrderResponse("ORD-1", "kunde@example.de",
+            Arrays.asList(
+                new OrderItem("SKU-é中", 3, new BigDecimal("12.50")),
+                new OrderItem("SKU-2", -7, new BigDecimal("-0.001")),
+                new OrderItem("SKU-3", null, null),
+                new OrderItem("SKU-4", Integer.MAX_VALUE, new BigDecimal("123456789012345678901234567890.12"))),
+            "Straße 1, München 🚚", new BigDecimal("1E+3"), OrderStatus.SHIPPED,
+            CREATED_AT, CREATED_AT.plusDays(1), 42);
+        
+        assertThat(roundTrip(order, 0)).usingRecursiveComparison().isEqualTo(order);
+        assertThat(roundTrip(order, 100)).usingRecursiveComparison().isEqualTo(order);
+    }
+    
+    @Test
+    void nullFieldsRoundTrip() {
+        OrderResponse order = new OrderResponse("ORD-1", null, null, null, null, null, null, null);
+        
+        assertThat(roundTrip(order, 0)).usingRecursiveComparison().isEqualTo(order);
+        
+        OrderResponse noItems = new OrderResponse("ORD-2", "a@example.com", List.of(), "", BigDecimal.ZERO,
+            OrderStatus.PENDING, CREATED_AT, CREATED_AT);
+        assertThat(roundTrip(noItems, 0).getItems()).isEmpty();
+    }
+    
+    @Test
+    void statusFieldsAreRewrittenInPlace() {
+        OrderResponse order = new OrderResponse("ORD-1", "a@example.com",
+            List.of(new OrderItem("SKU-1", 2, new BigDecimal("12.50"))), "1 Main Street",
+            new BigDecimal("25.00"), OrderStatus.PENDING, CREATED_AT, CREATED_AT);
+        byte[] record = OrderRecordLayout.encode(order);
+        ByteBuffer segment = ByteBuffer.allocateDirect(record.length + 16);
+        segment.put(16, record);
+        
+        OrderResponse shipped = order.withStatus(OrderStatus.SHIPPED, CREATED_AT.plusHours(5), 7);
+        OrderRecordLayout.putStatusFields(segment, 16, shipped);
+        
+        assertThat(OrderRecordLayout.length(segment, 16)).isEqualTo(record.length);
+        assertThat(OrderRecordLayout.status(segment, 16)).isEqualTo(OrderRecordLayout.status(shipped));
+        assertThat(OrderRecordLayout.orderId(segment, 16)).isEqualTo("ORD-1");
+        assertThat(OrderRecordLayout.decode(segment, 16)).usingRecursiveComparison().isEqualTo(shipped);
+    }
+    
+    @Test
+    void truncatedRecordFailsToDecode() {
+        OrderResponse order = new OrderResponse("ORD-1", "a@example.com",
+            List.of(new OrderItem("SKU-1", 2, new BigDecimal("12.50"))), "1 Main Street",
+            new BigDecimal("25.00"), OrderStatus.PENDING, CREATED_AT, CREATED_AT);
+        byte[] record = OrderRecordLayout.encode(order);
+        ByteBuffer segment = ByteBuffer.wrap(record);
+        
+        segment.putInt(0, record.length - 5);
+        assertThatThrownBy(() -> OrderRecordLayout.decode(segment, 0)).isInstanceOf(IllegalStateException.class);
+        
+        segment.putInt(0, record.length + 1);
+        assertThatThrownBy(() -> OrderRecordLayout.decode(segment, 0)).isInstanceOf(IllegalStateException.class);
+    }
+    
+    private static OrderResponse roundTrip(OrderResponse order, int offset) {
+        byte[] record = OrderRecordLayout.encode(order);
+        ByteBuffer segment = ByteBuffer.allocate(offset + record.length);
+        segment.put(offset, record);
+        assertThat(OrderRecordLayout.length(segment, offset)).isEqualTo(record.length);
+        return OrderRecordLayout.decode(segment, offset);
+    }
+}
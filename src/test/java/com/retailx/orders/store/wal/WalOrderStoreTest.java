@@ -0,0 +1,185 @@
+package com.retailx.orders.store.wal;
+
+import com.retailx.orders.model.OrderResponse;
+import com.retailx.orders.model.OrderResponse.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.retailx.orders.ConcurrencyTestSupport.CREATED_AT;
+import static com.retailx.orders.ConcurrencyTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Crash and recovery tests for {@link WalOrderStore}. A crash is simulated by
+ * copying the store's files while it is still open, which is what the disk
+ * holds if the process dies at that point, and opening a new store on the copy.
+ */
+class WalOrderStoreTest {
+    
+    private static final int SEGMENT_SIZE = 4096;
+    private static final long NO_SCHEDULED_SNAPSHOTS = 3_600_000;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recoversOrdersAndStatusChangesAfterCrash() throws Exception {
+        Path crashImage;
+        List<OrderResponse> expected = new ArrayList<>();
+        try (WalOrderStore store = open(directory.resolve("live"))) {
+            for (int i = 0; i < 100; i++) {
+                assertThat(store.insert(order("ORD-" + i))).isTrue();
+            }
+            for (int i = 0; i < 100; i += 3) {
+                store.update("ORD-" + i, order -> order.withStatus(OrderStatus.CONFIRMED, CREATED_AT.plusHours(1)));
+            }
+            store.updateAll(List.of("ORD-0", "ORD-3"), List.of(
+                order -> order.withStatus(OrderStatus.SHIPPED, CREATED_AT.plusHours(2)),
+                order -> order.withStatus(OrderStatus.CANCELLED, CREATED_AT.plusHours(2))));
+            for (int i = 0; i < 100; i++) {
+                expected.add(store.get("ORD-" + i));
+            }
+            crashImage = copy(directory.resolve("live"), directory.resolve("crash"));
+        }
+        
+        try (WalOrderStore recovered = open(crashImage)) {
+            assertThat(recovered.size()).isEqualTo(100);
+            for (OrderResponse order : expected) {
+                assertSameOrder(recovered.get(order.getOrderId()), order);
+            }
+            assertThat(recovered.get("ORD-0").getStatus()).isEqualTo(OrderStatus.SHIPPED);
+            assertThat(recovered.get("ORD-0").getVersion()).isEqualTo(3);
+            assertThat(recovered.get("ORD-3").getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        }
+    }
+    
+    @Test
+    void discardsTornTailRecordAndKeepsAppending() throws Exception {
+        Path crashImage;
+        try (WalOrderStore store = open(directory.resolve("live"))) {
+            for (int i = 0; i < 10; i++) {
+                store.insert(order("ORD-" + i));
+            }
+            crashImage = copy(directory.resolve("live"), directory.resolve("crash"));
+        }
+        // The process died while the last record was being written
+        tearLastRecord(lastSegment(crashImage));
+        
+        try (WalOrderStore recovered = open(crashImage)) {
+            assertThat(recovered.size()).isEqualTo(9);
+            assertThat(recovered.get("ORD-9")).isNull();
+            assertThat(recovered.insert(order("ORD-9"))).isTrue();
+            assertThat(recovered.insert(order("ORD-10"))).isTrue();
+            crashImage = copy(crashImage, directory.resolve("crash-again"));
+        }
+        
+        try (WalOrderStore recovered = open(crashImage)) {
+            assertThat(recovered.size()).isEqualTo(11);
+            assertThat(recovered.get("ORD-9")).isNotNull();
+            assertThat(recovered.get("ORD-10")).isNotNull();
+        }
+    }
+    
+    @Test
+    void recoversFromSnapshotAndTheLogWrittenSince() throws Exception {
+        Path crashImage;
+        try (WalOrderStore store = open(directory.resolve("live"))) {
+            for (int i = 0; i < 50; i++) {
+                store.insert(order("ORD-" + i));
+            }
+            store.snapshot();
+            for (int i = 50; i < 80; i++) {
+                store.insert(order("ORD-" + i));
+            }
+            store.update("ORD-1", order -> order.withStatus(OrderStatus.CONFIRMED, CREATED_AT.plusHours(1)));
+            crashImage = copy(directory.resolve("live"), directory.resolve("crash"));
+        }
+        try (Stream<Path> files = Files.list(crashImage)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                .anyMatch(name -> name.startsWith("snapshot-") && name.endsWith(".snap"));
+        }
+        
+        try (WalOrderStore recovered = open(crashImage)) {
+            assertThat(recovered.size()).isEqualTo(80);
+            assertThat(recovered.get("ORD-79")).isNotNull();
+            assertThat(recovered.get("ORD-1").getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(recovered.get("ORD-1").getVersion()).isEqualTo(2);
+        }
+    }
+    
+    @Test
+    void reopensAfterCleanShutdown() throws Exception {
+        Path live = directory.resolve("live");
+        try (WalOrderStore store = open(live)) {
+            for (int i = 0; i < 200; i++) {
+                store.insert(order("ORD-" + i));
+            }
+            store.update("ORD-7", order -> order.withStatus(OrderStatus.CONFIRMED, CREATED_AT.plusHours(1)));
+        }
+        
+        try (WalOrderStore reopened = open(live)) {
+            assertThat(reopened.size()).isEqualTo(200);
+            assertThat(reopened.get("ORD-7").getStatus()).isEqualTo(OrderStatus.CONFIRMED);
+            assertThat(reopened.insert(order("ORD-7"))).isFalse();
+        }
+    }
+    
+    private static WalOrderStore open(Path directory) throws IOException {
+        return new WalOrderStore(directory, SEGMENT_SIZE, NO_SCHEDULED_SNAPSHOTS, 1);
+    }
+    
+    private static void assertSameOrder(OrderResponse actual, OrderResponse expected) {
+        assertThat(actual).isNotNull();
+        assertThat(actual.getStatus()).isEqualTo(expected.getStatus());
+        assertThat(actual.getVersion()).isEqualTo(expected.getVersion());
+        assertThat(actual.getUpdatedAt()).isEqualTo(expected.getUpdatedAt());
+        assertThat(actual.getCustomerEmail()).isEqualTo(expected.getCustomerEmail());
+        assertThat(actual.getTotalAmount()).isEqualByComparingTo(expected.getTotalAmount());
+    }
+    
+    private static Path copy(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+        return to;
+    }
+    
+    private static Path lastSegment(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("wal-")).sorted()
+                .reduce((first, second) -> second).orElseThrow();
+        }
+    }
+    
+    /**
+     * Garbles the second half of the last record in a segment, as a write cut
+     * short by a crash leaves it.
+     */
+    private static void tearLastRecord(Path segment) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int position = 0;
+        int last = -1;
+        while (position + 8 <= bytes.length && buffer.getInt(position) != 0) {
+            last = position;
+            position += 8 + buffer.getInt(position);
+        }
+        assertThat(last).isNotNegative();
+        int length = buffer.getInt(last);
+        for (int offset = last + 8 + length / 2; offset < last + 8 + length; offset++) {
+            bytes[offset] ^= (byte) 0xFF;
+        }
+        Files.write(segment, bytes);
+    }
+}